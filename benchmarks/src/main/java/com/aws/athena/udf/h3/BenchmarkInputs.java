@@ -0,0 +1,133 @@
+package com.aws.athena.udf.h3;
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
+import com.amazonaws.athena.connector.lambda.data.BlockUtils;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import com.amazonaws.athena.connector.lambda.security.FederatedIdentity;
+import com.amazonaws.athena.connector.lambda.serde.VersionedObjectMapperFactory;
+import com.amazonaws.athena.connector.lambda.udf.UserDefinedFunctionRequest;
+import com.amazonaws.athena.connector.lambda.udf.UserDefinedFunctionType;
+import com.uber.h3core.H3Core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+/** Reproducible inputs of the benchmarks: random points and cells, and serialized UDF requests. */
+public final class BenchmarkInputs {
+
+    /** The seed of every random input, so that runs are comparable. */
+    public static final long SEED = 42;
+
+    private BenchmarkInputs() {
+    }
+
+    /** Returns random points, latitude then longitude, over the whole globe.
+     *  @param random the random generator.
+     *  @param count the number of points.
+     *  @return the points.
+     */
+    public static double[][] randomPoints(Random random, int count) {
+        final double[][] points = new double[count][];
+        for (int i = 0; i < count; ++i) {
+            points[i] = new double[] { Math.toDegrees(Math.asin(2 * random.nextDouble() - 1)),
+                                       random.nextDouble() * 360.0 - 180.0 };
+        }
+        return points;
+    }
+
+    /** Returns the cells of random points.
+     *  @param h3Core the H3 library.
+     *  @param random the random generator.
+     *  @param count the number of cells.
+     *  @param res the resolution of the cells.
+     *  @return the cells.
+     */
+    public static long[] randomCells(H3Core h3Core, Random random, int count, int res) {
+        final long[] cells = new long[count];
+        final double[][] points = randomPoints(random, count);
+        for (int i = 0; i < count; ++i) {
+            cells[i] = h3Core.latLngToCell(points[i][0], points[i][1], res);
+        }
+        return cells;
+    }
+
+    /** Boxes cells into a list, the form UDFs take arrays in.
+     *  @param cells the cells.
+     *  @return the list.
+     */
+    public static List<Long> toList(long[] cells) {
+        final List<Long> list = new ArrayList<>(cells.length);
+        for (final long cell : cells) {
+            list.add(cell);
+        }
+        return list;
+    }
+
+    /** Creates an input block with one column per UDF argument.
+     *  @param allocator the allocator of the block.
+     *  @param types the Arrow types of the arguments.
+     *  @param columns the values of each argument, one array per column, all of the same length.
+     *  @return the block.
+     */
+    public static Block inputBlock(BlockAllocator allocator, List<ArrowType> types, List<Object[]> columns) {
+        final SchemaBuilder schema = SchemaBuilder.newBuilder();
+        for (int c = 0; c < types.size(); ++c) {
+            schema.addField("arg" + c, types.get(c));
+        }
+        final Block block = allocator.createBlock(schema.build());
+        final int rowCount = columns.get(0).length;
+        for (int c = 0; c < columns.size(); ++c) {
+            final FieldVector vector = block.getFieldVector("arg" + c);
+            final Object[] values = columns.get(c);
+            for (int row = 0; row < rowCount; ++row) {
+                BlockUtils.setValue(vector, row, values[row]);
+            }
+        }
+        block.setRowCount(rowCount);
+        return block;
+    }
+
+    /** Returns the output schema of a UDF returning a scalar.
+     *  @param type the Arrow type of the result.
+     *  @return the schema.
+     */
+    public static Schema outputSchema(ArrowType type) {
+        return SchemaBuilder.newBuilder().addField("result", type).build();
+    }
+
+    /** Returns the output schema of a UDF returning an array.
+     *  @param elementType the Arrow type of the elements of the result.
+     *  @return the schema.
+     */
+    public static Schema listOutputSchema(ArrowType elementType) {
+        return SchemaBuilder.newBuilder().addListField("result", elementType).build();
+    }
+
+    /** Serializes a scalar UDF request the way Athena sends it to the Lambda.
+     *  @param allocator the allocator of the input records.
+     *  @param methodName the UDF name.
+     *  @param inputRecords the arguments, one column per argument.
+     *  @param outputSchema the schema of the result, see outputSchema and listOutputSchema.
+     *  @return the JSON request.
+     *  @throws IOException when the request cannot be serialized.
+     */
+    public static byte[] serializedRequest(BlockAllocator allocator, String methodName, Block inputRecords,
+                                           Schema outputSchema) throws IOException {
+        final FederatedIdentity identity =
+            new FederatedIdentity("benchmark", "benchmark", Collections.emptyMap(), Collections.emptyList());
+        final UserDefinedFunctionRequest request = new UserDefinedFunctionRequest(
+            identity, inputRecords, outputSchema, methodName, UserDefinedFunctionType.SCALAR);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        VersionedObjectMapperFactory.create(allocator).writeValue(out, request);
+        return out.toByteArray();
+    }
+}
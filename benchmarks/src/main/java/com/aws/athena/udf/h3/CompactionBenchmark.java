@@ -0,0 +1,66 @@
+package com.aws.athena.udf.h3;
+
+import com.uber.h3core.H3Core;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Compaction UDFs over the disk of radius k around a cell, and its addresses. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompactionBenchmark {
+
+    @Param({ "7", "10" })
+    public int res;
+
+    @Param({ "10", "50" })
+    public int k;
+
+    private H3AthenaHandler handler;
+    private List<Long> cells;
+    private List<String> addresses;
+    private List<Long> compacted;
+
+    @Setup
+    public void setUp() throws IOException {
+        handler = new H3AthenaHandler();
+        final H3Core h3Core = H3Core.newInstance();
+        cells = h3Core.gridDisk(h3Core.latLngToCell(40.4, -111.8, res), k);
+        addresses = H3AddressCodec.encodeAll(cells);
+        compacted = h3Core.compactCells(cells);
+    }
+
+    @Benchmark
+    public void compact_cells(Blackhole blackhole) {
+        blackhole.consume(handler.compact_cells(cells));
+    }
+
+    @Benchmark
+    public void compact_cell_addresses(Blackhole blackhole) {
+        blackhole.consume(handler.compact_cell_addresses(addresses));
+    }
+
+    @Benchmark
+    public void uncompact_cells(Blackhole blackhole) {
+        blackhole.consume(handler.uncompact_cells(compacted, res));
+    }
+}
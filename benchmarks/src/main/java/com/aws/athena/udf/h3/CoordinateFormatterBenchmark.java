@@ -0,0 +1,76 @@
+package com.aws.athena.udf.h3;
+
+import com.uber.h3core.H3Core;
+import com.uber.h3core.util.LatLng;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Compares the formatting of boundary points with String.format and with CoordinateFormatter.
+ *  Lives in the package of the UDF to reach the package-private formatter.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CoordinateFormatterBenchmark {
+
+    private List<LatLng> boundary;
+
+    @Setup
+    public void setUp() throws IOException {
+        final H3Core h3Core = H3Core.newInstance();
+        boundary = h3Core.cellToBoundary(h3Core.latLngToCell(36.06, -119.02, 9));
+    }
+
+    @Benchmark
+    public void wktPointStringFormat(Blackhole blackhole) {
+        for (final LatLng coord : boundary) {
+            blackhole.consume(String.format("POINT (%f %f)", coord.lng, coord.lat));
+        }
+    }
+
+    @Benchmark
+    public void wktPointCoordinateFormatter(Blackhole blackhole) {
+        for (final LatLng coord : boundary) {
+            final StringBuilder point = new StringBuilder(40).append("POINT (");
+            CoordinateFormatter.appendFixed(coord.lng, point);
+            point.append(' ');
+            CoordinateFormatter.appendFixed(coord.lat, point);
+            blackhole.consume(point.append(')').toString());
+        }
+    }
+
+    @Benchmark
+    public void pointsListStringFormat(Blackhole blackhole) {
+        for (final LatLng coord : boundary) {
+            blackhole.consume(String.format("%f%s%f", coord.lat, ",", coord.lng));
+        }
+    }
+
+    @Benchmark
+    public void pointsListCoordinateFormatter(Blackhole blackhole) {
+        for (final LatLng coord : boundary) {
+            final StringBuilder point = new StringBuilder(40);
+            CoordinateFormatter.appendFixed(coord.lat, point);
+            point.append(',');
+            CoordinateFormatter.appendFixed(coord.lng, point);
+            blackhole.consume(point.toString());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.aws.athena.udf.h3;
+
+import com.uber.h3core.H3Core;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Directed edge UDFs over the edges of a batch of size cells. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EdgeBenchmark {
+
+    @Param({ "5", "9" })
+    public int res;
+
+    @Param({ "100" })
+    public int size;
+
+    private H3AthenaHandler handler;
+    private Long[] origins;
+    private Long[] destinations;
+    private Long[] edges;
+
+    @Setup
+    public void setUp() throws IOException {
+        handler = new H3AthenaHandler();
+        final H3Core h3Core = H3Core.newInstance();
+        final long[] cells = BenchmarkInputs.randomCells(h3Core, new Random(BenchmarkInputs.SEED), size, res);
+        origins = new Long[size];
+        destinations = new Long[size];
+        edges = new Long[size];
+        for (int i = 0; i < size; ++i) {
+            origins[i] = cells[i];
+            edges[i] = h3Core.originToDirectedEdges(cells[i]).get(0);
+            destinations[i] = h3Core.getDirectedEdgeDestination(edges[i]);
+        }
+    }
+
+    @Benchmark
+    public void cells_to_directed_edge(Blackhole blackhole) {
+        for (int i = 0; i < size; ++i) {
+            blackhole.consume(handler.cells_to_directed_edge(origins[i], destinations[i]));
+        }
+    }
+
+    @Benchmark
+    public void origin_to_directed_edges(Blackhole blackhole) {
+        for (final Long origin : origins) {
+            blackhole.consume(handler.origin_to_directed_edges(origin));
+        }
+    }
+
+    @Benchmark
+    public void get_directed_edge_origin_destination(Blackhole blackhole) {
+        for (final Long edge : edges) {
+            blackhole.consume(handler.get_directed_edge_origin_destination(edge));
+        }
+    }
+
+    @Benchmark
+    public void is_valid_directed_edge(Blackhole blackhole) {
+        for (final Long edge : edges) {
+            blackhole.consume(handler.is_valid_directed_edge(edge));
+        }
+    }
+
+    @Benchmark
+    public void directed_edge_to_boundary(Blackhole blackhole) {
+        for (final Long edge : edges) {
+            blackhole.consume(handler.directed_edge_to_boundary(edge));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.aws.athena.udf.h3;
+
+import com.uber.h3core.H3Core;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Hierarchy UDFs: parents, children and descendants of a batch of size cells. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HierarchyBenchmark {
+
+    @Param({ "5", "9" })
+    public int res;
+
+    @Param({ "1", "3" })
+    public int depth;
+
+    @Param({ "100" })
+    public int size;
+
+    private H3AthenaHandler handler;
+    private Long[] cells;
+
+    @Setup
+    public void setUp() throws IOException {
+        handler = new H3AthenaHandler();
+        cells = BenchmarkInputs.toList(
+            BenchmarkInputs.randomCells(H3Core.newInstance(), new Random(BenchmarkInputs.SEED), size, res))
+            .toArray(new Long[0]);
+    }
+
+    @Benchmark
+    public void cell_to_parent(Blackhole blackhole) {
+        for (final Long cell : cells) {
+            blackhole.consume(handler.cell_to_parent(cell, res - depth));
+        }
+    }
+
+    @Benchmark
+    public void cell_to_parents(Blackhole blackhole) {
+        for (final Long cell : cells) {
+            blackhole.consume(handler.cell_to_parents(cell));
+        }
+    }
+
+    @Benchmark
+    public void cell_to_center_child(Blackhole blackhole) {
+        for (final Long cell : cells) {
+            blackhole.consume(handler.cell_to_center_child(cell, res + depth));
+        }
+    }
+
+    @Benchmark
+    public void cell_to_children(Blackhole blackhole) {
+        for (final Long cell : cells) {
+            blackhole.consume(handler.cell_to_children(cell, res + depth));
+        }
+    }
+
+    @Benchmark
+    public void cell_to_descendants(Blackhole blackhole) {
+        for (final Long cell : cells) {
+            blackhole.consume(handler.cell_to_descendants(cell, depth));
+        }
+    }
+
+    @Benchmark
+    public void cell_to_center_descendants(Blackhole blackhole) {
+        for (final Long cell : cells) {
+            blackhole.consume(handler.cell_to_center_descendants(cell, depth));
+        }
+    }
+}
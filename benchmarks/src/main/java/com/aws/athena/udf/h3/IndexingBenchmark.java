@@ -0,0 +1,117 @@
+package com.aws.athena.udf.h3;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Indexing UDFs: points to cells, cells to points and boundaries, addresses. Each operation processes a batch
+ *  of size rows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IndexingBenchmark {
+
+    @Param({ "0", "5", "9", "15" })
+    public int res;
+
+    @Param({ "1000" })
+    public int size;
+
+    private H3AthenaHandler handler;
+    private double[][] points;
+    private Long[] cells;
+    private String[] addresses;
+
+    @Setup
+    public void setUp() throws IOException {
+        handler = new H3AthenaHandler();
+        final Random random = new Random(BenchmarkInputs.SEED);
+        points = BenchmarkInputs.randomPoints(random, size);
+        cells = new Long[size];
+        addresses = new String[size];
+        for (int i = 0; i < size; ++i) {
+            cells[i] = handler.lat_lng_to_cell(points[i][0], points[i][1], res);
+            addresses[i] = handler.h3_to_string(cells[i]);
+        }
+    }
+
+    @Benchmark
+    public void lat_lng_to_cell(Blackhole blackhole) {
+        for (final double[] point : points) {
+            blackhole.consume(handler.lat_lng_to_cell(point[0], point[1], res));
+        }
+    }
+
+    @Benchmark
+    public void lat_lng_to_cell_address(Blackhole blackhole) {
+        for (final double[] point : points) {
+            blackhole.consume(handler.lat_lng_to_cell_address(point[0], point[1], res));
+        }
+    }
+
+    @Benchmark
+    public void cell_to_lat_lng(Blackhole blackhole) {
+        for (final Long cell : cells) {
+            blackhole.consume(handler.cell_to_lat_lng(cell));
+        }
+    }
+
+    @Benchmark
+    public void cell_to_boundary(Blackhole blackhole) {
+        for (final Long cell : cells) {
+            blackhole.consume(handler.cell_to_boundary(cell, ","));
+        }
+    }
+
+    @Benchmark
+    public void cell_to_boundary_wkt(Blackhole blackhole) {
+        for (final Long cell : cells) {
+            blackhole.consume(handler.cell_to_boundary_wkt(cell));
+        }
+    }
+
+    @Benchmark
+    public void cell_to_polygon_wkt(Blackhole blackhole) throws IOException {
+        for (final Long cell : cells) {
+            blackhole.consume(handler.cell_to_polygon_wkt(cell));
+        }
+    }
+
+    @Benchmark
+    public void cell_to_polygon_wkb(Blackhole blackhole) {
+        for (final Long cell : cells) {
+            blackhole.consume(handler.cell_to_polygon_wkb(cell));
+        }
+    }
+
+    @Benchmark
+    public void h3_to_string(Blackhole blackhole) {
+        for (final Long cell : cells) {
+            blackhole.consume(handler.h3_to_string(cell));
+        }
+    }
+
+    @Benchmark
+    public void string_to_h3(Blackhole blackhole) {
+        for (final String address : addresses) {
+            blackhole.consume(handler.string_to_h3(address));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.aws.athena.udf.h3;
+
+import com.uber.h3core.H3Core;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Inspection UDFs over a batch of size cells. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InspectionBenchmark {
+
+    @Param({ "5", "15" })
+    public int res;
+
+    @Param({ "1000" })
+    public int size;
+
+    private H3AthenaHandler handler;
+    private Long[] cells;
+    private String[] addresses;
+
+    @Setup
+    public void setUp() throws IOException {
+        handler = new H3AthenaHandler();
+        final long[] randomCells =
+            BenchmarkInputs.randomCells(H3Core.newInstance(), new Random(BenchmarkInputs.SEED), size, res);
+        cells = new Long[size];
+        addresses = new String[size];
+        for (int i = 0; i < size; ++i) {
+            cells[i] = randomCells[i];
+            addresses[i] = handler.h3_to_string(cells[i]);
+        }
+    }
+
+    @Benchmark
+    public void get_resolution(Blackhole blackhole) {
+        for (final Long cell : cells) {
+            blackhole.consume(handler.get_resolution(cell));
+        }
+    }
+
+    @Benchmark
+    public void get_resolution_address(Blackhole blackhole) {
+        for (final String address : addresses) {
+            blackhole.consume(handler.get_resolution(address));
+        }
+    }
+
+    @Benchmark
+    public void get_base_cell_number(Blackhole blackhole) {
+        for (final Long cell : cells) {
+            blackhole.consume(handler.get_base_cell_number(cell));
+        }
+    }
+
+    @Benchmark
+    public void is_valid_cell(Blackhole blackhole) {
+        for (final Long cell : cells) {
+            blackhole.consume(handler.is_valid_cell(cell));
+        }
+    }
+
+    @Benchmark
+    public void is_pentagon(Blackhole blackhole) {
+        for (final Long cell : cells) {
+            blackhole.consume(handler.is_pentagon(cell));
+        }
+    }
+
+    @Benchmark
+    public void is_res_class_iii(Blackhole blackhole) {
+        for (final Long cell : cells) {
+            blackhole.consume(handler.is_res_class_iii(cell));
+        }
+    }
+
+    @Benchmark
+    public void get_icosahedron_faces(Blackhole blackhole) {
+        for (final Long cell : cells) {
+            blackhole.consume(handler.get_icosahedron_faces(cell));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.aws.athena.udf.h3;
+
+import com.uber.h3core.H3Core;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Metric UDFs: areas and edge lengths of a batch of size cells. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsBenchmark {
+
+    @Param({ "5", "9", "15" })
+    public int res;
+
+    @Param({ "1000" })
+    public int size;
+
+    @Param({ "km2" })
+    public String areaUnit;
+
+    private H3AthenaHandler handler;
+    private Long[] cells;
+
+    @Setup
+    public void setUp() throws IOException {
+        handler = new H3AthenaHandler();
+        cells = BenchmarkInputs.toList(
+            BenchmarkInputs.randomCells(H3Core.newInstance(), new Random(BenchmarkInputs.SEED), size, res))
+            .toArray(new Long[0]);
+    }
+
+    @Benchmark
+    public void cell_area(Blackhole blackhole) {
+        for (final Long cell : cells) {
+            blackhole.consume(handler.cell_area(cell, areaUnit));
+        }
+    }
+
+    @Benchmark
+    public void cell_edge_length(Blackhole blackhole) {
+        for (final Long cell : cells) {
+            blackhole.consume(handler.cell_edge_length(cell, "km"));
+        }
+    }
+
+    @Benchmark
+    public void get_hexagon_edge_length_avg(Blackhole blackhole) {
+        blackhole.consume(handler.get_hexagon_edge_length_avg(res, "km"));
+    }
+
+    @Benchmark
+    public void get_num_cells(Blackhole blackhole) {
+        blackhole.consume(handler.get_num_cells(res));
+    }
+}
@@ -0,0 +1,63 @@
+package com.aws.athena.udf.h3;
+
+import com.uber.h3core.H3Core;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Multipolygon outputs of the disk of radius k around a cell. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MultiPolygonBenchmark {
+
+    @Param({ "9" })
+    public int res;
+
+    @Param({ "5", "20", "50" })
+    public int k;
+
+    private H3AthenaHandler handler;
+    private List<Long> cells;
+    private List<String> addresses;
+
+    @Setup
+    public void setUp() throws IOException {
+        handler = new H3AthenaHandler();
+        final H3Core h3Core = H3Core.newInstance();
+        cells = h3Core.gridDisk(h3Core.latLngToCell(40.4, -111.8, res), k);
+        addresses = H3AddressCodec.encodeAll(cells);
+    }
+
+    @Benchmark
+    public void cells_to_multi_polygon(Blackhole blackhole) {
+        blackhole.consume(handler.cells_to_multi_polygon(cells, true));
+    }
+
+    @Benchmark
+    public void cell_addresses_to_multi_polygon(Blackhole blackhole) {
+        blackhole.consume(handler.cell_addresses_to_multi_polygon(addresses, true));
+    }
+
+    @Benchmark
+    public void cells_to_multi_polygon_wkb(Blackhole blackhole) {
+        blackhole.consume(handler.cells_to_multi_polygon_wkb(cells, true));
+    }
+}
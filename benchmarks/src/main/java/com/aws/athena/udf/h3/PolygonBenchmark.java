@@ -0,0 +1,82 @@
+package com.aws.athena.udf.h3;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** polygon_to_cells over a polygon with a hole and a multipolygon, both through the polygon cache and on a
+ *  fresh handler, whose cache is empty.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PolygonBenchmark {
+
+    /** A polygon of about 3000 km2 around Salt Lake City, with a hole. */
+    static final String POLYGON_WKT = "POLYGON ((-112.13417747722622 40.48305525857179, -112.07601701040902 40.40458400920371, "
+        + "-112.14044403871432 40.327152363986706, -112.08236892255083 40.24855573342874, -111.95994978862437 40.24734787912595, "
+        + "-111.9020429024643 40.16858374280796, -111.77968666606233 40.16717680240547, -111.71504793475805 40.244544265218366, "
+        + "-111.59256744172903 40.2429483824467, -111.52771940855304 40.32016865585556, -111.5854551484613 40.39901752493811, "
+        + "-111.5205009128757 40.47612241452489, -111.57832080748169 40.55484644293405, -111.70118207844375 40.556423521944474, "
+        + "-111.75917340878016 40.63497990483772, -111.88210082412408 40.63635632640663, -111.9468454993574 40.55918644383781, "
+        + "-112.06964540143417 40.56037241099826, -112.13417747722622 40.48305525857179), "
+        + "(-111.88876877847025 40.48067243111808, -111.76603234430006 40.47928592430941, -111.70812573681557 40.40060396307876, "
+        + "-111.77287006403081 40.32335096944806, -111.89541610612225 40.32474764935123, -111.95340778646954 40.403387143348745, "
+        + "-111.88876877847025 40.48067243111808))";
+
+    /** Two polygons around Paris and Lyon, of about 1000 km2 each. */
+    static final String MULTIPOLYGON_WKT = "MULTIPOLYGON (((2.2 48.7, 2.6 48.7, 2.6 49.0, 2.2 49.0, 2.2 48.7)), "
+        + "((4.6 45.6, 5.1 45.6, 4.85 45.9, 4.6 45.6)))";
+
+    @Param({ "5", "7", "9" })
+    public int res;
+
+    @Param({ "POLYGON", "MULTIPOLYGON" })
+    public String shape;
+
+    private H3AthenaHandler handler;
+    private H3AthenaHandler uncachedHandler;
+    private String wkt;
+
+    @Setup
+    public void setUp() throws IOException {
+        handler = new H3AthenaHandler();
+        wkt = "POLYGON".equals(shape) ? POLYGON_WKT : MULTIPOLYGON_WKT;
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() throws IOException {
+        uncachedHandler = new H3AthenaHandler();
+    }
+
+    @Benchmark
+    public void polygon_to_cells(Blackhole blackhole) throws IOException {
+        blackhole.consume(uncachedHandler.polygon_to_cells(wkt, res));
+    }
+
+    @Benchmark
+    public void polygon_to_cell_addresses(Blackhole blackhole) throws IOException {
+        blackhole.consume(uncachedHandler.polygon_to_cell_addresses(wkt, res));
+    }
+
+    @Benchmark
+    public void polygon_to_cells_cached(Blackhole blackhole) throws IOException {
+        blackhole.consume(handler.polygon_to_cells(wkt, res));
+    }
+}
@@ -0,0 +1,233 @@
+package com.aws.athena.udf.h3;
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.uber.h3core.H3Core;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/** Replays Athena UDF requests in process, exactly as the Lambda runtime invokes H3AthenaHandler:
+ *  a serialized UserDefinedFunctionRequest holding an Arrow record batch goes through handleRequest, and the
+ *  response is serialized back. Reports rows per second, p50 and p99 batch latency and allocations per
+ *  function. Allocations are summed over every thread of the JVM, so that the chunks of a batch and the polygons
+ *  evaluated on the worker pools are counted along with the calling thread; the allocations of a worker that
+ *  terminates during a replay are not counted.
+ *
+ *  <p>Points come from a CSV such as the earthquakes table of earthquakes_ddl.sql (latitude and longitude in
+ *  columns 1 and 2), or are random over the globe. Usage:
+ *  <pre>
+ *  java -cp target/benchmarks.jar com.aws.athena.udf.h3.ReplayHarness [--csv earthquakes.csv]
+ *      [--lat-column 1] [--lng-column 2] [--batch-size 4096] [--batches 50] [--warmup-batches 20] [--res 9]
+ *      [--functions lat_lng_to_cell,cell_to_boundary_wkt]
+ *  </pre>
+ */
+public final class ReplayHarness {
+
+    private String csv;
+    private int latColumn = 1;
+    private int lngColumn = 2;
+    private int batchSize = 4096;
+    private int batches = 50;
+    private int warmupBatches = 20;
+    private int res = 9;
+    private List<String> functions;
+
+    private ReplayHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        final ReplayHarness harness = new ReplayHarness();
+        harness.parse(args);
+        harness.run();
+    }
+
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value of " + args[i]);
+            }
+            final String value = args[i + 1];
+            switch (args[i]) {
+                case "--csv": csv = value; break;
+                case "--lat-column": latColumn = Integer.parseInt(value); break;
+                case "--lng-column": lngColumn = Integer.parseInt(value); break;
+                case "--batch-size": batchSize = Integer.parseInt(value); break;
+                case "--batches": batches = Integer.parseInt(value); break;
+                case "--warmup-batches": warmupBatches = Integer.parseInt(value); break;
+                case "--res": res = Integer.parseInt(value); break;
+                case "--functions": functions = Arrays.asList(value.split(",")); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+    }
+
+    private void run() throws Exception {
+        final H3AthenaHandler handler = new H3AthenaHandler();
+        final Map<String, ReplayWorkload> workloads = ReplayWorkload.all(H3Core.newInstance(), res);
+        final List<double[][]> pointBatches = pointBatches();
+
+        System.out.printf("%d batches of %d rows from %s, resolution %d%n",
+                          pointBatches.size(), batchSize, csv == null ? "random points" : csv, res);
+        System.out.printf("%-26s %12s %10s %10s %12s %12s%n",
+                          "function", "rows/s", "p50 ms", "p99 ms", "bytes/row", "alloc MB/s");
+        for (final ReplayWorkload workload : selected(workloads)) {
+            final List<byte[]> requests = requests(workload, pointBatches);
+            for (int i = 0; i < warmupBatches; ++i) {
+                invoke(handler, requests.get(i % requests.size()));
+            }
+            report(workload.getName(), replay(handler, requests));
+        }
+    }
+
+    private List<ReplayWorkload> selected(Map<String, ReplayWorkload> workloads) {
+        if (functions == null) {
+            return new ArrayList<>(workloads.values());
+        }
+        final List<ReplayWorkload> selected = new ArrayList<>();
+        for (final String function : functions) {
+            final ReplayWorkload workload = workloads.get(function.trim());
+            if (workload == null) {
+                throw new IllegalArgumentException("Unknown function " + function + ", expected one of "
+                                                   + workloads.keySet());
+            }
+            selected.add(workload);
+        }
+        return selected;
+    }
+
+    /** Splits the points into batches, cycling through the CSV rows when there are fewer than needed. */
+    private List<double[][]> pointBatches() throws IOException {
+        final double[][] points = csv == null
+            ? BenchmarkInputs.randomPoints(new Random(BenchmarkInputs.SEED), batchSize * batches)
+            : readPoints();
+        if (points.length == 0) {
+            throw new IllegalArgumentException("No points in " + csv);
+        }
+        final List<double[][]> pointBatches = new ArrayList<>(batches);
+        for (int b = 0; b < batches; ++b) {
+            final double[][] batch = new double[batchSize][];
+            for (int i = 0; i < batchSize; ++i) {
+                batch[i] = points[(b * batchSize + i) % points.length];
+            }
+            pointBatches.add(batch);
+        }
+        return pointBatches;
+    }
+
+    private double[][] readPoints() throws IOException {
+        final List<double[]> points = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(csv), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final String[] fields = line.split(",", -1);
+                if (fields.length <= Math.max(latColumn, lngColumn)) { continue; }
+                try {
+                    points.add(new double[] { Double.parseDouble(fields[latColumn].trim()),
+                                              Double.parseDouble(fields[lngColumn].trim()) });
+                } catch (NumberFormatException e) {
+                    // Header or malformed row, skipped like Athena would read it as null.
+                }
+            }
+        }
+        return points.toArray(new double[0][]);
+    }
+
+    private static List<byte[]> requests(ReplayWorkload workload, List<double[][]> pointBatches) throws IOException {
+        final List<byte[]> requests = new ArrayList<>(pointBatches.size());
+        try (BlockAllocator allocator = new BlockAllocatorImpl()) {
+            for (final double[][] points : pointBatches) {
+                try (Block input = BenchmarkInputs.inputBlock(allocator, workload.getArgumentTypes(),
+                                                              workload.columns(points))) {
+                    requests.add(BenchmarkInputs.serializedRequest(allocator, workload.getName(), input,
+                                                                   workload.getOutputSchema()));
+                } catch (Exception e) {
+                    throw new IOException(e);
+                }
+            }
+        }
+        return requests;
+    }
+
+    private Measurements replay(H3AthenaHandler handler, List<byte[]> requests) throws IOException {
+        final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long[] latencies = new long[requests.size()];
+        final Map<Long, Long> allocatedBefore = allocatedBytes(threads);
+        final long start = System.nanoTime();
+        for (int i = 0; i < requests.size(); ++i) {
+            final long batchStart = System.nanoTime();
+            invoke(handler, requests.get(i));
+            latencies[i] = System.nanoTime() - batchStart;
+        }
+        final long elapsed = System.nanoTime() - start;
+        long allocated = 0;
+        for (final Map.Entry<Long, Long> thread : allocatedBytes(threads).entrySet()) {
+            allocated += thread.getValue() - allocatedBefore.getOrDefault(thread.getKey(), 0L);
+        }
+        Arrays.sort(latencies);
+        return new Measurements((long) requests.size() * batchSize, elapsed, latencies, allocated);
+    }
+
+    /** The bytes allocated so far by each live thread, by thread id. */
+    private static Map<Long, Long> allocatedBytes(com.sun.management.ThreadMXBean threads) {
+        final long[] ids = threads.getAllThreadIds();
+        final long[] allocated = threads.getThreadAllocatedBytes(ids);
+        final Map<Long, Long> bytes = new HashMap<>();
+        for (int i = 0; i < ids.length; ++i) {
+            if (allocated[i] >= 0) {
+                bytes.put(ids[i], allocated[i]);
+            }
+        }
+        return bytes;
+    }
+
+    private static void invoke(H3AthenaHandler handler, byte[] request) throws IOException {
+        handler.handleRequest(new ByteArrayInputStream(request), new ByteArrayOutputStream(), null);
+    }
+
+    private static void report(String function, Measurements measurements) {
+        final double seconds = measurements.elapsedNanos / 1e9;
+        System.out.printf("%-26s %12.0f %10.3f %10.3f %12.0f %12.1f%n",
+                          function,
+                          measurements.rows / seconds,
+                          percentile(measurements.sortedLatencies, 0.50) / 1e6,
+                          percentile(measurements.sortedLatencies, 0.99) / 1e6,
+                          (double) measurements.allocatedBytes / measurements.rows,
+                          measurements.allocatedBytes / seconds / (1024 * 1024));
+    }
+
+    /** Nearest-rank percentile of sorted values. */
+    private static long percentile(long[] sorted, double p) {
+        final int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    /** What one function replay measured. */
+    private static final class Measurements {
+        private final long rows;
+        private final long elapsedNanos;
+        private final long[] sortedLatencies;
+        private final long allocatedBytes;
+
+        Measurements(long rows, long elapsedNanos, long[] sortedLatencies, long allocatedBytes) {
+            this.rows = rows;
+            this.elapsedNanos = elapsedNanos;
+            this.sortedLatencies = sortedLatencies;
+            this.allocatedBytes = allocatedBytes;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.aws.athena.udf.h3;
+
+import com.uber.h3core.H3Core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.apache.arrow.vector.types.Types.MinorType;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+/** A UDF call replayed by ReplayHarness: the function, its Arrow signature, and how its argument columns are
+ *  derived from a batch of points, the way a query over a table of points such as earthquakes would call it.
+ */
+final class ReplayWorkload {
+
+    private static final ArrowType BIGINT = MinorType.BIGINT.getType();
+    private static final ArrowType INT = MinorType.INT.getType();
+    private static final ArrowType DOUBLE = MinorType.FLOAT8.getType();
+    private static final ArrowType VARCHAR = MinorType.VARCHAR.getType();
+
+    private final String name;
+    private final List<ArrowType> argumentTypes;
+    private final Schema outputSchema;
+    private final Function<double[][], List<Object[]>> columns;
+
+    private ReplayWorkload(String name, List<ArrowType> argumentTypes, Schema outputSchema,
+                           Function<double[][], List<Object[]>> columns) {
+        this.name = name;
+        this.argumentTypes = argumentTypes;
+        this.outputSchema = outputSchema;
+        this.columns = columns;
+    }
+
+    /** Returns the replayable workloads, by function name, in a stable order.
+     *  @param h3Core the H3 library, to derive cells from points.
+     *  @param res the resolution of the cells of the batches.
+     *  @return the workloads.
+     */
+    static Map<String, ReplayWorkload> all(H3Core h3Core, int res) {
+        final BiFunction<double[][], Object, Object[]> constant = (points, value) -> {
+            final Object[] column = new Object[points.length];
+            Arrays.fill(column, value);
+            return column;
+        };
+        final Function<double[][], Object[]> cells = points -> {
+            final Object[] column = new Object[points.length];
+            for (int i = 0; i < points.length; ++i) {
+                column[i] = h3Core.latLngToCell(points[i][0], points[i][1], res);
+            }
+            return column;
+        };
+        final Function<double[][], Object[]> addresses = points -> {
+            final Object[] column = cells.apply(points);
+            for (int i = 0; i < column.length; ++i) {
+                column[i] = H3AddressCodec.encode((Long) column[i]);
+            }
+            return column;
+        };
+        final Function<double[][], List<Object[]>> latLngRes = points -> {
+            final Object[] lats = new Object[points.length];
+            final Object[] lngs = new Object[points.length];
+            for (int i = 0; i < points.length; ++i) {
+                lats[i] = points[i][0];
+                lngs[i] = points[i][1];
+            }
+            return List.of(lats, lngs, constant.apply(points, res));
+        };
+
+        final List<ReplayWorkload> workloads = new ArrayList<>();
+        workloads.add(new ReplayWorkload("lat_lng_to_cell", List.of(DOUBLE, DOUBLE, INT),
+                                         BenchmarkInputs.outputSchema(BIGINT), latLngRes));
+        workloads.add(new ReplayWorkload("lat_lng_to_cell_address", List.of(DOUBLE, DOUBLE, INT),
+                                         BenchmarkInputs.outputSchema(VARCHAR), latLngRes));
+        workloads.add(new ReplayWorkload("h3_to_string", List.of(BIGINT), BenchmarkInputs.outputSchema(VARCHAR),
+                                         points -> List.<Object[]>of(cells.apply(points))));
+        workloads.add(new ReplayWorkload("get_resolution", List.of(VARCHAR), BenchmarkInputs.outputSchema(INT),
+                                         points -> List.<Object[]>of(addresses.apply(points))));
+        workloads.add(new ReplayWorkload("cell_to_parent", List.of(BIGINT, INT), BenchmarkInputs.outputSchema(BIGINT),
+                                         points -> List.of(cells.apply(points), constant.apply(points, res / 2))));
+        workloads.add(new ReplayWorkload("cell_area", List.of(BIGINT, VARCHAR), BenchmarkInputs.outputSchema(DOUBLE),
+                                         points -> List.of(cells.apply(points), constant.apply(points, "km2"))));
+        workloads.add(new ReplayWorkload("cell_to_boundary_wkt", List.of(BIGINT),
+                                         BenchmarkInputs.listOutputSchema(VARCHAR),
+                                         points -> List.<Object[]>of(cells.apply(points))));
+        workloads.add(new ReplayWorkload("cell_to_polygon_wkb", List.of(BIGINT),
+                                         BenchmarkInputs.outputSchema(MinorType.VARBINARY.getType()),
+                                         points -> List.<Object[]>of(cells.apply(points))));
+        workloads.add(new ReplayWorkload("grid_disk", List.of(BIGINT, INT), BenchmarkInputs.listOutputSchema(BIGINT),
+                                         points -> List.of(cells.apply(points), constant.apply(points, 1))));
+        workloads.add(new ReplayWorkload("polygon_to_cells", List.of(VARCHAR, INT),
+                                         BenchmarkInputs.listOutputSchema(BIGINT),
+                                         points -> List.of(constant.apply(points, PolygonBenchmark.POLYGON_WKT),
+                                                           constant.apply(points, Math.min(res, 7)))));
+        return workloads.stream().collect(Collectors.toMap(w -> w.name, w -> w, (a, b) -> a,
+                                                           LinkedHashMap::new));
+    }
+
+    /** @return the UDF name. */
+    String getName() {
+        return name;
+    }
+
+    /** @return the Arrow types of the arguments. */
+    List<ArrowType> getArgumentTypes() {
+        return argumentTypes;
+    }
+
+    /** @return the schema of the result. */
+    Schema getOutputSchema() {
+        return outputSchema;
+    }
+
+    /** Derives the argument columns of a batch.
+     *  @param points the points of the batch, latitude then longitude.
+     *  @return one array of values per argument.
+     */
+    List<Object[]> columns(double[][] points) {
+        return columns.apply(points);
+    }
+}
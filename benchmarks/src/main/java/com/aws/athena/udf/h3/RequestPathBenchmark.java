@@ -0,0 +1,122 @@
+package com.aws.athena.udf.h3;
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.uber.h3core.H3Core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.vector.types.Types.MinorType;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** The full Lambda request path of a scalar UDF through UserDefinedFunctionHandler.handleRequest:
+ *  JSON and Arrow deserialization of the batch, evaluation, and serialization of the response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.nio=ALL-UNNAMED")
+@State(Scope.Benchmark)
+public class RequestPathBenchmark {
+
+    @Param({ "lat_lng_to_cell", "cell_to_parent", "h3_to_string", "cell_to_boundary_wkt", "grid_disk" })
+    public String function;
+
+    @Param({ "1000", "10000" })
+    public int rows;
+
+    @Param({ "9" })
+    public int res;
+
+    private H3AthenaHandler handler;
+    private BlockAllocator allocator;
+    private byte[] request;
+
+    @Setup
+    public void setUp() throws IOException {
+        handler = new H3AthenaHandler();
+        allocator = new BlockAllocatorImpl();
+        final Random random = new Random(BenchmarkInputs.SEED);
+        final double[][] points = BenchmarkInputs.randomPoints(random, rows);
+        final long[] cells = BenchmarkInputs.randomCells(H3Core.newInstance(), random, rows, res);
+
+        final Object[] lats = new Object[rows];
+        final Object[] lngs = new Object[rows];
+        final Object[] resolutions = new Object[rows];
+        final Object[] parentResolutions = new Object[rows];
+        final Object[] ks = new Object[rows];
+        final Object[] h3s = new Object[rows];
+        for (int i = 0; i < rows; ++i) {
+            lats[i] = points[i][0];
+            lngs[i] = points[i][1];
+            resolutions[i] = res;
+            parentResolutions[i] = res - 2;
+            ks[i] = 2;
+            h3s[i] = cells[i];
+        }
+
+        final ArrowType bigint = MinorType.BIGINT.getType();
+        final ArrowType integer = MinorType.INT.getType();
+        final Block input;
+        final Schema outputSchema;
+        switch (function) {
+            case "lat_lng_to_cell":
+                input = BenchmarkInputs.inputBlock(allocator,
+                                                   List.of(MinorType.FLOAT8.getType(), MinorType.FLOAT8.getType(), integer),
+                                                   List.of(lats, lngs, resolutions));
+                outputSchema = BenchmarkInputs.outputSchema(bigint);
+                break;
+            case "cell_to_parent":
+                input = BenchmarkInputs.inputBlock(allocator, List.of(bigint, integer), List.of(h3s, parentResolutions));
+                outputSchema = BenchmarkInputs.outputSchema(bigint);
+                break;
+            case "h3_to_string":
+                input = BenchmarkInputs.inputBlock(allocator, List.of(bigint), List.<Object[]>of(h3s));
+                outputSchema = BenchmarkInputs.outputSchema(MinorType.VARCHAR.getType());
+                break;
+            case "cell_to_boundary_wkt":
+                input = BenchmarkInputs.inputBlock(allocator, List.of(bigint), List.<Object[]>of(h3s));
+                outputSchema = BenchmarkInputs.listOutputSchema(MinorType.VARCHAR.getType());
+                break;
+            case "grid_disk":
+                input = BenchmarkInputs.inputBlock(allocator, List.of(bigint, integer), List.of(h3s, ks));
+                outputSchema = BenchmarkInputs.listOutputSchema(bigint);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown function " + function);
+        }
+        request = BenchmarkInputs.serializedRequest(allocator, function, input, outputSchema);
+    }
+
+    @TearDown
+    public void tearDown() {
+        allocator.close();
+    }
+
+    @Benchmark
+    public byte[] handleRequest() throws IOException {
+        final ByteArrayOutputStream response = new ByteArrayOutputStream();
+        handler.handleRequest(new ByteArrayInputStream(request), response, null);
+        return response.toByteArray();
+    }
+}
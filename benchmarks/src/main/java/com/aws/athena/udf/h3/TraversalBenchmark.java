@@ -0,0 +1,98 @@
+package com.aws.athena.udf.h3;
+
+import com.uber.h3core.H3Core;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Traversal UDFs: disks, rings, paths and distances from a batch of size origins. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TraversalBenchmark {
+
+    @Param({ "5", "9" })
+    public int res;
+
+    @Param({ "1", "5", "20" })
+    public int k;
+
+    @Param({ "100" })
+    public int size;
+
+    private H3AthenaHandler handler;
+    private Long[] origins;
+    private Long[] destinations;
+
+    @Setup
+    public void setUp() throws IOException {
+        handler = new H3AthenaHandler();
+        final H3Core h3Core = H3Core.newInstance();
+        final long[] cells = BenchmarkInputs.randomCells(h3Core, new Random(BenchmarkInputs.SEED), size, res);
+        origins = new Long[size];
+        destinations = new Long[size];
+        for (int i = 0; i < size; ++i) {
+            origins[i] = cells[i];
+            // The last cells of a disk are on its outer ring, at distance k.
+            final List<Long> disk = h3Core.gridDisk(cells[i], k);
+            destinations[i] = disk.get(disk.size() - 1 - i % 6);
+        }
+    }
+
+    @Benchmark
+    public void grid_disk(Blackhole blackhole) {
+        for (final Long origin : origins) {
+            blackhole.consume(handler.grid_disk(origin, k));
+        }
+    }
+
+    @Benchmark
+    public void grid_ring_unsafe(Blackhole blackhole) {
+        for (final Long origin : origins) {
+            try {
+                blackhole.consume(handler.grid_ring_unsafe(origin, k));
+            } catch (RuntimeException e) {
+                blackhole.consume(e);
+            }
+        }
+    }
+
+    @Benchmark
+    public void grid_path_cells(Blackhole blackhole) {
+        for (int i = 0; i < size; ++i) {
+            blackhole.consume(handler.grid_path_cells(origins[i], destinations[i]));
+        }
+    }
+
+    @Benchmark
+    public void grid_distance(Blackhole blackhole) {
+        for (int i = 0; i < size; ++i) {
+            blackhole.consume(handler.grid_distance(origins[i], destinations[i]));
+        }
+    }
+
+    @Benchmark
+    public void are_neighbor_cells(Blackhole blackhole) {
+        for (int i = 0; i < size; ++i) {
+            blackhole.consume(handler.are_neighbor_cells(origins[i], destinations[i]));
+        }
+    }
+}
@@ -1,14 +1,19 @@
 package com.aws.athena.udf.h3.infrastructure;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import software.amazon.awscdk.core.BundlingOptions;
+import software.amazon.awscdk.core.CfnOutput;
 import software.amazon.awscdk.core.Construct;
 import software.amazon.awscdk.core.DockerVolume;
 import software.amazon.awscdk.core.Duration;
 import software.amazon.awscdk.core.Stack;
 import software.amazon.awscdk.core.StackProps;
 import software.amazon.awscdk.services.s3.assets.AssetOptions;
+import software.amazon.awscdk.services.lambda.Alias;
+import software.amazon.awscdk.services.lambda.CfnFunction;
 import software.amazon.awscdk.services.lambda.Code;
 import software.amazon.awscdk.services.lambda.Function;
 import software.amazon.awscdk.services.lambda.FunctionProps;
@@ -28,6 +33,20 @@ public class AthenaUDFStack extends Stack {
     /** The timeout of lambda execution. */
     private static final int TIMEOUT = 30;
 
+    /** The share of the lambda memory, in MB, given to the polygon cell cache. */
+    private static final int POLYGON_CACHE_SIZE = MEMORY_SIZE / 8;
+
+    /** The context key enabling SnapStart, e.g. cdk deploy -c snapStart=true. */
+    private static final String SNAP_START_CONTEXT = "snapStart";
+
+    /** The name of the alias of the published version, on which SnapStart applies. */
+    private static final String ALIAS_NAME = "live";
+
+    /** The default library path of the Lambda Java runtime, preceded by the directory of the H3 native library
+     *  in the unpacked jar, so that the handler loads it in place rather than extracting it to /tmp. */
+    private static final String LIBRARY_PATH = "/var/task/linux-x64:/var/lang/lib:/lib64:/usr/lib64:/var/runtime"
+            + ":/var/runtime/lib:/var/task:/var/task/lib:/opt/lib";
+
     public AthenaUDFStack(final Construct scope, final String id) {
         this(scope, id, null);
     }
@@ -57,8 +76,12 @@ public class AthenaUDFStack extends Stack {
                 .outputType(ARCHIVED);
 
 
+        final Map<String, String> environment = new HashMap<>();
+        environment.put("H3_POLYGON_CACHE_MAX_BYTES", String.valueOf(POLYGON_CACHE_SIZE * 1024L * 1024L));
+        environment.put("JAVA_TOOL_OPTIONS", "-Djava.library.path=" + LIBRARY_PATH);
+
         // Creates the UDF.
-        new Function(this, "H3AthenaHandler", FunctionProps.builder()
+        final Function function = new Function(this, "H3AthenaHandler", FunctionProps.builder()
                 .runtime(Runtime.JAVA_11)
                 .code(
                         Code.fromAsset("../", 
@@ -66,8 +89,24 @@ public class AthenaUDFStack extends Stack {
                 )
                 .handler("com.aws.athena.udf.h3.H3AthenaHandler")
                 .memorySize(MEMORY_SIZE)
+                .environment(environment)
                 .timeout(Duration.seconds(TIMEOUT))
                 .logRetention(RetentionDays.ONE_WEEK)
                 .build());
+
+        // Restores published versions from a snapshot taken after the handler initialization, which loads the
+        // native library and primes the UDFs. Queries must then name the alias, e.g. LAMBDA '<function>:live'.
+        if (Boolean.parseBoolean(String.valueOf(getNode().tryGetContext(SNAP_START_CONTEXT)))) {
+            ((CfnFunction) function.getNode().getDefaultChild())
+                .addPropertyOverride("SnapStart.ApplyOn", "PublishedVersions");
+            final Alias alias = Alias.Builder.create(this, "H3AthenaHandlerAlias")
+                .aliasName(ALIAS_NAME)
+                .version(function.getCurrentVersion())
+                .build();
+            CfnOutput.Builder.create(this, "H3AthenaHandlerAliasArn")
+                .description("The SnapStart alias of the UDF")
+                .value(alias.getFunctionArn())
+                .build();
+        }
     }
 }
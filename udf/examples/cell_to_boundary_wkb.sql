@@ -0,0 +1,6 @@
+USING EXTERNAL FUNCTION cell_to_boundary_wkb(h3 BIGINT)
+RETURNS ARRAY(VARBINARY)
+LAMBDA '<ARN>'
+WITH dataset AS (
+    SELECT cell_to_boundary_wkb(622236750694711295) AS coords)
+SELECT ST_GeomFromBinary(p) AS point FROM dataset CROSS JOIN unnest(coords) AS t(p)
@@ -0,0 +1,24 @@
+-- count the children of a cell, to split a large expansion into pages of rows
+USING EXTERNAL FUNCTION cell_to_children_size(h3 BIGINT, childres INT)
+RETURNS BIGINT
+LAMBDA '<ARN>'
+SELECT cell_to_children_size(595485172502102015, 9) AS size
+-- 16807
+
+
+-- the children of a cell at positions offset to offset + limit, in the order of cell_to_children
+USING EXTERNAL FUNCTION cell_to_children_range(h3 BIGINT, childres INT, "offset" BIGINT, "limit" INT)
+RETURNS ARRAY(BIGINT)
+LAMBDA '<ARN>'
+SELECT cell_to_children_range(595485172502102015, 9, 1000, 3) AS children
+-- [618003162424147967, 618003162424672255, 618003162424934399]
+
+
+-- all the children, one page of 1000 per row
+USING EXTERNAL FUNCTION cell_to_children_range(h3 BIGINT, childres INT, "offset" BIGINT, "limit" INT)
+RETURNS ARRAY(BIGINT)
+LAMBDA '<ARN>'
+SELECT child FROM (
+    SELECT cell_to_children_range(595485172502102015, 9, page * 1000, 1000) AS children
+    FROM unnest(sequence(0, 16)) AS p(page)
+) CROSS JOIN unnest(children) AS t(child)
@@ -0,0 +1,4 @@
+USING EXTERNAL FUNCTION cell_to_polygon_wkb(h3 BIGINT)
+RETURNS VARBINARY
+LAMBDA '<ARN>'
+SELECT ST_GeomFromBinary(cell_to_polygon_wkb(622236750694711295))
@@ -0,0 +1,9 @@
+USING EXTERNAL FUNCTION cells_to_multi_polygon_wkb(h3array ARRAY(BIGINT), geojson BOOLEAN)
+RETURNS VARBINARY
+LAMBDA '<ARN>'
+SELECT ST_GeomFromBinary(cells_to_multi_polygon_wkb( 
+ARRAY[613498908116516863,
+ 613499565410091007,
+ 613498908185722879,
+ 613499565420576767,
+ 613498908183625727], TRUE))
@@ -0,0 +1,10 @@
+-- bin the earthquakes of each magnitude type into cells and count them in the Lambda, one array per group
+USING EXTERNAL FUNCTION lat_lng_to_cell_counts(lats ARRAY(DOUBLE), lngs ARRAY(DOUBLE), res INT)
+RETURNS ARRAY(ROW(cell BIGINT, count INT))
+LAMBDA '<ARN>'
+SELECT magtype, bin.cell, bin.count
+FROM (SELECT magtype,
+             lat_lng_to_cell_counts(array_agg(latitude), array_agg(longitude), 2) AS bins
+      FROM earthquakes
+      GROUP BY magtype)
+CROSS JOIN UNNEST(bins) AS bin (cell, count)
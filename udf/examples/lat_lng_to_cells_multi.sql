@@ -0,0 +1,13 @@
+-- index a location at several resolutions in one call, coarsest first
+USING EXTERNAL FUNCTION lat_lng_to_cells_multi(lat DOUBLE, lng DOUBLE, minres INT, maxres INT)
+RETURNS ARRAY(BIGINT)
+LAMBDA '<ARN>'
+SELECT lat_lng_to_cells_multi(43.0, -42.0, 7, 9) AS cells
+-- [608456897657307135, 612960497280483327, 617464096906805247]
+
+
+USING EXTERNAL FUNCTION lat_lng_to_cell_addresses_multi(lat DOUBLE, lng DOUBLE, minres INT, maxres INT)
+RETURNS ARRAY(VARCHAR)
+LAMBDA '<ARN>'
+SELECT lat_lng_to_cell_addresses_multi(43.0, -42.0, 7, 9) AS addresses
+-- [871ac531dffffff, 881ac531dbfffff, 891ac531dafffff]
@@ -0,0 +1,11 @@
+-- compacted h3 that cover Toulouse, Nantes, Lille, Paris, Nice, without building the full resolution 9 set
+USING EXTERNAL FUNCTION polygon_to_cells_compact(polygonWKT VARCHAR, res INT)
+RETURNS ARRAY(BIGINT)
+LAMBDA '<ARN>'
+SELECT polygon_to_cells_compact('POLYGON ((1.444209 43.604652, -1.553621 47.218371, 3.05726 50.62925, 2.349014 48.864716, 7.27178 43.6961, 1.444209 43.604652))', 9)
+
+
+USING EXTERNAL FUNCTION polygon_to_cell_addresses_compact(polygonWKT VARCHAR, res INT)
+RETURNS ARRAY(VARCHAR)
+LAMBDA '<ARN>'
+SELECT polygon_to_cell_addresses_compact('POLYGON ((1.444209 43.604652, -1.553621 47.218371, 3.05726 50.62925, 2.349014 48.864716, 7.27178 43.6961, 1.444209 43.604652))', 9)
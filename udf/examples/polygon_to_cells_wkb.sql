@@ -0,0 +1,12 @@
+-- polyfill a geometry stored as WKB, without converting it to WKT
+USING EXTERNAL FUNCTION polygon_to_cells(polygonWKB VARBINARY, res INT)
+RETURNS ARRAY(BIGINT)
+LAMBDA '<ARN>'
+SELECT polygon_to_cells(ST_AsBinary(ST_GeometryFromText('POLYGON ((1.444209 43.604652, -1.553621 47.218371, 3.05726 50.62925, 2.349014 48.864716, 7.27178 43.6961, 1.444209 43.604652))')), 2)
+
+
+-- polyfill a GeoJSON polygon, multipolygon, or feature holding one
+USING EXTERNAL FUNCTION polygon_to_cells_geojson(polygonGeoJson VARCHAR, res INT)
+RETURNS ARRAY(BIGINT)
+LAMBDA '<ARN>'
+SELECT polygon_to_cells_geojson('{"type": "Polygon", "coordinates": [[[1.444209, 43.604652], [-1.553621, 47.218371], [3.05726, 50.62925], [2.349014, 48.864716], [7.27178, 43.6961], [1.444209, 43.604652]]]}', 2)
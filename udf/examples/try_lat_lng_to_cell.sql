@@ -0,0 +1,14 @@
+-- the try_ functions return NULL on invalid input instead of failing the query
+USING EXTERNAL FUNCTION try_lat_lng_to_cell(lat DOUBLE, lng DOUBLE, res INT)
+RETURNS BIGINT
+LAMBDA '<ARN>'
+SELECT try_lat_lng_to_cell(lat, lng, 10) AS cell
+FROM (VALUES (43.0, -42.0), (nan(), 10.0), (infinity(), 10.0)) AS points (lat, lng)
+-- 621967696534077439, NULL, NULL
+
+
+USING EXTERNAL FUNCTION try_string_to_h3(h3Address VARCHAR)
+RETURNS BIGINT
+LAMBDA '<ARN>'
+SELECT try_string_to_h3('8a1ac531dae7fff'), try_string_to_h3('not an address')
+-- 621967696534077439, NULL
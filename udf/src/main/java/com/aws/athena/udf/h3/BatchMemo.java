@@ -0,0 +1,150 @@
+package com.aws.athena.udf.h3;
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
+
+import java.util.List;
+
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+/** Per-batch memoization of UDFs whose first argument is a cell.
+ *  When the other arguments are constant over the batch, typically a separator or a unit, and cells repeat,
+ *  as over the output of a GROUP BY or a join, the UDF is evaluated once per distinct cell and the results
+ *  are copied to the rows sharing it. The memo switches itself off when a sample of the batch, or the batch
+ *  itself, has too many distinct cells for the copies to pay off.
+ */
+final class BatchMemo {
+
+    /** The environment variable disabling the memo when set to false. */
+    static final String ENABLED_VARIABLE = "H3_BATCH_MEMO";
+
+    /** Batches smaller than this are evaluated directly. */
+    static final int MIN_ROWS = 64;
+
+    /** The share of distinct cells above which the memo is not used. */
+    static final double MAX_DISTINCT_RATIO = 0.5;
+
+    private static final int SAMPLE_SIZE = 1024;
+
+    /** Evaluation of a record batch, with or without the memo. */
+    @FunctionalInterface
+    interface BatchEvaluator {
+        Block evaluate(Block inputRecords) throws Exception;
+    }
+
+    private final boolean enabled;
+
+    /** Creates a memo.
+     *  @param enabled whether batches are deduplicated at all.
+     */
+    BatchMemo(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /** Creates a memo enabled unless the H3_BATCH_MEMO environment variable is false.
+     *  @return the memo.
+     */
+    static BatchMemo fromEnvironment() {
+        return new BatchMemo(!"false".equalsIgnoreCase(System.getenv(ENABLED_VARIABLE)));
+    }
+
+    /** Evaluates a batch, once per distinct cell when that pays off.
+     *  @param allocator the allocator of the blocks.
+     *  @param inputRecords the input record batch, one column per UDF parameter.
+     *  @param outputSchema the schema of the output, a single column.
+     *  @param evaluator the evaluation of a batch by the UDF.
+     *  @return the block holding the result of each row.
+     *  @throws Exception when the UDF fails.
+     */
+    Block process(BlockAllocator allocator, Block inputRecords, Schema outputSchema, BatchEvaluator evaluator)
+            throws Exception {
+        final int rowCount = inputRecords.getRowCount();
+        final List<FieldVector> arguments = inputRecords.getFieldVectors();
+        if (!enabled || rowCount < MIN_ROWS || !isMemoizable(arguments, rowCount)) {
+            return evaluator.evaluate(inputRecords);
+        }
+
+        final BigIntVector cells = (BigIntVector) arguments.get(0);
+        if (sampleDistinctRatio(cells, rowCount) > MAX_DISTINCT_RATIO) {
+            return evaluator.evaluate(inputRecords);
+        }
+
+        final UdfEvents.BatchPhase deduplicateEvent = new UdfEvents.BatchPhase();
+        deduplicateEvent.begin();
+        final int[] distinctRows = new int[rowCount];
+        final int[] rowToDistinct = new int[rowCount];
+        final LongIntHashMap distinctIndexes = new LongIntHashMap(rowCount / 4);
+        int nullDistinct = LongIntHashMap.MISSING;
+        int distinctCount = 0;
+        for (int i = 0; i < rowCount; ++i) {
+            if (cells.isNull(i)) {
+                if (nullDistinct == LongIntHashMap.MISSING) {
+                    nullDistinct = distinctCount;
+                    distinctRows[distinctCount++] = i;
+                }
+                rowToDistinct[i] = nullDistinct;
+                continue;
+            }
+            final int existing = distinctIndexes.putIfAbsent(cells.get(i), distinctCount);
+            if (existing == LongIntHashMap.MISSING) {
+                distinctRows[distinctCount] = i;
+                rowToDistinct[i] = distinctCount++;
+            } else {
+                rowToDistinct[i] = existing;
+            }
+        }
+        if (distinctCount > rowCount * MAX_DISTINCT_RATIO) {
+            return evaluator.evaluate(inputRecords);
+        }
+
+        try (Block distinctInput = allocator.createBlock(inputRecords.getSchema())) {
+            final List<FieldVector> distinctArguments = distinctInput.getFieldVectors();
+            for (int a = 0; a < arguments.size(); ++a) {
+                final FieldVector source = arguments.get(a);
+                final FieldVector target = distinctArguments.get(a);
+                for (int d = 0; d < distinctCount; ++d) {
+                    target.copyFromSafe(distinctRows[d], d, source);
+                }
+            }
+            distinctInput.setRowCount(distinctCount);
+            deduplicateEvent.commit("deduplicate", rowCount);
+
+            try (Block distinctOutput = evaluator.evaluate(distinctInput)) {
+                final UdfEvents.BatchPhase expandEvent = new UdfEvents.BatchPhase();
+                expandEvent.begin();
+                final FieldVector distinctResult = distinctOutput.getFieldVectors().get(0);
+                final Block outputRecords = allocator.createBlock(outputSchema);
+                final FieldVector result = outputRecords.getFieldVectors().get(0);
+                for (int i = 0; i < rowCount; ++i) {
+                    result.copyFromSafe(rowToDistinct[i], i, distinctResult);
+                }
+                outputRecords.setRowCount(rowCount);
+                expandEvent.commit("expand", rowCount);
+                return outputRecords;
+            }
+        }
+    }
+
+    /** A batch is memoizable when its first argument is a cell and the other arguments are constant. */
+    private static boolean isMemoizable(List<FieldVector> arguments, int rowCount) {
+        if (arguments.isEmpty() || !(arguments.get(0) instanceof BigIntVector)) { return false; }
+        for (int a = 1; a < arguments.size(); ++a) {
+            if (!ConstantColumns.isConstant(arguments.get(a), 0, rowCount)) { return false; }
+        }
+        return true;
+    }
+
+    /** The share of distinct cells in the first rows of the batch. */
+    private static double sampleDistinctRatio(BigIntVector cells, int rowCount) {
+        final int sampleSize = Math.min(rowCount, SAMPLE_SIZE);
+        final LongIntHashMap sample = new LongIntHashMap(sampleSize);
+        for (int i = 0; i < sampleSize; ++i) {
+            if (!cells.isNull(i)) {
+                sample.putIfAbsent(cells.get(i), 0);
+            }
+        }
+        return (double) sample.size() / sampleSize;
+    }
+}
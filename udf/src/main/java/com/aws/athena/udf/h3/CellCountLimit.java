@@ -0,0 +1,85 @@
+package com.aws.athena.udf.h3;
+
+/** The maximum number of cells the hierarchy functions return for one row. It is checked against the exact
+ *  number of cells before any is generated, so that an expansion too large for the memory of the Lambda fails
+ *  at once instead of after filling the heap.
+ */
+final class CellCountLimit {
+
+    /** The environment variable setting the maximum number of cells per row. */
+    static final String MAX_CELLS_VARIABLE = "H3_MAX_CELLS";
+
+    /** The heap bytes allowed per cell by default, covering the cell array and its copy into the output. */
+    private static final long BYTES_PER_CELL = 64;
+
+    private final long maxCells;
+
+    /** Creates a limit.
+     *  @param maxCells the maximum number of cells per row.
+     */
+    CellCountLimit(long maxCells) {
+        this.maxCells = maxCells;
+    }
+
+    /** Creates a limit from the H3_MAX_CELLS environment variable, or from the maximum heap size when unset.
+     *  @return the limit.
+     */
+    static CellCountLimit fromEnvironment() {
+        final String maxCells = System.getenv(MAX_CELLS_VARIABLE);
+        return new CellCountLimit(maxCells == null ? Runtime.getRuntime().maxMemory() / BYTES_PER_CELL
+                                  : Long.parseLong(maxCells.trim()));
+    }
+
+    /** @return the maximum number of cells per row. */
+    long getMaxCells() {
+        return maxCells;
+    }
+
+    /** Returns the children of a cell, as H3Index.cellToChildren, within the limit.
+     *  @param h3 the cell.
+     *  @param childRes the child resolution.
+     *  @return the children.
+     *  @throws IllegalArgumentException when childRes is not a valid resolution, or the children are too many.
+     */
+    long[] cellToChildren(long h3, int childRes) {
+        check("cell_to_children", H3Index.cellToChildrenCount(h3, childRes));
+        return H3Index.cellToChildren(h3, childRes);
+    }
+
+    /** Returns the descendants of a cell, as H3Index.cellToDescendants, within the limit.
+     *  @param h3 the cell.
+     *  @param depth the number of finer resolutions.
+     *  @return the descendants.
+     *  @throws IllegalArgumentException when a resolution is out of range, or the descendants are too many.
+     */
+    long[] cellToDescendants(long h3, int depth) {
+        check("cell_to_descendants", H3Index.cellToDescendantsCount(h3, depth));
+        return H3Index.cellToDescendants(h3, depth);
+    }
+
+    /** Returns a range of the children of a cell, as H3Index.cellToChildrenRange, within the limit.
+     *  @param h3 the cell.
+     *  @param childRes the child resolution.
+     *  @param offset the position of the first child, 0 or more.
+     *  @param limit the maximum number of children, 0 or more.
+     *  @return the children of the range.
+     *  @throws IllegalArgumentException when an argument is out of range, or the children are too many.
+     */
+    long[] cellToChildrenRange(long h3, int childRes, long offset, int limit) {
+        check("cell_to_children_range", Math.min(limit, H3Index.cellToChildrenCount(h3, childRes) - offset));
+        return H3Index.cellToChildrenRange(h3, childRes, offset, limit);
+    }
+
+    /** Checks the number of cells a function is about to generate.
+     *  @param function the name of the UDF.
+     *  @param count the exact number of cells.
+     *  @throws IllegalArgumentException when count is above the limit.
+     */
+    void check(String function, long count) {
+        if (count > maxCells) {
+            throw new IllegalArgumentException(String.format(
+                "%s would return %d cells, more than the limit of %d set by %s: split it with cell_to_children_range",
+                function, count, maxCells, MAX_CELLS_VARIABLE));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.aws.athena.udf.h3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/** Counts of the occurrences of cells, in a primitive hash map from each cell to its position, the cells being
+ *  kept in the order they are first added.
+ */
+final class CellCounter {
+
+    /** The name of the cell field of a count row. */
+    static final String CELL = "cell";
+
+    /** The name of the count field of a count row. */
+    static final String COUNT = "count";
+
+    private final LongIntHashMap positions;
+    private long[] cells;
+    private int[] counts;
+    private int size;
+
+    /** Creates a counter.
+     *  @param expectedCells the number of distinct cells expected, to size the map without rehashing.
+     */
+    CellCounter(int expectedCells) {
+        positions = new LongIntHashMap(expectedCells);
+        cells = new long[Math.max(4, expectedCells)];
+        counts = new int[cells.length];
+    }
+
+    /** Counts one occurrence of a cell.
+     *  @param cell the cell.
+     */
+    void add(long cell) {
+        final int position = positions.putIfAbsent(cell, size);
+        if (position != LongIntHashMap.MISSING) {
+            ++counts[position];
+            return;
+        }
+        if (size == cells.length) {
+            cells = Arrays.copyOf(cells, size * 2);
+            counts = Arrays.copyOf(counts, size * 2);
+        }
+        cells[size] = cell;
+        counts[size++] = 1;
+    }
+
+    /** @return the number of distinct cells. */
+    int size() {
+        return size;
+    }
+
+    /** @return the distinct cell at a position, 0 &lt;= position &lt; size(). */
+    long cell(int position) {
+        return cells[position];
+    }
+
+    /** @return the number of occurrences of the distinct cell at a position. */
+    int count(int position) {
+        return counts[position];
+    }
+
+    /** Returns the counts as rows of a cell and a count, the values of the struct fields named CELL and COUNT.
+     *  @return the rows, in the order the cells were first added.
+     */
+    List<Map<String, Object>> toRows() {
+        final List<Map<String, Object>> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            rows.add(Map.of(CELL, cells[i], COUNT, counts[i]));
+        }
+        return rows;
+    }
+}
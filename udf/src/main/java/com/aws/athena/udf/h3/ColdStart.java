@@ -0,0 +1,171 @@
+package com.aws.athena.udf.h3;
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.BlockUtils;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import com.uber.h3core.H3Core;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.List;
+
+import org.apache.arrow.vector.types.Types.MinorType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** The initialization of a handler, done once per Lambda execution environment, before its first request.
+ *  The H3 native library is loaded from a directory of java.library.path when one holds it, such as the directory
+ *  of the unpacked function archive, rather than extracted to a temporary file. Each family of UDFs is then called
+ *  once, so that its classes are loaded and linked during the init phase, which SnapStart snapshots, instead of
+ *  during the first query. The time taken by each step is logged.
+ */
+final class ColdStart {
+
+    /** The environment variable disabling the priming of the UDFs when set to false. */
+    static final String PRIMING_VARIABLE = "H3_PRIMING";
+
+    /** The name of the H3 native library, as passed to System.loadLibrary. */
+    static final String LIBRARY_NAME = "h3-java";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ColdStart.class);
+
+    private static final double LAT = 43.0;
+    private static final double LNG = -79.0;
+
+    private final boolean priming;
+    private final String libraryPath;
+    private boolean preExtracted;
+    private long loadNanos = -1;
+    private long primeNanos = -1;
+
+    /** Creates a cold start.
+     *  @param priming whether to call each family of UDFs once.
+     *  @param libraryPath the directories searched for the H3 native library, separated by File.pathSeparator.
+     */
+    ColdStart(boolean priming, String libraryPath) {
+        this.priming = priming;
+        this.libraryPath = libraryPath;
+    }
+
+    /** Creates a cold start searching java.library.path, and priming unless the H3_PRIMING environment variable
+     *  is false.
+     *  @return the cold start.
+     */
+    static ColdStart fromEnvironment() {
+        return new ColdStart(!"false".equalsIgnoreCase(System.getenv(PRIMING_VARIABLE)),
+                             System.getProperty("java.library.path"));
+    }
+
+    /** Loads the H3 native library, from the library path when it holds it, and from the H3 jar otherwise.
+     *  @return the H3 instance.
+     *  @throws IOException when the library cannot be extracted from the jar.
+     */
+    H3Core loadH3Core() throws IOException {
+        final long start = System.nanoTime();
+        preExtracted = isOnLibraryPath(libraryPath);
+        final H3Core h3Core = preExtracted ? H3Core.newSystemInstance() : H3Core.newInstance();
+        loadNanos = System.nanoTime() - start;
+        return h3Core;
+    }
+
+    /** Calls each family of UDFs once on a valid input, unless priming is disabled. A failure is logged and
+     *  otherwise ignored, the UDF then being initialized by its first query as without priming. The polygon cell
+     *  cache is emptied afterwards, so that its counters only count queries.
+     *  @param handler the handler, otherwise initialized.
+     */
+    void prime(H3AthenaHandler handler) {
+        if (priming) {
+            final long start = System.nanoTime();
+            try {
+                primeRows(handler);
+                primeBatches(handler);
+            } catch (Exception e) {
+                LOGGER.warn("Failed to prime the H3 UDFs", e);
+            }
+            handler.getPolygonCellCache().clear();
+            primeNanos = System.nanoTime() - start;
+        }
+        LOGGER.info("Initialized the H3 UDF handler: native library {} in {} ms, priming {}",
+                    preExtracted ? "preloaded" : "extracted", loadNanos / 1_000_000,
+                    priming ? primeNanos / 1_000_000 + " ms" : "disabled");
+    }
+
+    /** @return whether the native library was loaded from the library path. */
+    boolean isPreExtracted() {
+        return preExtracted;
+    }
+
+    /** @return the time taken to load the native library, in nanoseconds, or -1 before it is loaded. */
+    long getLoadNanos() {
+        return loadNanos;
+    }
+
+    /** @return the time taken to prime the UDFs, in nanoseconds, or -1 when they were not primed. */
+    long getPrimeNanos() {
+        return primeNanos;
+    }
+
+    /** Checks whether a directory of a library path holds the H3 native library.
+     *  @param libraryPath the directories, separated by File.pathSeparator, or null.
+     *  @return true when one holds the library file of this platform.
+     */
+    static boolean isOnLibraryPath(String libraryPath) {
+        if (libraryPath == null) {
+            return false;
+        }
+        final String fileName = System.mapLibraryName(LIBRARY_NAME);
+        for (final String directory : libraryPath.split(File.pathSeparator)) {
+            if (!directory.isEmpty() && new File(directory, fileName).isFile()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Calls the row UDFs of each family: indexing, addresses, hierarchy, traversal, edges, measures,
+     *  boundaries in WKT and WKB, and polygon filling and tracing in each input format.
+     */
+    private static void primeRows(H3AthenaHandler handler) throws IOException {
+        final Long cell = handler.lat_lng_to_cell(LAT, LNG, 5);
+        final String address = handler.lat_lng_to_cell_address(LAT, LNG, 5);
+        handler.string_to_h3(handler.h3_to_string(cell));
+        handler.cell_to_lat_lng(address);
+        handler.is_valid_cell(cell);
+        handler.cell_to_children(handler.cell_to_parent(cell, 3), 4);
+        handler.grid_distance(cell, handler.grid_disk(cell, 1).get(1));
+        handler.directed_edge_to_boundary(handler.origin_to_directed_edges(cell).get(0));
+        handler.cell_area(cell, "km2");
+        handler.cell_to_boundary_wkt(cell);
+
+        final List<Long> cells = handler.polygon_to_cells(handler.cell_to_polygon_wkt(cell), 6);
+        handler.polygon_to_cells(handler.cell_to_polygon_wkb(cell), 6);
+        handler.polygon_to_cells_geojson(handler.cells_to_multi_polygon(cells, true), 6);
+        handler.cells_to_multi_polygon_wkb(handler.compact_cells(cells), false);
+    }
+
+    /** Evaluates a batch of one row through a vectorized UDF and one evaluated through reflection, for the
+     *  Arrow allocator, vectors and the record batch path of the handler, bypassing the UDF metrics.
+     */
+    private static void primeBatches(H3AthenaHandler handler) throws Exception {
+        try (BlockAllocator allocator = new BlockAllocatorImpl()) {
+            final Schema pointSchema = SchemaBuilder.newBuilder()
+                .addFloat8Field("lat").addFloat8Field("lng").addIntField("res").build();
+            final Block points = allocator.createBlock(pointSchema);
+            BlockUtils.setValue(points.getFieldVector("lat"), 0, LAT);
+            BlockUtils.setValue(points.getFieldVector("lng"), 0, LNG);
+            BlockUtils.setValue(points.getFieldVector("res"), 0, 5);
+            points.setRowCount(1);
+            final Block cells = handler.processBatch(allocator,
+                H3AthenaHandler.class.getMethod("lat_lng_to_cell", Double.class, Double.class, Integer.class),
+                points, SchemaBuilder.newBuilder().addBigIntField("cell").build());
+
+            final Method boundary = H3AthenaHandler.class.getMethod("cell_to_boundary_wkt", Long.class);
+            handler.processBatch(allocator, boundary, cells,
+                                SchemaBuilder.newBuilder().addListField("boundary", MinorType.VARCHAR.getType()).build());
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package com.aws.athena.udf.h3;
+
+import com.uber.h3core.AreaUnit;
+import com.uber.h3core.H3Core;
+import com.uber.h3core.LengthUnit;
+import com.uber.h3core.util.LatLng;
+
+import java.util.Arrays;
+import java.util.List;
+
+/** Hierarchical polyfill returning the compacted set of cells whose center is inside a polygon, without
+ *  materializing the cells of the target resolution away from the polygon boundary.
+ *  The polygon is first covered by coarse cells. A cell whose descendants all lie away from the polygon edges is
+ *  kept whole when its center is inside the polygon and dropped otherwise; only the cells near an edge are split
+ *  into their children, down to the target resolution. Each cell carries the edges close to it, and whether a
+ *  child center is inside is derived from the parity of the edges crossed from the parent center, so the work
+ *  grows with the perimeter of the polygon rather than with its area.
+ *  Polygons reaching latitudes beyond MAX_LATITUDE, or wider than 180 degrees of longitude, are filled by H3
+ *  and compacted instead, the planar distance bounds not holding there.
+ */
+final class CompactPolyfill {
+
+    /** The latitude beyond which polygons are filled at the target resolution. */
+    static final double MAX_LATITUDE = 80.0;
+
+    /** The maximum expected number of coarse cells covering the bounding box of a polygon. */
+    private static final int MAX_COARSE_CELLS = 512;
+
+    /** The distance from the center of a cell, in circumradii, beyond which no descendant center lies. */
+    private static final double DESCENDANTS_RADIUS = 2.0;
+
+    /** The distance from the center of a cell, in circumradii, of the edges handed down to its children. */
+    private static final double EDGES_RADIUS = 3.0;
+
+    private final H3Core h3Core;
+
+    /** Creates a polyfill.
+     *  @param h3Core the H3 library.
+     */
+    CompactPolyfill(H3Core h3Core) {
+        this.h3Core = h3Core;
+    }
+
+    /** Finds the compacted set of cells whose center is inside any of the polygons, the same cells as
+     *  compact_cells over polygon_to_cells.
+     *  @param polygons the polygons, each a list of rings, the first one being the exterior.
+     *  @param res the resolution of the cells before compaction.
+     *  @return the compacted cells, in increasing order.
+     *  @throws IllegalArgumentException when res is out of range.
+     */
+    long[] polygonsToCompactCells(List<List<List<LatLng>>> polygons, int res) {
+        H3Index.checkResolution(res);
+        final CellBuffer cells = new CellBuffer();
+        for (final List<List<LatLng>> polygon : polygons) {
+            if (isPlanar(polygon.get(0))) {
+                new PolygonFill(polygon, res, cells).run();
+            } else {
+                for (final long cell : h3Core.polygonToCells(polygon.get(0), polygon.subList(1, polygon.size()), res)) {
+                    cells.add(cell);
+                }
+            }
+        }
+        final long[] filled = cells.toArray();
+        return compact(polygons.size() > 1 ? removeCovered(filled) : filled);
+    }
+
+    /** Compacts cells of any resolution, none covering another: every complete set of siblings is replaced by
+     *  its parent, from the finest resolution to the coarsest.
+     *  @param cells the cells.
+     *  @return the compacted cells, in increasing order.
+     */
+    static long[] compact(long[] cells) {
+        long[] current = LongArray.sortedDistinct(cells.clone());
+        for (int res = H3Index.MAX_RES; res > 0; --res) {
+            final LongIntHashMap childCounts = new LongIntHashMap(current.length / 4);
+            for (final long cell : current) {
+                if (H3Index.getResolution(cell) != res) { continue; }
+                final long parent = H3Index.cellToParent(cell, res - 1);
+                final int count = childCounts.get(parent);
+                childCounts.put(parent, count == LongIntHashMap.MISSING ? 1 : count + 1);
+            }
+            if (childCounts.size() == 0) { continue; }
+
+            final long[] next = new long[current.length];
+            int size = 0;
+            for (final long cell : current) {
+                if (H3Index.getResolution(cell) == res) {
+                    final long parent = H3Index.cellToParent(cell, res - 1);
+                    final int count = childCounts.get(parent);
+                    if (count == H3Index.cellToChildrenSize(parent, res)) {
+                        // The first sibling seen stands for the parent, the others are dropped.
+                        if (count > 0) {
+                            next[size++] = parent;
+                            childCounts.put(parent, 0);
+                        }
+                        continue;
+                    }
+                    if (count == 0) { continue; }
+                }
+                next[size++] = cell;
+            }
+            current = LongArray.sortedDistinct(Arrays.copyOf(next, size));
+        }
+        return current;
+    }
+
+    /** Removes the cells whose ancestor is also in the set, as when the polygons of a multipolygon overlap. */
+    private static long[] removeCovered(long[] cells) {
+        final LongIntHashMap present = new LongIntHashMap(cells.length);
+        for (final long cell : cells) {
+            present.put(cell, 0);
+        }
+        final long[] result = new long[cells.length];
+        int size = 0;
+        for (final long cell : cells) {
+            boolean covered = false;
+            for (int r = H3Index.getResolution(cell) - 1; r >= 0 && !covered; --r) {
+                covered = present.get(H3Index.cellToParent(cell, r)) != LongIntHashMap.MISSING;
+            }
+            if (!covered) {
+                result[size++] = cell;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static boolean isPlanar(List<LatLng> exterior) {
+        double minLng = Double.POSITIVE_INFINITY, maxLng = Double.NEGATIVE_INFINITY;
+        for (final LatLng point : exterior) {
+            if (Math.abs(point.lat) > MAX_LATITUDE) { return false; }
+            minLng = Math.min(minLng, point.lng);
+            maxLng = Math.max(maxLng, point.lng);
+        }
+        return maxLng - minLng <= 180.0;
+    }
+
+    /** The fill of a single polygon, its edges held in parallel arrays of coordinates. */
+    private final class PolygonFill {
+        private final List<List<LatLng>> polygon;
+        private final int res;
+        private final CellBuffer out;
+        private final double[] lat0;
+        private final double[] lng0;
+        private final double[] lat1;
+        private final double[] lng1;
+        private final int edgeCount;
+
+        PolygonFill(List<List<LatLng>> polygon, int res, CellBuffer out) {
+            this.polygon = polygon;
+            this.res = res;
+            this.out = out;
+            int points = 0;
+            for (final List<LatLng> ring : polygon) {
+                points += ring.size();
+            }
+            lat0 = new double[points];
+            lng0 = new double[points];
+            lat1 = new double[points];
+            lng1 = new double[points];
+            int edges = 0;
+            for (final List<LatLng> ring : polygon) {
+                for (int i = 0; i < ring.size(); ++i) {
+                    final LatLng from = ring.get(i);
+                    final LatLng to = ring.get((i + 1) % ring.size());
+                    if (from.lat == to.lat && from.lng == to.lng) { continue; }
+                    lat0[edges] = from.lat;
+                    lng0[edges] = from.lng;
+                    lat1[edges] = to.lat;
+                    lng1[edges] = to.lng;
+                    ++edges;
+                }
+            }
+            edgeCount = edges;
+        }
+
+        void run() {
+            final int coarseRes = coarseResolution();
+            final int[] allEdges = new int[edgeCount];
+            for (int e = 0; e < edgeCount; ++e) {
+                allEdges[e] = e;
+            }
+            for (final long root : coverCells(coarseRes)) {
+                final LatLng center = h3Core.cellToLatLng(root);
+                fill(root, center, containsByRay(center), allEdges);
+            }
+        }
+
+        /** Keeps, drops or splits a cell.
+         *  @param cell the cell.
+         *  @param center the center of the cell.
+         *  @param inside whether the center is inside the polygon.
+         *  @param candidateEdges edges including all those within EDGES_RADIUS circumradii of the parent center.
+         */
+        private void fill(long cell, LatLng center, boolean inside, int[] candidateEdges) {
+            final double circumradius = circumradius(cell, center);
+            final int[] edges = edgesWithin(candidateEdges, center, EDGES_RADIUS * circumradius);
+            if (edges.length == 0
+                    || minDistance(edges, center) > DESCENDANTS_RADIUS * circumradius
+                    || H3Index.getResolution(cell) == res) {
+                if (inside) {
+                    out.add(cell);
+                }
+                return;
+            }
+            for (final long child : H3Index.cellToChildren(cell, H3Index.getResolution(cell) + 1)) {
+                final LatLng childCenter = h3Core.cellToLatLng(child);
+                final boolean childInside = inside ^ (crossings(edges, center, childCenter) & 1) == 1;
+                fill(child, childCenter, childInside, edges);
+            }
+        }
+
+        /** The finest resolution, not finer than res, whose cells are not too many to cover the bounding box. */
+        private int coarseResolution() {
+            double minLat = Double.POSITIVE_INFINITY, maxLat = Double.NEGATIVE_INFINITY;
+            double minLng = Double.POSITIVE_INFINITY, maxLng = Double.NEGATIVE_INFINITY;
+            for (final LatLng point : polygon.get(0)) {
+                minLat = Math.min(minLat, point.lat);
+                maxLat = Math.max(maxLat, point.lat);
+                minLng = Math.min(minLng, point.lng);
+                maxLng = Math.max(maxLng, point.lng);
+            }
+            final double areaKm2 = Math.toRadians(maxLat - minLat) * Math.toRadians(maxLng - minLng)
+                * Math.cos(Math.toRadians((minLat + maxLat) / 2)) * 6371.0 * 6371.0;
+            int coarseRes = 0;
+            while (coarseRes < res && areaKm2 / h3Core.getHexagonAreaAvg(coarseRes + 1, AreaUnit.km2)
+                    <= MAX_COARSE_CELLS) {
+                ++coarseRes;
+            }
+            return coarseRes;
+        }
+
+        /** Cells of coarseRes whose descendants include every cell with a center inside the polygon: the cells
+         *  with a center inside and the cells met along the edges, with two rings of neighbours.
+         */
+        private long[] coverCells(int coarseRes) {
+            final CellBuffer seeds = new CellBuffer();
+            for (final long cell : h3Core.polygonToCells(polygon.get(0), polygon.subList(1, polygon.size()),
+                                                         coarseRes)) {
+                seeds.add(cell);
+            }
+            final double step = h3Core.getHexagonEdgeLengthAvg(coarseRes, LengthUnit.km) / 111.195 / 4;
+            for (int e = 0; e < edgeCount; ++e) {
+                final double length = Math.hypot(lat1[e] - lat0[e], lng1[e] - lng0[e]);
+                final int samples = (int) Math.ceil(length / step);
+                for (int s = 0; s < samples; ++s) {
+                    final double t = (double) s / samples;
+                    seeds.add(h3Core.latLngToCell(lat0[e] + t * (lat1[e] - lat0[e]),
+                                                  lng0[e] + t * (lng1[e] - lng0[e]), coarseRes));
+                }
+            }
+            final CellBuffer cover = new CellBuffer();
+            for (final long seed : LongArray.sortedDistinct(seeds.toArray())) {
+                for (final long cell : h3Core.gridDisk(seed, 2)) {
+                    cover.add(cell);
+                }
+            }
+            return LongArray.sortedDistinct(cover.toArray());
+        }
+
+        /** The largest distance from the center of a cell to its vertices, in degrees. */
+        private double circumradius(long cell, LatLng center) {
+            double radius = 0;
+            for (final LatLng vertex : h3Core.cellToBoundary(cell)) {
+                radius = Math.max(radius, Math.hypot(vertex.lat - center.lat, vertex.lng - center.lng));
+            }
+            return radius;
+        }
+
+        private int[] edgesWithin(int[] edges, LatLng point, double distance) {
+            final int[] result = new int[edges.length];
+            int size = 0;
+            for (final int e : edges) {
+                if (distance(e, point) <= distance) {
+                    result[size++] = e;
+                }
+            }
+            return size == edges.length ? edges : Arrays.copyOf(result, size);
+        }
+
+        private double minDistance(int[] edges, LatLng point) {
+            double min = Double.POSITIVE_INFINITY;
+            for (final int e : edges) {
+                min = Math.min(min, distance(e, point));
+            }
+            return min;
+        }
+
+        /** The planar distance from a point to an edge, in degrees. */
+        private double distance(int e, LatLng point) {
+            final double dLat = lat1[e] - lat0[e];
+            final double dLng = lng1[e] - lng0[e];
+            final double t = Math.max(0, Math.min(1,
+                ((point.lat - lat0[e]) * dLat + (point.lng - lng0[e]) * dLng) / (dLat * dLat + dLng * dLng)));
+            return Math.hypot(point.lat - (lat0[e] + t * dLat), point.lng - (lng0[e] + t * dLng));
+        }
+
+        /** Whether a point is inside the polygon, by the parity of the edges crossed by a ray to the east. */
+        private boolean containsByRay(LatLng point) {
+            boolean inside = false;
+            for (int e = 0; e < edgeCount; ++e) {
+                if ((lat0[e] > point.lat) != (lat1[e] > point.lat)) {
+                    final double lng = lng0[e] + (point.lat - lat0[e]) / (lat1[e] - lat0[e]) * (lng1[e] - lng0[e]);
+                    if (lng > point.lng) {
+                        inside = !inside;
+                    }
+                }
+            }
+            return inside;
+        }
+
+        /** The number of edges crossed by the segment from a to b. */
+        private int crossings(int[] edges, LatLng a, LatLng b) {
+            int count = 0;
+            for (final int e : edges) {
+                final double d1 = orientation(lat0[e], lng0[e], lat1[e], lng1[e], a.lat, a.lng);
+                final double d2 = orientation(lat0[e], lng0[e], lat1[e], lng1[e], b.lat, b.lng);
+                final double d3 = orientation(a.lat, a.lng, b.lat, b.lng, lat0[e], lng0[e]);
+                final double d4 = orientation(a.lat, a.lng, b.lat, b.lng, lat1[e], lng1[e]);
+                if ((d1 > 0) != (d2 > 0) && (d3 > 0) != (d4 > 0)) {
+                    ++count;
+                }
+            }
+            return count;
+        }
+    }
+
+    private static double orientation(double lat0, double lng0, double lat1, double lng1, double lat, double lng) {
+        return (lat1 - lat0) * (lng - lng0) - (lng1 - lng0) * (lat - lat0);
+    }
+
+    /** A growable array of cells. */
+    private static final class CellBuffer {
+        private long[] values = new long[64];
+        private int size;
+
+        void add(long cell) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = cell;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
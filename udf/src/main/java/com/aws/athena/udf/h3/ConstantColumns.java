@@ -0,0 +1,30 @@
+package com.aws.athena.udf.h3;
+
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.compare.Range;
+import org.apache.arrow.vector.compare.RangeEqualsVisitor;
+
+/** Detection of the argument columns that hold the same value on every row of a batch, typically a literal
+ *  resolution, unit or separator, so that it is validated and resolved once rather than on every row.
+ */
+final class ConstantColumns {
+
+    private ConstantColumns() {
+    }
+
+    /** Returns whether a column holds the same value, or null, on the rows from from to to.
+     *  @param vector the column.
+     *  @param from the first row.
+     *  @param to the row after the last one.
+     *  @return true when there is at least one row and all rows equal the first one.
+     */
+    static boolean isConstant(FieldVector vector, int from, int to) {
+        if (from >= to) { return false; }
+        final RangeEqualsVisitor visitor = new RangeEqualsVisitor(vector, vector);
+        final Range range = new Range(from, from, 1);
+        for (int i = from + 1; i < to; ++i) {
+            if (!visitor.rangeEquals(range.setRightStart(i))) { return false; }
+        }
+        return true;
+    }
+}
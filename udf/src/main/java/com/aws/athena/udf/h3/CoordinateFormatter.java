@@ -0,0 +1,157 @@
+package com.aws.athena.udf.h3;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Locale;
+
+/** Locale independent fixed-precision formatting of coordinates, without the Formatter or the Double.toString
+ *  machinery on the common path.
+ */
+final class CoordinateFormatter {
+
+    /** The maximum number of fraction digits. */
+    static final int MAX_DIGITS = 15;
+
+    /** The maximum number of chars written for a coordinate, including the Double.toString fallback. */
+    static final int MAX_LENGTH = 32;
+
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    /** Scaled values from which the product of the value by the power of ten is no longer an exact integer. */
+    private static final double MAX_EXACT_SCALED = 0x1p53;
+
+    /** Magnitudes from which the plain decimal of a value may not fit in MAX_LENGTH chars. */
+    private static final double MAX_PLAIN = 1e15;
+
+    /** The number of fraction digits of %f. */
+    private static final int FIXED_DIGITS = 6;
+    private static final long FIXED_SCALE = 1_000_000L;
+
+    /** Magnitudes below which the scaled value is within 2e-7 of the scaled decimal representation. */
+    private static final double FIXED_FAST_PATH_LIMIT = 1000.0;
+
+    /** Distance from a rounding tie under which the Formatter decides, as it rounds the decimal representation. */
+    private static final double FIXED_TIE_MARGIN = 1e-6;
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; ++i) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private CoordinateFormatter() {
+    }
+
+    /** Checks a number of fraction digits.
+     *  @param digits the number of fraction digits.
+     *  @throws IllegalArgumentException when digits is out of range.
+     */
+    static void checkDigits(int digits) {
+        if (digits < 0 || digits > MAX_DIGITS) {
+            throw new IllegalArgumentException(
+                String.format("digits %d is out of range (must be 0 <= digits <= %d)", digits, MAX_DIGITS));
+        }
+    }
+
+    /** Writes a value rounded half away from zero to a number of fraction digits, without trailing zeros.
+     *  The value is scaled by a power of ten and rounded as a double when the product is below 2^53 and away from
+     *  a rounding tie by more than its error, and rounded from its exact decimal expansion otherwise. Values too
+     *  large for a plain decimal are written by Double.toString.
+     *  @param value the value.
+     *  @param digits the maximum number of fraction digits, 0 to 15.
+     *  @param buffer the buffer, with at least MAX_LENGTH chars from offset.
+     *  @param offset the offset of the first char to write.
+     *  @return the offset after the last char written.
+     */
+    static int formatTrimmed(double value, int digits, char[] buffer, int offset) {
+        final long scale = POWERS_OF_TEN[digits];
+        final double scaled = value * scale;
+        final double magnitude = Math.abs(scaled);
+        final double truncated = Math.floor(magnitude);
+        if (!(magnitude < MAX_EXACT_SCALED) || Math.abs(magnitude - truncated - 0.5) <= Math.ulp(magnitude)) {
+            return formatExact(value, digits, buffer, offset);
+        }
+
+        final long rounded = (long) truncated + (magnitude - truncated > 0.5 ? 1 : 0);
+        int position = offset;
+        if (scaled < 0 && rounded != 0) {
+            buffer[position++] = '-';
+        }
+        position = writeLong(rounded / scale, buffer, position);
+
+        long fraction = rounded % scale;
+        if (fraction != 0) {
+            int fractionDigits = digits;
+            while (fraction % 10 == 0) {
+                fraction /= 10;
+                --fractionDigits;
+            }
+            buffer[position++] = '.';
+            position = writePadded(fraction, fractionDigits, buffer, position);
+        }
+        return position;
+    }
+
+    /** Writes a value rounded from its exact decimal expansion, or by Double.toString when not a plain decimal. */
+    private static int formatExact(double value, int digits, char[] buffer, int offset) {
+        if (!(Math.abs(value) < MAX_PLAIN)) {
+            return writeString(Double.toString(value), buffer, offset);
+        }
+        final BigDecimal rounded = new BigDecimal(value).setScale(digits, RoundingMode.HALF_UP);
+        return writeString(rounded.signum() == 0 ? "0" : rounded.stripTrailingZeros().toPlainString(), buffer, offset);
+    }
+
+    /** Appends a value with 6 fraction digits, exactly as String.format("%f", value) does in an English locale:
+     *  half-up rounding of the decimal representation, and a minus sign on negative zero.
+     *  @param value the value.
+     *  @param out the builder to append to.
+     */
+    static void appendFixed(double value, StringBuilder out) {
+        if (Double.isNaN(value)) {
+            out.append("NaN");
+            return;
+        }
+        if (Double.doubleToRawLongBits(value) < 0) {
+            out.append('-');
+        }
+        final double magnitude = Math.abs(value);
+        if (magnitude < FIXED_FAST_PATH_LIMIT) {
+            final double scaled = magnitude * FIXED_SCALE;
+            final long truncated = (long) scaled;
+            final double fraction = scaled - truncated;
+            if (Math.abs(fraction - 0.5) > FIXED_TIE_MARGIN) {
+                final long rounded = fraction > 0.5 ? truncated + 1 : truncated;
+                out.append(rounded / FIXED_SCALE).append('.');
+                final long fractionDigits = rounded % FIXED_SCALE;
+                for (long power = FIXED_SCALE / 10; power > 0; power /= 10) {
+                    out.append((char) ('0' + fractionDigits / power % 10));
+                }
+                return;
+            }
+        }
+        out.append(String.format(Locale.ROOT, "%." + FIXED_DIGITS + "f", magnitude));
+    }
+
+    private static int writeLong(long value, char[] buffer, int offset) {
+        int length = 1;
+        while (length < POWERS_OF_TEN.length && value >= POWERS_OF_TEN[length]) {
+            ++length;
+        }
+        return writePadded(value, length, buffer, offset);
+    }
+
+    private static int writePadded(long value, int length, char[] buffer, int offset) {
+        long remaining = value;
+        for (int i = offset + length - 1; i >= offset; --i) {
+            buffer[i] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        return offset + length;
+    }
+
+    private static int writeString(String value, char[] buffer, int offset) {
+        value.getChars(0, value.length(), buffer, offset);
+        return offset + value.length();
+    }
+}
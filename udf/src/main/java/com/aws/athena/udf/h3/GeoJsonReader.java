@@ -0,0 +1,133 @@
+package com.aws.athena.udf.h3;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.uber.h3core.util.LatLng;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Reader of GeoJSON Polygon and MultiPolygon geometries, or of a Feature holding one, streamed token by token
+ *  into the rings of points H3 takes. Positions beyond longitude and latitude, such as an altitude, are skipped.
+ */
+final class GeoJsonReader {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final String POLYGON = "Polygon";
+    private static final String MULTIPOLYGON = "MultiPolygon";
+    private static final String FEATURE = "Feature";
+
+    private final JsonParser parser;
+
+    private GeoJsonReader(JsonParser parser) {
+        this.parser = parser;
+    }
+
+    /** Reads the rings of a polygon or multipolygon.
+     *  @param geoJson the GeoJSON geometry or feature.
+     *  @return the polygons, each a list of rings, the first one being the exterior.
+     *  @throws IOException when geoJson is not JSON.
+     *  @throws IllegalArgumentException when geoJson is not a polygon or multipolygon.
+     */
+    static List<List<List<LatLng>>> readPolygons(String geoJson) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(geoJson)) {
+            final GeoJsonReader reader = new GeoJsonReader(parser);
+            parser.nextToken();
+            final List<List<List<LatLng>>> polygons = reader.readObject();
+            if (parser.nextToken() != null) {
+                throw invalid("trailing content");
+            }
+            return polygons;
+        }
+    }
+
+    /** Reads a geometry or feature object, the members in any order. */
+    private List<List<List<LatLng>>> readObject() throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw invalid("expected an object");
+        }
+        String type = null;
+        List<?> coordinates = null;
+        List<List<List<LatLng>>> geometry = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String name = parser.getCurrentName();
+            final JsonToken value = parser.nextToken();
+            if ("type".equals(name) && value == JsonToken.VALUE_STRING) {
+                type = parser.getText();
+            } else if ("coordinates".equals(name) && value == JsonToken.START_ARRAY) {
+                coordinates = asList(readArray());
+            } else if ("geometry".equals(name) && value == JsonToken.START_OBJECT) {
+                geometry = readObject();
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        if (FEATURE.equals(type)) {
+            if (geometry == null) { throw invalid("feature without geometry"); }
+            return geometry;
+        }
+        if (coordinates == null) { throw invalid("no coordinates"); }
+        if (POLYGON.equals(type)) {
+            return List.of(toPolygon(coordinates));
+        }
+        if (MULTIPOLYGON.equals(type)) {
+            final List<List<List<LatLng>>> polygons = new ArrayList<>(coordinates.size());
+            for (final Object polygon : coordinates) {
+                polygons.add(toPolygon(asList(polygon)));
+            }
+            return polygons;
+        }
+        throw invalid("type " + type);
+    }
+
+    /** Reads nested arrays.
+     *  @return a point for an array of numbers, a position, and a list otherwise.
+     */
+    private Object readArray() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            final double lng = parser.getDoubleValue();
+            if (!parser.nextToken().isNumeric()) { throw invalid("position without latitude"); }
+            final double lat = parser.getDoubleValue();
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (!token.isNumeric()) { throw invalid("position with a non number"); }
+            }
+            return new LatLng(lat, lng);
+        }
+
+        final List<Object> elements = new ArrayList<>();
+        for (; token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+            if (token != JsonToken.START_ARRAY) { throw invalid("expected an array"); }
+            elements.add(readArray());
+        }
+        return elements;
+    }
+
+    private static List<List<LatLng>> toPolygon(List<?> rings) {
+        if (rings.isEmpty()) { throw invalid("empty polygon"); }
+        final List<List<LatLng>> polygon = new ArrayList<>(rings.size());
+        for (final Object ring : rings) {
+            final List<?> points = asList(ring);
+            final List<LatLng> latLngs = new ArrayList<>(points.size());
+            for (final Object point : points) {
+                if (!(point instanceof LatLng)) { throw invalid("expected a position"); }
+                latLngs.add((LatLng) point);
+            }
+            polygon.add(latLngs);
+        }
+        return polygon;
+    }
+
+    private static List<?> asList(Object value) {
+        if (!(value instanceof List)) { throw invalid("expected an array of positions"); }
+        return (List<?>) value;
+    }
+
+    private static IllegalArgumentException invalid(String reason) {
+        return new IllegalArgumentException("invalid polygon GeoJSON: " + reason);
+    }
+}
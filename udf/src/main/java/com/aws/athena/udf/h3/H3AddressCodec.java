@@ -0,0 +1,190 @@
+package com.aws.athena.udf.h3;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.arrow.memory.ArrowBuf;
+
+/** Lookup-table based conversions between H3 indexes and their hexadecimal addresses.
+ *  Addresses are lower case without leading zeros when encoded, and accepted in either case when decoded,
+ *  like Long.toHexString and Long.parseUnsignedLong do.
+ */
+final class H3AddressCodec {
+
+    /** The maximum length of an address, 16 hexadecimal digits for 64 bits. */
+    static final int MAX_LENGTH = 16;
+
+    /** The index tryDecode returns for a malformed address, H3_NULL, which is no valid index. */
+    static final long INVALID = 0L;
+
+    private static final byte[] DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] VALUES = new byte[128];
+
+    static {
+        Arrays.fill(VALUES, (byte) -1);
+        for (int i = 0; i < DIGITS.length; ++i) {
+            VALUES[DIGITS[i]] = (byte) i;
+            VALUES[Character.toUpperCase(DIGITS[i])] = (byte) i;
+        }
+    }
+
+    private H3AddressCodec() {
+    }
+
+    /** Decodes an H3 address.
+     *  @param address the address, 1 to 16 hexadecimal digits.
+     *  @return the H3 index.
+     *  @throws NumberFormatException when the address is not hexadecimal or too long.
+     */
+    static long decode(CharSequence address) {
+        final int length = address.length();
+        if (length == 0 || length > MAX_LENGTH) {
+            throw invalidAddress(address);
+        }
+        long h3 = 0;
+        for (int i = 0; i < length; ++i) {
+            final int value = valueOf(address.charAt(i));
+            if (value < 0) {
+                throw invalidAddress(address);
+            }
+            h3 = (h3 << 4) | value;
+        }
+        return h3;
+    }
+
+    /** Decodes an H3 address stored as ASCII bytes in an Arrow buffer, typically the data of a VarCharVector.
+     *  @param data the buffer.
+     *  @param start the offset of the first byte of the address.
+     *  @param end the offset after the last byte of the address.
+     *  @return the H3 index.
+     *  @throws NumberFormatException when the address is not hexadecimal or too long.
+     */
+    static long decode(ArrowBuf data, long start, long end) {
+        final long length = end - start;
+        if (length <= 0 || length > MAX_LENGTH) {
+            throw invalidAddress(data, start, end);
+        }
+        long h3 = 0;
+        for (long i = start; i < end; ++i) {
+            final int value = valueOf((char) (data.getByte(i) & 0xFF));
+            if (value < 0) {
+                throw invalidAddress(data, start, end);
+            }
+            h3 = (h3 << 4) | value;
+        }
+        return h3;
+    }
+
+    /** Decodes an H3 address without throwing, for the UDFs returning null on dirty data.
+     *  @param address the address.
+     *  @return the H3 index, or INVALID when the address is not 1 to 16 hexadecimal digits.
+     */
+    static long tryDecode(CharSequence address) {
+        final int length = address.length();
+        if (length == 0 || length > MAX_LENGTH) { return INVALID; }
+        long h3 = 0;
+        for (int i = 0; i < length; ++i) {
+            final int value = valueOf(address.charAt(i));
+            if (value < 0) { return INVALID; }
+            h3 = (h3 << 4) | value;
+        }
+        return h3;
+    }
+
+    /** Decodes an H3 address stored as ASCII bytes in an Arrow buffer without throwing.
+     *  @param data the buffer.
+     *  @param start the offset of the first byte of the address.
+     *  @param end the offset after the last byte of the address.
+     *  @return the H3 index, or INVALID when the address is not 1 to 16 hexadecimal digits.
+     */
+    static long tryDecode(ArrowBuf data, long start, long end) {
+        final long length = end - start;
+        if (length <= 0 || length > MAX_LENGTH) { return INVALID; }
+        long h3 = 0;
+        for (long i = start; i < end; ++i) {
+            final int value = valueOf((char) (data.getByte(i) & 0xFF));
+            if (value < 0) { return INVALID; }
+            h3 = (h3 << 4) | value;
+        }
+        return h3;
+    }
+
+    /** Encodes an H3 index as ASCII bytes into a reusable buffer.
+     *  @param h3 the H3 index.
+     *  @param buffer the buffer, at least 16 bytes long.
+     *  @return the number of bytes written at the start of the buffer.
+     */
+    static int encode(long h3, byte[] buffer) {
+        final int length = Math.max(1, (Long.SIZE - Long.numberOfLeadingZeros(h3) + 3) / 4);
+        long remaining = h3;
+        for (int i = length - 1; i >= 0; --i) {
+            buffer[i] = DIGITS[(int) (remaining & 0xF)];
+            remaining >>>= 4;
+        }
+        return length;
+    }
+
+    /** Encodes an H3 index as an address.
+     *  @param h3 the H3 index.
+     *  @return the address.
+     */
+    static String encode(long h3) {
+        final byte[] buffer = new byte[MAX_LENGTH];
+        return new String(buffer, 0, encode(h3, buffer), StandardCharsets.ISO_8859_1);
+    }
+
+    /** Decodes a collection of addresses.
+     *  @param addresses the addresses.
+     *  @return the H3 indexes, in the iteration order of addresses.
+     */
+    static List<Long> decodeAll(Collection<String> addresses) {
+        final List<Long> cells = new ArrayList<>(addresses.size());
+        for (final String address : addresses) {
+            cells.add(decode(address));
+        }
+        return cells;
+    }
+
+    /** Encodes a collection of H3 indexes.
+     *  @param cells the H3 indexes.
+     *  @return the addresses, in the iteration order of cells.
+     */
+    static List<String> encodeAll(Collection<Long> cells) {
+        final List<String> addresses = new ArrayList<>(cells.size());
+        final byte[] buffer = new byte[MAX_LENGTH];
+        for (final long cell : cells) {
+            addresses.add(new String(buffer, 0, encode(cell, buffer), StandardCharsets.ISO_8859_1));
+        }
+        return addresses;
+    }
+
+    /** Encodes an array of H3 indexes.
+     *  @param cells the H3 indexes.
+     *  @return the addresses, in the order of cells.
+     */
+    static List<String> encodeAll(long[] cells) {
+        final List<String> addresses = new ArrayList<>(cells.length);
+        final byte[] buffer = new byte[MAX_LENGTH];
+        for (final long cell : cells) {
+            addresses.add(new String(buffer, 0, encode(cell, buffer), StandardCharsets.ISO_8859_1));
+        }
+        return addresses;
+    }
+
+    private static int valueOf(char c) {
+        return c < VALUES.length ? VALUES[c] : -1;
+    }
+
+    private static NumberFormatException invalidAddress(CharSequence address) {
+        return new NumberFormatException("For input string: \"" + address + "\" under radix 16");
+    }
+
+    private static NumberFormatException invalidAddress(ArrowBuf data, long start, long end) {
+        final byte[] bytes = new byte[(int) Math.max(0, end - start)];
+        data.getBytes(start, bytes);
+        return invalidAddress(new String(bytes, StandardCharsets.UTF_8));
+    }
+}
@@ -1,5 +1,7 @@
 package com.aws.athena.udf.h3;
 
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
 import com.amazonaws.athena.connector.lambda.handlers.UserDefinedFunctionHandler;
 import com.uber.h3core.AreaUnit;
 import com.uber.h3core.H3Core;
@@ -8,11 +10,12 @@ import com.uber.h3core.util.LatLng;
 import com.uber.h3core.util.CoordIJ;
 
 import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import mil.nga.sf.LinearRing;
@@ -23,19 +26,149 @@ import mil.nga.sf.Polygon;
 import mil.nga.sf.wkt.GeometryReader;
 import mil.nga.sf.wkt.GeometryWriter;
 
+import org.apache.arrow.vector.BaseFixedWidthVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.types.pojo.Schema;
+
 /** Lambda that hosts H3 UDFs */
 public class H3AthenaHandler extends UserDefinedFunctionHandler {
 
     private final H3Core h3Core;
+    private final VectorizedFunctions vectorizedFunctions;
+    private final CellCountLimit cellCountLimit;
+    private final PolygonCellCache polygonCellCache;
+    private final BatchMemo batchMemo;
+    private final ParallelPolyfill parallelPolyfill;
+    private final CompactPolyfill compactPolyfill;
+    private final ParallelBatchExecutor parallelBatchExecutor;
+    private final UdfMetrics metrics;
+    private final ColdStart coldStart;
     private static final String SOURCE_TYPE = "h3_athena_udf_handler";
-    private static final String LAT = "lat";
-    private static final String LNG = "lng";
+    static final String LAT = "lat";
+    static final String LNG = "lng";
     private static final String POLYGON = "POLYGON";
     private static final String MULTIPOLYGON = "MULTIPOLYGON";
+    private static final AreaUnit[] AREA_UNITS = AreaUnit.values();
+    /** Room for a point with two coordinates formatted with %f. */
+    private static final int POINT_LENGTH = 40;
 
     public H3AthenaHandler() throws IOException {
         super(SOURCE_TYPE);
-        this.h3Core = H3Core.newInstance();
+        this.coldStart = ColdStart.fromEnvironment();
+        this.h3Core = coldStart.loadH3Core();
+        this.cellCountLimit = CellCountLimit.fromEnvironment();
+        this.vectorizedFunctions = new VectorizedFunctions(h3Core, cellCountLimit);
+        this.polygonCellCache = PolygonCellCache.fromEnvironment();
+        this.batchMemo = BatchMemo.fromEnvironment();
+        this.parallelPolyfill = ParallelPolyfill.fromEnvironment(h3Core);
+        this.compactPolyfill = new CompactPolyfill(h3Core);
+        this.parallelBatchExecutor = ParallelBatchExecutor.fromEnvironment();
+        this.metrics = UdfMetrics.fromEnvironment(polygonCellCache);
+        vectorizedFunctions.registerPolygonFunctions(this);
+        coldStart.prime(this);
+    }
+
+    /** @return the initialization of this handler, for the time taken by each step. */
+    ColdStart getColdStart() {
+        return coldStart;
+    }
+
+    /** @return the vectorized implementations of the UDFs. */
+    VectorizedFunctions getVectorizedFunctions() {
+        return vectorizedFunctions;
+    }
+
+    /** @return the cache of polygon_to_cells results, for its hit and miss counts. */
+    PolygonCellCache getPolygonCellCache() {
+        return polygonCellCache;
+    }
+
+    /** Evaluates a record batch and records its rows, time and output size in the metrics of the UDF.
+     *  @param allocator the allocator of the output block.
+     *  @param method the UDF method.
+     *  @param inputRecords the input record batch, one column per UDF parameter.
+     *  @param outputSchema the schema of the output, a single column.
+     *  @return the block holding the result of each row.
+     */
+    @Override
+    protected Block processRows(BlockAllocator allocator, Method method, Block inputRecords, Schema outputSchema) 
+            throws Exception {
+        if (!metrics.isEnabled()) {
+            return processBatch(allocator, method, inputRecords, outputSchema);
+        }
+        final long start = System.nanoTime();
+        Block outputRecords = null;
+        try {
+            outputRecords = processBatch(allocator, method, inputRecords, outputSchema);
+            return outputRecords;
+        } finally {
+            metrics.record(method.getName(), inputRecords.getRowCount(), System.nanoTime() - start,
+                           outputRecords == null ? -1 : bufferSize(outputRecords));
+        }
+    }
+
+    /** Evaluates a record batch, through the vectorized implementation of the UDF when one exists, and
+     *  row by row through reflection otherwise. Unless the implementation is pure Java, repeated cells are
+     *  evaluated once per batch through the batch memo, and the rows left are split across workers when the
+     *  UDF is costly enough.
+     *  @param allocator the allocator of the output block.
+     *  @param method the UDF method.
+     *  @param inputRecords the input record batch, one column per UDF parameter.
+     *  @param outputSchema the schema of the output, a single column.
+     *  @return the block holding the result of each row.
+     *  @throws Exception when the UDF fails.
+     */
+    Block processBatch(BlockAllocator allocator, Method method, Block inputRecords, Schema outputSchema)
+            throws Exception {
+        final VectorizedFunction function = vectorizedFunctions.get(method);
+        final UdfEvents.Batch event = new UdfEvents.Batch();
+        event.begin();
+        final Block outputRecords = function != null && vectorizedFunctions.isPureJava(method)
+            ? evaluate(allocator, method, function, inputRecords, outputSchema)
+            : batchMemo.process(allocator, inputRecords, outputSchema,
+                                input -> evaluate(allocator, method, function, input, outputSchema));
+        event.end();
+        if (event.shouldCommit()) {
+            event.function = method.getName();
+            event.rows = inputRecords.getRowCount();
+            event.vectorized = function != null;
+            event.commit();
+        }
+        return outputRecords;
+    }
+
+    private static long bufferSize(Block block) {
+        long size = 0;
+        for (final FieldVector vector : block.getFieldVectors()) {
+            size += vector.getBufferSize();
+        }
+        return size;
+    }
+
+    private Block evaluate(BlockAllocator allocator, Method method, VectorizedFunction function, Block inputRecords,
+                           Schema outputSchema) throws Exception {
+        return parallelBatchExecutor.process(allocator, method, function, inputRecords, outputSchema,
+                                             input -> evaluateSerially(allocator, method, function, input,
+                                                                       outputSchema));
+    }
+
+    private Block evaluateSerially(BlockAllocator allocator, Method method, VectorizedFunction function,
+                                   Block inputRecords, Schema outputSchema) throws Exception {
+        if (function == null) {
+            return super.processRows(allocator, method, inputRecords, outputSchema);
+        }
+
+        final int rowCount = inputRecords.getRowCount();
+        final Block outputRecords = allocator.createBlock(outputSchema);
+        final FieldVector result = outputRecords.getFieldVector(outputSchema.getFields().get(0).getName());
+        if (result instanceof BaseFixedWidthVector) {
+            ((BaseFixedWidthVector) result).allocateNew(rowCount);
+        } else {
+            result.allocateNew();
+        }
+        function.apply(inputRecords.getFieldVectors(), result, 0, rowCount);
+        outputRecords.setRowCount(rowCount);
+        return outputRecords;
     }
 
     /** Indexes the location at the specified resolution, returning index of the cell as number containing
@@ -61,7 +194,69 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      */
     public String lat_lng_to_cell_address(Double lat, Double lng, Integer res) {
         return (lat == null || lng == null || res == null) ? null : 
-            h3Core.latLngToCellAddress(lat, lng, res);
+            H3AddressCodec.encode(h3Core.latLngToCell(lat, lng, res));
+    }
+
+    /** Indexes the location at every resolution of a range, returning the cells from the coarsest to the finest.
+     *  The location is indexed once at maxRes, and the coarser cells are its parents.
+     *   @param lat the latitude of the location
+     *   @param lng the longitude of the location
+     *   @param minRes the coarsest resolution 0 &lt;= minRes &lt;= maxRes
+     *   @param maxRes the finest resolution minRes &lt;= maxRes &lt;= 15
+     *   @return The H3 indexes, the element i being at resolution minRes + i. Null when one of the parameter is null.
+     *   @throws IllegalArgumentException latitude, longitude, or resolutions are out of range.
+     */
+    public List<Long> lat_lng_to_cells_multi(Double lat, Double lng, Integer minRes, Integer maxRes) {
+        return (lat == null || lng == null || minRes == null || maxRes == null) ? null :
+            new LongArray(latLngToCells(lat, lng, minRes, maxRes));
+    }
+
+    /** Indexes the location at every resolution of a range, returning the addresses from the coarsest to the
+     *  finest.
+     *   @param lat the latitude of the location
+     *   @param lng the longitude of the location
+     *   @param minRes the coarsest resolution 0 &lt;= minRes &lt;= maxRes
+     *   @param maxRes the finest resolution minRes &lt;= maxRes &lt;= 15
+     *   @return The H3 addresses, the element i being at resolution minRes + i. Null when one of the parameter is
+     *   null.
+     *   @throws IllegalArgumentException latitude, longitude, or resolutions are out of range.
+     */
+    public List<String> lat_lng_to_cell_addresses_multi(Double lat, Double lng, Integer minRes, Integer maxRes) {
+        return (lat == null || lng == null || minRes == null || maxRes == null) ? null :
+            H3AddressCodec.encodeAll(latLngToCells(lat, lng, minRes, maxRes));
+    }
+
+    /** Bins locations into the cells containing them at a resolution, and counts the locations of each cell,
+     *  returning one row per cell rather than one cell per location. The locations are typically gathered with
+     *  array_agg per group.
+     *   @param lats the latitudes of the locations
+     *   @param lngs the longitudes of the locations, as many as latitudes
+     *   @param res the resolution 0 &lt;= res &lt;= 15
+     *   @return rows of a cell and a count, in the order the cells are first met, to be declared in the query as
+     *   ARRAY(ROW(cell BIGINT, count INTEGER)): the rows are keyed by these field names. Null when one of the
+     *   parameter is null. Locations with a null coordinate are not counted.
+     *   @throws IllegalArgumentException latitudes and longitudes differ in number, or are out of range.
+     */
+    public List<Map<String, Object>> lat_lng_to_cell_counts(List<Double> lats, List<Double> lngs, Integer res) {
+        if (lats == null || lngs == null || res == null) { return null; }
+        if (lats.size() != lngs.size()) {
+            throw new IllegalArgumentException(
+                String.format("%d latitudes but %d longitudes", lats.size(), lngs.size()));
+        }
+        final CellCounter counter = new CellCounter(lats.size());
+        for (int i = 0; i < lats.size(); ++i) {
+            final Double lat = lats.get(i);
+            final Double lng = lngs.get(i);
+            if (lat != null && lng != null) {
+                counter.add(h3Core.latLngToCell(lat, lng, res));
+            }
+        }
+        return counter.toRows();
+    }
+
+    /** Indexes a location at maxRes and derives its parents down to minRes. */
+    private long[] latLngToCells(double lat, double lng, int minRes, int maxRes) {
+        return H3Index.cellToResolutions(h3Core.latLngToCell(lat, lng, maxRes), minRes);
     }
 
     /** Finds the centroid of an index, and returns an array list of coordinates representing latitude and longitude 
@@ -86,7 +281,7 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
     public List<Double> cell_to_lat_lng(String h3) {
         if (h3 == null) { return null; } 
         
-        final LatLng coord = h3Core.cellToLatLng(h3);
+        final LatLng coord = h3Core.cellToLatLng(H3AddressCodec.decode(h3));
         return new ArrayList<>(Arrays.asList(coord.lat, coord.lng));
     }
 
@@ -110,10 +305,28 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
     public String cell_to_lat_lng_wkt(String h3) {
         if (h3 == null) { return null; }
     
-        final LatLng coord = h3Core.cellToLatLng(h3);
+        final LatLng coord = h3Core.cellToLatLng(H3AddressCodec.decode(h3));
         return wktPoint(coord);      
     }
 
+    /** Finds the centroid of an index, and returns a little-endian WKB of the centroid.
+     *  @param h3 the H3 index
+     *  @return the WKB of the centroid of an H3 index. Null when the index is null;
+     *  @throws IllegalArgumentException when the index is out of range
+     */
+    public byte[] cell_to_lat_lng_wkb(Long h3) {
+        return h3 == null ? null : WkbWriter.point(h3Core.cellToLatLng(h3));
+    }
+
+    /** Finds the centroid of an index, and returns a little-endian WKB of the centroid.
+     *  @param h3 the H3 index
+     *  @return the WKB of the centroid of an H3 index. Null when the index is null;
+     *  @throws IllegalArgumentException when the index is out of range
+     */
+    public byte[] cell_to_lat_lng_wkb(String h3) {
+        return h3 == null ? null : WkbWriter.point(h3Core.cellToLatLng(H3AddressCodec.decode(h3)));
+    }
+
     /** Finds the boundary of an H3 cell.
      * @param h3 the H3 cell
      * @param sep the separator between the latitude and longitude.
@@ -122,7 +335,7 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      * @throws IllegalArgumentException  when address is out of range 
      */
     public List<String> cell_to_boundary(Long h3, String sep){
-        if (h3 == null) { return null;}
+        if (h3 == null || sep == null) { return null;}
     
         return h3Core.cellToBoundary(h3).stream()
             .map(n-> pointsListStr(n, sep))
@@ -166,12 +379,32 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      */
     public List<String> cell_to_boundary_wkt(String h3){
         return (h3 == null) ? null :
-            h3Core.cellToBoundary(h3).stream()
+            h3Core.cellToBoundary(H3AddressCodec.decode(h3)).stream()
                 .map(H3AthenaHandler::wktPoint)
                 .collect(Collectors.toList());
     
     }
 
+    /** Finds the boundary of an H3 index. Returns the result in an array of little-endian WKB points.
+     * @param h3 the H3 index
+     * @return the list of points representing the points in the boundary, each one a WKB point.
+     * Null when h3 is null.
+     * @throws IllegalArgumentException  when address is out of range.
+     */
+    public List<byte[]> cell_to_boundary_wkb(Long h3){
+        return (h3 == null) ? null : wkbPoints(h3Core.cellToBoundary(h3));
+    }
+
+    /** Finds the boundary of an H3 index in a string form. Returns the result in an array of little-endian WKB points.
+     * @param h3 the H3 index
+     * @return the list of points representing the points in the boundary, each one a WKB point.
+     * Null when h3 is null.
+     * @throws IllegalArgumentException  when address is out of range.
+     */
+    public List<byte[]> cell_to_boundary_wkb(String h3){
+        return (h3 == null) ? null : wkbPoints(h3Core.cellToBoundary(H3AddressCodec.decode(h3)));
+    }
+
     /** Gets the polygon of an H3 index. Returns the result as a WKT Polygon
      * @param h3 the H3 index
      * @return String valus that's the WKT representation of the point.
@@ -196,11 +429,29 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
     public String cell_to_polygon_wkt(String h3) throws IOException {
         if (h3 == null) { return null; }
 
-        final List<Point> points = h3Core.cellToBoundary(h3).stream()
+        final List<Point> points = h3Core.cellToBoundary(H3AddressCodec.decode(h3)).stream()
                 .map(H3AthenaHandler::sfPoint)
                 .collect(Collectors.toList());
         return GeometryWriter.writeGeometry(new Polygon(new LinearRing(points)));
     }
+
+    /** Gets the polygon of an H3 index. Returns the result as a little-endian WKB Polygon
+     * @param h3 the H3 index
+     * @return the WKB representation of the polygon.
+     * Null when h3 is null.
+     */
+    public byte[] cell_to_polygon_wkb(Long h3) {
+        return h3 == null ? null : WkbWriter.polygon(h3Core.cellToBoundary(h3));
+    }
+
+    /** Gets the polygon of an H3 index. Returns the result as a little-endian WKB Polygon
+     * @param h3 the H3 index
+     * @return the WKB representation of the polygon.
+     * Null when h3 is null.
+     */
+    public byte[] cell_to_polygon_wkb(String h3) {
+        return h3 == null ? null : WkbWriter.polygon(h3Core.cellToBoundary(H3AddressCodec.decode(h3)));
+    }
     
     /** Finds the boundary of an H3 address for a given coordinate system (lng=longitude, lat=latitude).
      * @param h3Address the H3 address 
@@ -213,7 +464,7 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
         if (h3Address == null || coordSys == null) { return null; }
         else if (!LAT.equals(coordSys) && !LNG.equals(coordSys)) { throw new IllegalArgumentException("Unknown coord sys"); }
         
-        return h3Core.cellToBoundary(h3Address).stream()
+        return h3Core.cellToBoundary(H3AddressCodec.decode(h3Address)).stream()
                 .map(n-> coordSys.equals(LAT) ? n.lat : n.lng)
                 .collect(Collectors.toList());
     }
@@ -227,7 +478,7 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      */
     public List<String> cell_to_boundary(String h3Address, String sep){
         return (h3Address == null || sep == null) ? null : 
-            h3Core.cellToBoundary(h3Address).stream()
+            h3Core.cellToBoundary(H3AddressCodec.decode(h3Address)).stream()
                             .map(n-> pointsListStr(n, sep))
                             .collect(Collectors.toList());
     }
@@ -238,7 +489,7 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      *  @throws  IllegalArgumentException  when index is out of range.
      */
     public Integer get_resolution(Long h3){
-        return h3 == null ? null : h3Core.getResolution(h3);
+        return h3 == null ? null : H3Index.getResolution(h3);
     }
 
     /** Returns the resolution of an index.
@@ -246,7 +497,7 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      *  @return the resolution. Null when h3Address is null.
      */
     public Integer get_resolution(String h3Address){
-        return h3Address == null ? null : h3Core.getResolution(h3Address);
+        return h3Address == null ? null : H3Index.getResolution(H3AddressCodec.decode(h3Address));
     }
 
     /** Returns the base cell number of the index.
@@ -254,7 +505,7 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      * @return the base cell number of the index. Null when h3 is null.
      */
     public Integer get_base_cell_number(Long h3){
-        return h3 == null ? null : h3Core.getBaseCellNumber(h3);
+        return h3 == null ? null : H3Index.getBaseCellNumber(h3);
     }
 
     /** Returns the base cell number of the index in string form
@@ -263,7 +514,7 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      * @throws IllegalArgumentException when index is out of range.
      */
     public Integer get_base_cell_number(String h3Address){
-        return h3Address == null ? null : h3Core.getBaseCellNumber(h3Address);
+        return h3Address == null ? null : H3Index.getBaseCellNumber(H3AddressCodec.decode(h3Address));
     }
 
     /** Converts the string representation to H3Index (uint64_t) representation.
@@ -271,7 +522,7 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
     *   @return the string representation. Null when h3Address is null.
     */
     public Long string_to_h3(String h3Address){
-        return h3Address == null ? null : h3Core.stringToH3(h3Address);
+        return h3Address == null ? null : H3AddressCodec.decode(h3Address);
     }
 
     /** Converts the H3Index representation of the index to the string representation. str must be at least of length 17.
@@ -279,7 +530,7 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      *  @return the string representation if the index or Null when h3 is null.
      */
     public String h3_to_string(Long h3) {
-        return h3 == null ? null : h3Core.h3ToString(h3);
+        return h3 == null ? null : H3AddressCodec.encode(h3);
     }
     
     /** Returns whether an h3 value is valid.
@@ -295,7 +546,7 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      *  @return whether the h3 address is a valid h3 address. false when h3Address is null.
      */
     public Boolean is_valid_cell(String h3Address){
-        return  h3Address != null && h3Core.isValidCell(h3Address);
+        return  h3Address != null && h3Core.isValidCell(H3AddressCodec.decode(h3Address));
     }
 
     /** Returns whether an h3 index is ResClassIII. 
@@ -303,7 +554,7 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      *  @return whether the h3 index is resClassIII. False when h3 is null.
      */
     public Boolean is_res_class_iii(Long h3){
-        return h3 != null && h3Core.isResClassIII(h3);
+        return h3 != null && H3Index.isResClassIII(h3);
     }
     
     /** Returns whether an h3 address is ResClassIII.
@@ -311,7 +562,7 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      * @return whether the h3 address is resClassIII. False when h3 is null.
      */
     public Boolean is_res_class_iii(String h3Address) {
-        return h3Address != null &&  h3Core.isResClassIII(h3Address);
+        return h3Address != null && H3Index.isResClassIII(H3AddressCodec.decode(h3Address));
     }
 
     /** Returns whether an H3 index is a pentagon or not.
@@ -327,7 +578,7 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      * @return whether or not the h3 item is pentagon.
      */
     public Boolean is_pentagon(String h3Address){
-        return h3Address != null && h3Core.isPentagon(h3Address);
+        return h3Address != null && h3Core.isPentagon(H3AddressCodec.decode(h3Address));
     }
 
     /** Finds all icosahedron faces intersected by a given H3 index.
@@ -344,7 +595,7 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      */
     public List<Integer> get_icosahedron_faces(String h3Address){
         return h3Address == null ? null : new ArrayList<>(
-                                            h3Core.getIcosahedronFaces(h3Address));
+                                            h3Core.getIcosahedronFaces(H3AddressCodec.decode(h3Address)));
    
     }
 
@@ -365,7 +616,8 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      *   @param the addresses inside the ring.
      */
     public List<String> grid_disk(String origin, Integer k){
-        return origin == null || k == null ? null : h3Core.gridDisk(origin, k);
+        return origin == null || k == null ? null : 
+            H3AddressCodec.encodeAll(h3Core.gridDisk(H3AddressCodec.decode(origin), k));
     }
 
     
@@ -384,7 +636,8 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      *  @return the h3 addresses inside the ring.
      */
     public List<String> grid_ring_unsafe(String h3Address, Integer k)  {
-        return h3Address == null || k == null ? null :  h3Core.gridRingUnsafe(h3Address, k);
+        return h3Address == null || k == null ? null :  
+            H3AddressCodec.encodeAll(h3Core.gridRingUnsafe(H3AddressCodec.decode(h3Address), k));
     }
 
     /** Given two H3 indexes, return the line of indexes between them (inclusive).
@@ -402,7 +655,8 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      *   @return the h3 addresses 
      */
     public List<String> grid_path_cells(String start, String end)  {
-        return (start == null || end == null) ? null : h3Core.gridPathCells(start, end);
+        return (start == null || end == null) ? null : 
+            H3AddressCodec.encodeAll(h3Core.gridPathCells(H3AddressCodec.decode(start), H3AddressCodec.decode(end)));
     }
     
      /** Returns the distance in grid cells between the two addresses.
@@ -414,7 +668,7 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      */
     public Long grid_distance(Long a, Long b){
         if (a == null || b == null) { return  null; }
-        else if (h3Core.getResolution(a) != h3Core.getResolution(b)) {
+        else if (H3Index.getResolution(a) != H3Index.getResolution(b)) {
             throw new IllegalArgumentException("Cannot compute distance of two indexes from different resolutions");
         }
         return h3Core.gridDistance(a, b);
@@ -428,11 +682,7 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      *  @return the distance.
      */
     public Long grid_distance(String a, String b) {
-        if (a == null || b == null) { return  null; }
-        else if (h3Core.getResolution(a) != h3Core.getResolution(b)) {
-            throw new IllegalArgumentException("Cannot compute distance of two indexes from different resolutions");
-        }
-        return h3Core.gridDistance(a, b);
+        return (a == null || b == null) ? null : grid_distance(H3AddressCodec.decode(a), H3AddressCodec.decode(b));
     }
 
     /** Returns the direct parent (parent resolution = resolution -1) index containing h.
@@ -441,7 +691,7 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
       * @return parent index containing h or null when h3 is null.
       */
     public Long cell_to_parent(Long h) {
-        return h == null ? null : h3Core.cellToParent(h, h3Core.getResolution(h) - 1);
+        return h == null ? null : H3Index.cellToParent(h, H3Index.getResolution(h) - 1);
     }
 
     /** Returns the parent (coarser) index containing h.
@@ -450,7 +700,7 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
       * @return parent index containing h or null when h3 is null.
       */
     public Long cell_to_parent(Long h3, Integer parentRes) {
-        return h3 == null || parentRes == null ? null : h3Core.cellToParent(h3, parentRes);
+        return h3 == null || parentRes == null ? null : H3Index.cellToParent(h3, parentRes);
     }
 
     /** Returns all the parents up to resolution 0. 
@@ -460,11 +710,7 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
     public List<Long> cell_to_parents(Long h3) {
         if (h3 == null) { return null; }
         
-        final List<Long> result = new LinkedList<>();
-        for (int res = get_resolution(h3) - 1; res >= 0 ; --res) {
-            result.add(cell_to_parent(h3, res));
-        }
-        return result;
+        return new LongArray(H3Index.cellToParents(h3));
     }
 
     /** Returns the parent (coarser) index containing h3Address. 
@@ -475,7 +721,7 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      */
     public String cell_to_parent(String h3Address, Integer parentRes) {
         return (h3Address == null || parentRes == null) ? null :
-            h3Core.cellToParentAddress(h3Address, parentRes);
+            H3AddressCodec.encode(H3Index.cellToParent(H3AddressCodec.decode(h3Address), parentRes));
     }
 
     /** Returns all the parents up to resolution 0. 
@@ -485,11 +731,7 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
     public List<String> cell_to_parents(String h3Address) {
         if (h3Address == null) { return null; }
         
-        final List<String> result = new LinkedList<>();
-        for (int res = h3Core.getResolution(h3Address) - 1; res >= 0 ; --res) {
-            result.add(cell_to_parent(h3Address, res));
-        }
-        return result;
+        return H3AddressCodec.encodeAll(H3Index.cellToParents(H3AddressCodec.decode(h3Address)));
     }
 
     /** Returns the direct parent (parent resolution = resolution -1) index containing h.
@@ -498,7 +740,7 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
       * @return parent adress containing h or null when h3 is null.
       */
     public Long cell_direct_parent(Long h) {
-        return h == null ? null : cell_to_parent(h, get_resolution(h) - 1);
+        return h == null ? null : H3Index.cellToParent(h, H3Index.getResolution(h) - 1);
     }
 
     /** Returns the direct parent (parent resolution = resolution -1) index containing h.
@@ -507,7 +749,10 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
       * @return parent adress containing h or null when h3 is null.
       */
     public String cell_direct_parent(String h) {
-        return h == null ? null : cell_to_parent(h, get_resolution(h) - 1);
+        if (h == null) { return null; }
+
+        final long h3 = H3AddressCodec.decode(h);
+        return H3AddressCodec.encode(H3Index.cellToParent(h3, H3Index.getResolution(h3) - 1));
     }
 
     /** Populates children with the indexes contained by h at resolution childRes. 
@@ -516,7 +761,7 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      *  @return the h3 indexes of the children
      */
     public List<Long> cell_to_children(Long h3, Integer childRes) {
-        return h3 == null  || childRes == null ? null : h3Core.cellToChildren(h3, childRes);
+        return h3 == null  || childRes == null ? null : new LongArray(cellCountLimit.cellToChildren(h3, childRes));
     }
 
     /** Populates descendants with the indexes contained by h at resolution lower than
@@ -528,12 +773,7 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
     public List<Long> cell_to_descendants(Long h3, Integer depth) {
         if (h3 == null || depth == null || depth <= 0) { return null; }
         
-        final int resolution = get_resolution(h3);
-        final List<Long> result = new LinkedList<>();
-        for (int i = 1; i <= depth; ++i) {
-            result.addAll(cell_to_children(h3, resolution + i));
-        }
-        return result;
+        return new LongArray(cellCountLimit.cellToDescendants(h3, depth));
     }
 
     /** Populates descendants with the indexes contained by h at resolution lower than
@@ -545,12 +785,7 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
     public List<String> cell_to_descendants(String h3Address, Integer depth) {
         if (h3Address == null || depth == null || depth <= 0) { return null; }
         
-        final int resolution = get_resolution(h3Address);
-        final List<String> result = new LinkedList<>();
-        for (int i = 1; i <= depth; ++i) {
-            result.addAll(cell_to_children(h3Address, resolution + i));
-        }
-        return result;
+        return H3AddressCodec.encodeAll(cellCountLimit.cellToDescendants(H3AddressCodec.decode(h3Address), depth));
     }
 
     /** Populates children with the indexes contained by h at resolution childRes. 
@@ -559,7 +794,54 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      *  @return the h3 addresses of the children.
      */
     public List<String> cell_to_children(String h3Address, Integer childRes) {
-        return h3Address == null || childRes == null ? null : h3Core.cellToChildren(h3Address, childRes);
+        return h3Address == null || childRes == null ? null : 
+            H3AddressCodec.encodeAll(cellCountLimit.cellToChildren(H3AddressCodec.decode(h3Address), childRes));
+    }
+
+    /** Returns a range of the children of h at resolution childRes, in the order of cell_to_children, generated
+     *  from their position, so that the children of a cell too large to expand in one row can be split across
+     *  rows.
+     *  @param h3 the h3 index
+     *  @param childRes the children resolution
+     *  @param offset the position of the first child, 0 or more.
+     *  @param limit the maximum number of children, 0 or more.
+     *  @return the h3 indexes of the children at positions offset to offset + limit, fewer past the last child.
+     */
+    public List<Long> cell_to_children_range(Long h3, Integer childRes, Long offset, Integer limit) {
+        return h3 == null || childRes == null || offset == null || limit == null ? null
+            : new LongArray(cellCountLimit.cellToChildrenRange(h3, childRes, offset, limit));
+    }
+
+    /** Returns a range of the children of h at resolution childRes, in the order of cell_to_children.
+     *  @param h3Address the h3 address
+     *  @param childRes the children resolution
+     *  @param offset the position of the first child, 0 or more.
+     *  @param limit the maximum number of children, 0 or more.
+     *  @return the h3 addresses of the children at positions offset to offset + limit, fewer past the last child.
+     */
+    public List<String> cell_to_children_range(String h3Address, Integer childRes, Long offset, Integer limit) {
+        return h3Address == null || childRes == null || offset == null || limit == null ? null
+            : H3AddressCodec.encodeAll(
+                cellCountLimit.cellToChildrenRange(H3AddressCodec.decode(h3Address), childRes, offset, limit));
+    }
+
+    /** Returns the exact number of children of h at resolution childRes, to split their expansion into ranges.
+     *  @param h3 the h3 index
+     *  @param childRes the children resolution
+     *  @return the number of children.
+     */
+    public Long cell_to_children_size(Long h3, Integer childRes) {
+        return h3 == null || childRes == null ? null : H3Index.cellToChildrenCount(h3, childRes);
+    }
+
+    /** Returns the exact number of children of h at resolution childRes, to split their expansion into ranges.
+     *  @param h3Address the h3 address
+     *  @param childRes the children resolution
+     *  @return the number of children.
+     */
+    public Long cell_to_children_size(String h3Address, Integer childRes) {
+        return h3Address == null || childRes == null ? null
+            : H3Index.cellToChildrenCount(H3AddressCodec.decode(h3Address), childRes);
     }
 
     /** Returns the center child (finer) index contained by h at resolution childRes.
@@ -568,29 +850,19 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      * @return the h3 index of the center child.
     */
     public Long cell_to_center_child(Long h3, Integer childRes){
-        return h3 == null || childRes == null ? null :  h3Core.cellToCenterChild(h3, childRes);
+        return h3 == null || childRes == null ? null : H3Index.cellToCenterChild(h3, childRes);
     }
 
     public List<Long> cell_to_center_descendants(Long h3, Integer depth) {
         if (h3 == null || depth == null) { return null; }
         
-        final int resolution = get_resolution(h3);
-        final List<Long> result = new LinkedList<>();
-        for (int i = 1; i <= depth; ++i) {
-            result.add(cell_to_center_child(h3, resolution + i));
-        }
-        return result;
+        return new LongArray(H3Index.cellToCenterDescendants(h3, depth));
     }
 
     public List<String> cell_to_center_descendants(String h3Address, Integer depth) {
         if (h3Address == null || depth == null) { return null; } 
         
-        final int resolution = get_resolution(h3Address);
-        final List<String> result = new LinkedList<>();
-        for (int i = 1; i <= depth; ++i) {
-            result.add(cell_to_center_child(h3Address, resolution + i));
-        }
-        return result;
+        return H3AddressCodec.encodeAll(H3Index.cellToCenterDescendants(H3AddressCodec.decode(h3Address), depth));
     }
  
     /** Returns the center child (finer) index contained by h at resolution childRes.
@@ -599,7 +871,8 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      * @return the h3 Address of the center child.
     */
     public String cell_to_center_child(String h3Address, Integer childRes){
-        return h3Address == null || childRes == null ? null : h3Core.cellToCenterChild(h3Address, childRes);
+        return h3Address == null || childRes == null ? null : 
+            H3AddressCodec.encode(H3Index.cellToCenterChild(H3AddressCodec.decode(h3Address), childRes));
     }
 
     /** Compacts the set h3Set of indexes as best as possible, into the array compacted set. 
@@ -621,7 +894,8 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      *  @return the list of h3 addresses that compact the initial addresses.
      */
     public List<String> compact_cell_addresses(List<String> h3Addresses) {
-        return h3Addresses == null ? null : h3Core.compactCellAddresses(h3Addresses);
+        return h3Addresses == null ? null : 
+            H3AddressCodec.encodeAll(h3Core.compactCells(H3AddressCodec.decodeAll(h3Addresses)));
     }
 
     /** This function uncompacts a compacted set of H3 cells to indices of the target resolution.
@@ -641,67 +915,229 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      *  @return list of h3 address as result of uncompation
     */
     public List<String> uncompact_cell_addresses(List<String> h3Addresses, Integer res){
-        return h3Addresses == null || res == null ? null : h3Core.uncompactCellAddresses(h3Addresses, res);
+        return h3Addresses == null || res == null ? null : 
+            H3AddressCodec.encodeAll(h3Core.uncompactCells(H3AddressCodec.decodeAll(h3Addresses), res));
     }
 
     /** Receives a polygon WKT without holes, and resolution, and find all H3 objects whose center located inside the polygon
      *  @param polygon the polygon WKT
      *  @param res the resolution.
-     *  @return H3 indexes
+     *  @return H3 indexes, in increasing order
      *  @throws IOException when failing to read WKT
      */
     public List<Long> polygon_to_cells(String polygonWKT, Integer res) throws IOException {
-        final List<Long> result;
-        if (polygonWKT == null || res == null) { result = null; } 
-        else {
-            final String trimmed = polygonWKT.trim();
-            if (trimmed.startsWith(POLYGON) && trimmed.endsWith("))")) {
-                final Polygon polygon = GeometryReader.readGeometry(trimmed, Polygon.class);
-                result = sf_polygon_to_cells(polygon, res);
-            } else if (trimmed.startsWith(MULTIPOLYGON) && trimmed.endsWith(")))")) {
-                final HashSet<Long> resultSet = new HashSet<Long>();
-                final MultiPolygon mp = GeometryReader.readGeometry(trimmed, MultiPolygon.class);
-                
-                for (final Polygon p : mp.getPolygons()) {
-                    resultSet.addAll(sf_polygon_to_cells(p, res));
-                }
-                
-                result = new LinkedList<Long>(resultSet);
-            } else {
-                throw new IllegalArgumentException("invalid polygonWKT");
-            }
-        }
-        return result;
+        return polygonWKT == null || res == null ? null : new LongArray(polygonCells(polygonWKT, res));
     }
 
     /** Receives a polygon WKT without holes, and resolution, and find all H3 objects whose center located inside the polygon
      *  @param polygon the polygon WKT
      *  @param res the resolution.
-     *  @return H3 indexes
+     *  @return H3 indexes, in increasing order
      *  @throws IOException when failing to read WKT
      */
     public List<String> polygon_to_cell_addresses(String polygonWKT, Integer res) throws IOException {
         final List<String> result;
         if (polygonWKT == null || res == null) { result = null; } 
         else {
-            final String trimmed = polygonWKT.trim();
-            if (trimmed.startsWith(POLYGON) && trimmed.endsWith("))")) {
-                final Polygon polygon = GeometryReader.readGeometry(trimmed, Polygon.class);
-                result = sf_polygon_to_cell_addresses(polygon, res);
-            } else if (trimmed.startsWith(MULTIPOLYGON) && trimmed.endsWith(")))")) {
-                final HashSet<String> resultSet = new HashSet<String>();
-                final MultiPolygon mp = GeometryReader.readGeometry(trimmed, MultiPolygon.class);
-                
-                for (final Polygon p : mp.getPolygons()) {
-                    resultSet.addAll(sf_polygon_to_cell_addresses(p, res));
+            result = H3AddressCodec.encodeAll(polygonCells(polygonWKT, res));
+        }
+        return result;
+    }
+
+    /** Finds the H3 cells whose center is inside a polygon or multipolygon WKB, as returned by ST_AsBinary.
+     *  @param polygonWKB the polygon or multipolygon WKB
+     *  @param res the resolution.
+     *  @return H3 indexes, in increasing order
+     *  @throws IllegalArgumentException when polygonWKB is not a polygon or multipolygon
+     */
+    public List<Long> polygon_to_cells(byte[] polygonWKB, Integer res) throws IOException {
+        return polygonWKB == null || res == null ? null : new LongArray(polygonCells(polygonWKB, res));
+    }
+
+    /** Finds the H3 cells whose center is inside a polygon or multipolygon WKB, as addresses.
+     *  @param polygonWKB the polygon or multipolygon WKB
+     *  @param res the resolution.
+     *  @return H3 addresses, in increasing order of index
+     *  @throws IllegalArgumentException when polygonWKB is not a polygon or multipolygon
+     */
+    public List<String> polygon_to_cell_addresses(byte[] polygonWKB, Integer res) throws IOException {
+        return polygonWKB == null || res == null ? null : H3AddressCodec.encodeAll(polygonCells(polygonWKB, res));
+    }
+
+    /** Finds the H3 cells whose center is inside a GeoJSON Polygon or MultiPolygon, or a Feature holding one.
+     *  @param polygonGeoJson the GeoJSON
+     *  @param res the resolution.
+     *  @return H3 indexes, in increasing order
+     *  @throws IOException when polygonGeoJson is not JSON
+     */
+    public List<Long> polygon_to_cells_geojson(String polygonGeoJson, Integer res) throws IOException {
+        return polygonGeoJson == null || res == null ? null
+            : new LongArray(polygonCells(polygonGeoJson, res, () -> GeoJsonReader.readPolygons(polygonGeoJson)));
+    }
+
+    /** Finds the H3 cells whose center is inside a GeoJSON Polygon or MultiPolygon, as addresses.
+     *  @param polygonGeoJson the GeoJSON
+     *  @param res the resolution.
+     *  @return H3 addresses, in increasing order of index
+     *  @throws IOException when polygonGeoJson is not JSON
+     */
+    public List<String> polygon_to_cell_addresses_geojson(String polygonGeoJson, Integer res) throws IOException {
+        return polygonGeoJson == null || res == null ? null : H3AddressCodec.encodeAll(
+            polygonCells(polygonGeoJson, res, () -> GeoJsonReader.readPolygons(polygonGeoJson)));
+    }
+
+    /** Finds the compacted set of H3 cells whose center is inside a polygon or multipolygon, the same cells as
+     *  compact_cells(polygon_to_cells(polygonWKT, res)), filling the polygon hierarchically so that the cells of
+     *  resolution res are only enumerated along its boundary.
+     *  @param polygonWKT the polygon or multipolygon WKT
+     *  @param res the resolution before compaction.
+     *  @return H3 indexes of resolution res or coarser, in increasing order
+     *  @throws IOException when failing to read WKT
+     */
+    public List<Long> polygon_to_cells_compact(String polygonWKT, Integer res) throws IOException {
+        return polygonWKT == null || res == null ? null
+            : new LongArray(compactPolyfill.polygonsToCompactCells(polygonRings(polygonWKT), res));
+    }
+
+    /** Finds the compacted set of H3 cells whose center is inside a polygon or multipolygon, as addresses.
+     *  @param polygonWKT the polygon or multipolygon WKT
+     *  @param res the resolution before compaction.
+     *  @return H3 addresses of resolution res or coarser, in increasing order of index
+     *  @throws IOException when failing to read WKT
+     */
+    public List<String> polygon_to_cell_addresses_compact(String polygonWKT, Integer res) throws IOException {
+        return polygonWKT == null || res == null ? null
+            : H3AddressCodec.encodeAll(compactPolyfill.polygonsToCompactCells(polygonRings(polygonWKT), res));
+    }
+
+    /** Polyfills a polygon or multipolygon WKT, through the polygon cache.
+     *  @param polygonWKT the polygon WKT
+     *  @param res the resolution.
+     *  @return H3 indexes, shared with the cache and not to be modified
+     *  @throws IOException when failing to read WKT
+     */
+    private long[] polygonCells(String polygonWKT, int res) throws IOException {
+        return polygonCells(polygonWKT, res, () -> polygonRings(polygonWKT));
+    }
+
+    /** Polyfills a polygon or multipolygon WKB, through the polygon cache.
+     *  The WKB is cached as a string of one char per byte, whose first char, the byte order, is never the first
+     *  char of a WKT or a GeoJSON text.
+     *  @param polygonWKB the polygon WKB
+     *  @param res the resolution.
+     *  @return H3 indexes, shared with the cache and not to be modified
+     */
+    private long[] polygonCells(byte[] polygonWKB, int res) throws IOException {
+        return polygonCells(new String(polygonWKB, StandardCharsets.ISO_8859_1), res,
+                            () -> WkbReader.readPolygons(polygonWKB));
+    }
+
+    /** Polyfills polygons read on a cache miss.
+     *  @param key the text of the polygons in the cache
+     *  @param res the resolution.
+     *  @param reader the reader of the polygons, returning null for polygons it rejects without an exception
+     *  @return H3 indexes, shared with the cache and not to be modified, or null when the reader returns null
+     *  @throws IOException when failing to read the polygons
+     */
+    private long[] polygonCells(String key, int res, PolygonReader reader) throws IOException {
+        return polygonCells(key, res, false, reader);
+    }
+
+    /** Polyfills polygons read on a cache miss, cached apart from the other readers when read strictly.
+     *  @param key the text of the polygons in the cache
+     *  @param res the resolution.
+     *  @param strict whether the reader is the strict reader of the try_ UDFs
+     *  @param reader the reader of the polygons, returning null for polygons it rejects without an exception
+     *  @return H3 indexes, shared with the cache and not to be modified, or null when the reader returns null
+     *  @throws IOException when failing to read the polygons
+     */
+    private long[] polygonCells(String key, int res, boolean strict, PolygonReader reader) throws IOException {
+        final long[] cached = polygonCellCache.get(key, res, strict);
+        if (cached != null) { return cached; }
+
+        final UdfEvents.PolygonRead readEvent = new UdfEvents.PolygonRead();
+        readEvent.begin();
+        final List<List<List<LatLng>>> polygons = reader.read();
+        readEvent.end();
+        if (readEvent.shouldCommit()) {
+            readEvent.size = key.length();
+            readEvent.polygons = polygons == null ? 0 : polygons.size();
+            readEvent.commit();
+        }
+        if (polygons == null) { return null; }
+
+        final UdfEvents.Polyfill fillEvent = new UdfEvents.Polyfill();
+        fillEvent.begin();
+        final long[] result = parallelPolyfill.polygonsToCells(polygons, res);
+        fillEvent.end();
+        if (fillEvent.shouldCommit()) {
+            fillEvent.res = res;
+            fillEvent.polygons = polygons.size();
+            fillEvent.cells = result.length;
+            fillEvent.commit();
+        }
+        polygonCellCache.put(key, res, strict, result);
+        return result;
+    }
+
+    /** Polyfills a polygon or multipolygon WKT through the polygon cache, checking the input without exceptions.
+     *  @param polygonWKT the polygon WKT
+     *  @param res the resolution.
+     *  @return H3 indexes, shared with the cache and not to be modified, or null on invalid input
+     */
+    private long[] tryPolygonCells(String polygonWKT, Integer res) throws IOException {
+        if (polygonWKT == null || !isResolution(res)) { return null; }
+        return polygonCells(polygonWKT, res, true, () -> {
+            final List<List<List<LatLng>>> polygons = WktReader.readPolygons(polygonWKT);
+            return polygons != null && isFinite(polygons) ? polygons : null;
+        });
+    }
+
+    private static boolean isFinite(List<List<List<LatLng>>> polygons) {
+        for (final List<List<LatLng>> polygon : polygons) {
+            for (final List<LatLng> ring : polygon) {
+                for (final LatLng point : ring) {
+                    if (!isLatLng(point.lat, point.lng)) { return false; }
                 }
-                
-                result = new LinkedList<String>(resultSet);
-            } else {
-                throw new IllegalArgumentException("invalid polygonWKT");
             }
         }
-        return result;
+        return true;
+    }
+
+    /** A reader of the rings of polygons, from WKT, WKB or GeoJSON. */
+    @FunctionalInterface
+    private interface PolygonReader {
+        List<List<List<LatLng>>> read() throws IOException;
+    }
+
+    /** Reads the rings of a polygon or multipolygon WKT, in a single pass when it is plain 2D text.
+     *  @param polygonWKT the polygon WKT
+     *  @return the polygons, each a list of rings, the first one being the exterior
+     *  @throws IOException when failing to read WKT
+     */
+    private List<List<List<LatLng>>> polygonRings(String polygonWKT) throws IOException {
+        final List<List<List<LatLng>>> read = WktReader.readPolygons(polygonWKT);
+        if (read != null) { return read; }
+
+        // Other geometries and malformed text go through the complete reader, for its validation and errors.
+        final List<Polygon> polygons;
+        final String trimmed = polygonWKT.trim();
+        if (trimmed.startsWith(POLYGON) && trimmed.endsWith("))")) {
+            polygons = List.of(GeometryReader.readGeometry(trimmed, Polygon.class));
+        } else if (trimmed.startsWith(MULTIPOLYGON) && trimmed.endsWith(")))")) {
+            polygons = GeometryReader.readGeometry(trimmed, MultiPolygon.class).getPolygons();
+        } else {
+            throw new IllegalArgumentException("invalid polygonWKT");
+        }
+
+        final List<List<List<LatLng>>> rings = new ArrayList<>(polygons.size());
+        for (final Polygon polygon : polygons) {
+            final List<List<LatLng>> polygonRings = new ArrayList<>(1 + polygon.numInteriorRings());
+            polygonRings.add(sf_polygon_to_exterior_points(polygon));
+            polygonRings.addAll(sf_polygon_to_hole_lists(polygon));
+            rings.add(polygonRings);
+        }
+        return rings;
     }
 
     /**
@@ -709,8 +1145,9 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      * @return List of coordinates for the exterior
      */
     private List<LatLng> sf_polygon_to_exterior_points(Polygon pg) {
-        final List<LatLng> exteriorCoordPoints = new LinkedList<>();
-        for (final Point p : pg.getExteriorRing().getPoints()) {
+        final List<Point> points = pg.getExteriorRing().getPoints();
+        final List<LatLng> exteriorCoordPoints = new ArrayList<>(points.size());
+        for (final Point p : points) {
             Double lng = p.getX();
             Double lat = p.getY();
             exteriorCoordPoints.add(new LatLng(lat, lng));
@@ -723,12 +1160,13 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      * @return List of coordinates for the exterior
      */
     private List<List<LatLng>> sf_polygon_to_hole_lists(Polygon pg) {
-        final List<List<LatLng>> holeLists = new LinkedList<>();
+        final List<List<LatLng>> holeLists = new ArrayList<>(pg.numInteriorRings());
         // For each interior ring, create a hole
         for (int r = 0; r < pg.numInteriorRings() ; r++) {
             final LineString ir = pg.getInteriorRing(r);
-            final List<LatLng> interiorCoordPoints = new LinkedList<>();
-            for (final Point p : ir.getPoints()) {
+            final List<Point> points = ir.getPoints();
+            final List<LatLng> interiorCoordPoints = new ArrayList<>(points.size());
+            for (final Point p : points) {
                 Double lng = p.getX();
                 Double lat = p.getY();
                 interiorCoordPoints.add(new LatLng(lat, lng));
@@ -738,88 +1176,62 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
         return holeLists;
     }
 
-    /**
-     * @param Polygon the Simple Feature Polygon
-     * @param res the resolution
-     * @return H3 indexes
-     */
-    private List<Long> sf_polygon_to_cells(Polygon pg, Integer res) {
-        final List<LatLng> exteriorCoordPoints = sf_polygon_to_exterior_points(pg);
-        final List<List<LatLng>> holeLists = sf_polygon_to_hole_lists(pg);
-        return h3Core.polygonToCells(exteriorCoordPoints, holeLists, res);
-    }
 
-    /**
-     * @param Polygon the Simple Feature Polygon
-     * @param res the resolution
-     * @return H3 indexes
-     */
-    private List<String> sf_polygon_to_cell_addresses(Polygon pg, Integer res) {
-        final List<LatLng> exteriorCoordPoints = sf_polygon_to_exterior_points(pg);
-        final List<List<LatLng>> holeLists = sf_polygon_to_hole_lists(pg);
-        return h3Core.polygonToCellAddresses(exteriorCoordPoints, holeLists, res);
-    }
     
      /** Gets a multipolygon WKT given an h3 set.  Either h3 or h3Address parameter can be defined, not both.
      *  @param h3 h3 set.
      *  @param h3Address set.  
      *  @param geoJson whether to return in the format of geoJson
+     *  @param digits the maximum number of fraction digits of coordinates, or WktWriter.FULL_PRECISION
      *  @return WKT Polygon
      */
-    private String cellsToMultiPolygon(List<Long> h3, List<String> h3Addresses, Boolean geoJson) {
+    private String cellsToMultiPolygon(List<Long> h3, List<String> h3Addresses, Boolean geoJson, int digits) {
         final String result;
         if (h3 == null && h3Addresses== null) {
             result =  null;
         } else {
             final List<List<List<LatLng>>> multiPolygon = 
-                (h3 == null) ?  h3Core.cellAddressesToMultiPolygon(h3Addresses, geoJson): 
-                                h3Core.cellsToMultiPolygon(h3, geoJson);
-
-            final StringBuilder multiPolygonWKT = new StringBuilder("MULTIPOLYGON (");
-            boolean firstPolygon = true;    
-            for (final List<List<LatLng>> polygon: multiPolygon) {
-                if (firstPolygon) {
-                    firstPolygon = false;
-                }
-                else {
-                    multiPolygonWKT.append(", ");
-                }
-                multiPolygonWKT.append("(");
-
-                boolean firstList = true;
-                for (final List<LatLng> points: polygon) {
-                    if (firstList) { firstList = false; }
-                    else { multiPolygonWKT.append(", "); }
-
-                    multiPolygonWKT.append("(");
-
-                    boolean firstPoint = true;
-                    for (final LatLng coord: points) {
-                        if (firstPoint) {
-                            firstPoint = false;
-                        }
-                        else {
-                            multiPolygonWKT.append(", ");
-                        }
-                        multiPolygonWKT.append(coord.lng).append(" ").append(coord.lat);
-                    }
-                    multiPolygonWKT.append(")");
-                }
-                multiPolygonWKT.append(")");
-            }
-            multiPolygonWKT.append(")");
-            result = multiPolygonWKT.toString();
+                multiPolygon(h3 == null ? H3AddressCodec.decodeAll(h3Addresses) : h3, geoJson);
+            result = WktWriter.writeMultiPolygon(multiPolygon, digits);
         }
         return result;
     }
 
+    /** Traces the outline of cells.
+     *  @param h3 h3 set.
+     *  @param geoJson whether to follow the GeoJSON winding order.
+     *  @return the polygons, each a list of rings, the first one being the exterior.
+     */
+    private List<List<List<LatLng>>> multiPolygon(List<Long> h3, boolean geoJson) {
+        final UdfEvents.MultiPolygon event = new UdfEvents.MultiPolygon();
+        event.begin();
+        final List<List<List<LatLng>>> multiPolygon = h3Core.cellsToMultiPolygon(h3, geoJson);
+        event.end();
+        if (event.shouldCommit()) {
+            event.cells = h3.size();
+            event.polygons = multiPolygon.size();
+            event.commit();
+        }
+        return multiPolygon;
+    }
+
     /** Gets a multipolygon WKT given an h3 set. 
      *  @param h3 h3 set.
      *  @param geoJson whether to return in geoJSon format
      *  @return WKT Polygon
      */
     public String cells_to_multi_polygon(List<Long> h3, Boolean geoJson) {
-        return geoJson == null ? null : cellsToMultiPolygon(h3, null, geoJson);
+        return geoJson == null ? null : cellsToMultiPolygon(h3, null, geoJson, WktWriter.FULL_PRECISION);
+    }
+
+    /** Gets a multipolygon WKT given an h3 set, with coordinates rounded to a number of fraction digits.
+     *  @param h3 h3 set.
+     *  @param geoJson whether to return in geoJSon format
+     *  @param digits the maximum number of fraction digits of coordinates, 0 to 15.
+     *  @return WKT Polygon
+     */
+    public String cells_to_multi_polygon(List<Long> h3, Boolean geoJson, Integer digits) {
+        return geoJson == null || digits == null ? null : cellsToMultiPolygon(h3, null, geoJson, digits);
     }
 
     /** Gets a multipolygon WKT given an h3 set. 
@@ -828,7 +1240,36 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      *  @return WKT Polygon
      */
     public String cell_addresses_to_multi_polygon(List<String> h3Addresses, Boolean geoJson) {
-        return geoJson == null ? null : cellsToMultiPolygon(null, h3Addresses, geoJson);
+        return geoJson == null ? null : cellsToMultiPolygon(null, h3Addresses, geoJson, WktWriter.FULL_PRECISION);
+    }
+
+    /** Gets a multipolygon WKT given an h3 set, with coordinates rounded to a number of fraction digits.
+     *  @param h3 h3 set.
+     *  @param geoJson whether to return in geoJSon format.
+     *  @param digits the maximum number of fraction digits of coordinates, 0 to 15.
+     *  @return WKT Polygon
+     */
+    public String cell_addresses_to_multi_polygon(List<String> h3Addresses, Boolean geoJson, Integer digits) {
+        return geoJson == null || digits == null ? null : cellsToMultiPolygon(null, h3Addresses, geoJson, digits);
+    }
+
+    /** Gets a little-endian WKB multipolygon given an h3 set. 
+     *  @param h3 h3 set.
+     *  @param geoJson whether to follow the GeoJSON winding order.
+     *  @return WKB MultiPolygon
+     */
+    public byte[] cells_to_multi_polygon_wkb(List<Long> h3, Boolean geoJson) {
+        return h3 == null || geoJson == null ? null : WkbWriter.multiPolygon(multiPolygon(h3, geoJson));
+    }
+
+    /** Gets a little-endian WKB multipolygon given an h3 address set. 
+     *  @param h3Addresses h3 address set.
+     *  @param geoJson whether to follow the GeoJSON winding order.
+     *  @return WKB MultiPolygon
+     */
+    public byte[] cell_addresses_to_multi_polygon_wkb(List<String> h3Addresses, Boolean geoJson) {
+        return h3Addresses == null || geoJson == null ? null : 
+            WkbWriter.multiPolygon(multiPolygon(H3AddressCodec.decodeAll(h3Addresses), geoJson));
     }
 
     /** Returns whether or not the provided H3Indexes are neighbors.
@@ -848,7 +1289,7 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      */
     public Boolean are_neighbor_cells(String origin, String destination){
         return (origin == null || destination == null) ? null : 
-            h3Core.areNeighborCells(origin, destination);
+            h3Core.areNeighborCells(H3AddressCodec.decode(origin), H3AddressCodec.decode(destination));
     }
 
     /** Returns a unidirectional edge H3 index based on the provided origin and destination.
@@ -868,7 +1309,8 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      */
     public String cells_to_directed_edge(String origin, String destination) {
         return origin == null || destination == null ? null :
-            h3Core.cellsToDirectedEdge(origin, destination);
+            H3AddressCodec.encode(h3Core.cellsToDirectedEdge(H3AddressCodec.decode(origin), 
+                                                             H3AddressCodec.decode(destination)));
       }
 
     /** Determines if the provided H3Index is a valid unidirectional edge index.
@@ -885,7 +1327,7 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      *
      */
     public Boolean is_valid_directed_edge(String edgeAddress){
-        return edgeAddress != null && h3Core.isValidDirectedEdge(edgeAddress);      
+        return edgeAddress != null && h3Core.isValidDirectedEdge(H3AddressCodec.decode(edgeAddress));      
     }
 
     /** Returns the origin hexagon from the unidirectional edge H3Index.
@@ -901,7 +1343,8 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      *  @return the h3 address of  the origin of the edge
      */
     public String get_directed_edge_origin(String edgeAddress){
-        return edgeAddress == null ? null : h3Core.getDirectedEdgeOrigin(edgeAddress);
+        return edgeAddress == null ? null : 
+            H3AddressCodec.encode(h3Core.getDirectedEdgeOrigin(H3AddressCodec.decode(edgeAddress)));
     }
 
     /** Returns the destination hexagon from the unidirectional edge H3Index. */
@@ -912,7 +1355,7 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
     /** Returns the destination hexagon from the unidirectional edge address. */
     public String get_directed_edge_destination(String edgeAddress){
         return edgeAddress == null ? null : 
-            h3Core.getDirectedEdgeDestination(edgeAddress);
+            H3AddressCodec.encode(h3Core.getDirectedEdgeDestination(H3AddressCodec.decode(edgeAddress)));
     }
 
     /** Returns origin and destination hexagons from a unidrectional edge. 
@@ -947,7 +1390,8 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      *  @return all edges from the cell
      */
     public List<String> origin_to_directed_edges(String h3){
-        return h3 == null ? null : h3Core.originToDirectedEdges(h3);
+        return h3 == null ? null : 
+            H3AddressCodec.encodeAll(h3Core.originToDirectedEdges(H3AddressCodec.decode(h3)));
     }
 
     /** Get the vertices of a given edge as a list of WKT oints
@@ -981,7 +1425,7 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
     public List<Integer> cell_to_local_ij(String origin, String h3) {
         if (origin == null || h3 == null) { return null; }
 
-        final CoordIJ coord = h3Core.cellToLocalIj(origin, h3);
+        final CoordIJ coord = h3Core.cellToLocalIj(H3AddressCodec.decode(origin), H3AddressCodec.decode(h3));
         return new ArrayList<>(Arrays.asList(coord.i, coord.j));
     }
 
@@ -992,11 +1436,28 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      *  @return the area
      */
     public List<String> directed_edge_to_boundary(String edgeAddress){
-        return edgeAddress == null ? null : h3Core.directedEdgeToBoundary(edgeAddress).stream()
+        return edgeAddress == null ? null : 
+            h3Core.directedEdgeToBoundary(H3AddressCodec.decode(edgeAddress)).stream()
                                                     .map(H3AthenaHandler::wktPoint)
                                                     .collect(Collectors.toList());
     }
 
+    /** Get the vertices of a given edge as a list of little-endian WKB points
+     *  @param edge an edge
+     *  @return all points in WKB Points format.
+     */
+    public List<byte[]> directed_edge_to_boundary_wkb(Long edge){
+        return edge == null ? null : wkbPoints(h3Core.directedEdgeToBoundary(edge));
+    }
+
+    /** Get the vertices of a given edge as a list of little-endian WKB points
+     *  @param edgeAddress the edge as a String
+     *  @return all points in WKB Points format.
+     */
+    public List<byte[]> directed_edge_to_boundary_wkb(String edgeAddress){
+        return edgeAddress == null ? null : wkbPoints(h3Core.directedEdgeToBoundary(H3AddressCodec.decode(edgeAddress)));
+    }
+
     /**  Area in unit of area for a given H3 cell.
      *  @param h3 The cell from which to retrieve the area 
      *  @param unit the unit of area: rads2, km2 or m2.
@@ -1014,7 +1475,7 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      */
     public Double cell_area(String h3, String unit) {
         return h3 == null || unit == null ? null : 
-            h3Core.cellArea(h3, AreaUnit.valueOf(unit));
+            h3Core.cellArea(H3AddressCodec.decode(h3), AreaUnit.valueOf(unit));
     }
     
     /**  Edge length in given unit a given H3 cell.
@@ -1035,7 +1496,7 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      */
     public Double cell_edge_length(String h3, String unit) {
         return h3 == null || unit == null ? null : 
-           h3Core.edgeLength(h3Core.originToDirectedEdges(h3).get(0), 
+           h3Core.edgeLength(h3Core.originToDirectedEdges(H3AddressCodec.decode(h3)).get(0), 
             LengthUnit.valueOf(unit)); 
     }
 
@@ -1071,7 +1532,7 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      *  @return the indexes.
      */
     public List<String> get_res0_cells(String dummy){
-        return new ArrayList<String>(h3Core.getRes0CellAddresses());
+        return H3AddressCodec.encodeAll(h3Core.getRes0Cells());
     }
 
     /** Gets the pentagon indexes at a given resolution. 
@@ -1087,15 +1548,181 @@ public class H3AthenaHandler extends UserDefinedFunctionHandler {
      * @return the addresses of pentagons in H3 system. 
      */
     public List<String> get_pentagon_addresses(Integer res){
-        return res == null ? null : new ArrayList<String>(h3Core.getPentagonAddresses(res));
+        return res == null ? null : H3AddressCodec.encodeAll(h3Core.getPentagons(res));
+    }
+
+    /** Indexes the location at the specified resolution, or returns null on invalid input rather than failing
+     *  the query.
+     *   @param lat the latitude of the location
+     *   @param lng the longitude of the location
+     *   @param res the resolution 0 &lt;= res &lt;= 15
+     *   @return The H3 index as a long. Null when one of the parameter is null, not finite or out of range.
+     */
+    public Long try_lat_lng_to_cell(Double lat, Double lng, Integer res) {
+        return lat != null && lng != null && isLatLng(lat, lng) && isResolution(res)
+            ? h3Core.latLngToCell(lat, lng, res) : null;
+    }
+
+    /** Indexes the location at the specified resolution, or returns null on invalid input.
+     *   @param lat the latitude of the location
+     *   @param lng the longitude of the location
+     *   @param res the resolution 0 &lt;= res &lt;= 15
+     *   @return The H3 address. Null when one of the parameter is null, not finite or out of range.
+     */
+    public String try_lat_lng_to_cell_address(Double lat, Double lng, Integer res) {
+        return lat != null && lng != null && isLatLng(lat, lng) && isResolution(res)
+            ? H3AddressCodec.encode(h3Core.latLngToCell(lat, lng, res)) : null;
+    }
+
+    /** Converts the string representation to H3Index representation, or returns null on invalid input.
+     *  @param h3Address the h3 address.
+     *  @return the index. Null when h3Address is null or not the address of a valid cell.
+     */
+    public Long try_string_to_h3(String h3Address) {
+        final long h3 = validCell(h3Address);
+        return h3 == H3AddressCodec.INVALID ? null : h3;
+    }
+
+    /** Returns the parent (coarser) index containing h3, or null on invalid input.
+     *  @param h3 the h3 index.
+     *  @param parentRes parent resolution.
+     *  @return parent index containing h3. Null when h3 is null or not a valid cell, or when parentRes is null
+     *          or not between 0 and the resolution of h3.
+     */
+    public Long try_cell_to_parent(Long h3, Integer parentRes) {
+        return h3 != null && H3Index.isValidCell(h3) && isParentResolution(h3, parentRes)
+            ? H3Index.cellToParent(h3, parentRes) : null;
     }
 
-    private static String pointsListStr(LatLng geoCoord, String sep) {
-        return String.format("%f%s%f", geoCoord.lat, sep, geoCoord.lng);
+    /** Returns the parent (coarser) address containing h3Address, or null on invalid input.
+     *  @param h3Address the h3 address of an h3 cell.
+     *  @param parentRes the parent resolution.
+     *  @return parent address containing h3Address. Null when h3Address is null or not the address of a valid
+     *          cell, or when parentRes is null or not between 0 and the resolution of h3Address.
+     */
+    public String try_cell_to_parent(String h3Address, Integer parentRes) {
+        final long h3 = validCell(h3Address);
+        return h3 != H3AddressCodec.INVALID && isParentResolution(h3, parentRes)
+            ? H3AddressCodec.encode(H3Index.cellToParent(h3, parentRes)) : null;
+    }
+
+    /** Finds the boundary of an H3 index for a given coordinate system, or returns null on invalid input.
+     *  @param h3 the H3 index
+     *  @param coordSys the coordinate system, lng or lat.
+     *  @return the latitudes or the longitudes of the boundary. Null when h3 is null or not a valid cell, or when
+     *          coordSys is null or unknown.
+     */
+    public List<Double> try_cell_to_boundary_sys(Long h3, String coordSys) {
+        return h3 != null && H3Index.isValidCell(h3) && (LAT.equals(coordSys) || LNG.equals(coordSys))
+            ? cell_to_boundary_sys(h3, coordSys) : null;
+    }
+
+    /** Area in unit of area for a given H3 cell, or null on invalid input.
+     *  @param h3 The cell from which to retrieve the area
+     *  @param unit the unit of area: rads2, km2 or m2.
+     *  @return the area. Null when h3 is null or not a valid cell, or when unit is null or unknown.
+     */
+    public Double try_cell_area(Long h3, String unit) {
+        final AreaUnit areaUnit = areaUnit(unit);
+        return h3 != null && areaUnit != null && H3Index.isValidCell(h3) ? h3Core.cellArea(h3, areaUnit) : null;
+    }
+
+    /** Area in unit of area for a given H3 address, or null on invalid input.
+     *  @param h3 The address of the cell from which to retrieve the area
+     *  @param unit the unit of area: rads2, km2 or m2.
+     *  @return the area. Null when h3 is null or not the address of a valid cell, or when unit is null or unknown.
+     */
+    public Double try_cell_area(String h3, String unit) {
+        final AreaUnit areaUnit = areaUnit(unit);
+        if (areaUnit == null) { return null; }
+        final long cell = validCell(h3);
+        return cell == H3AddressCodec.INVALID ? null : h3Core.cellArea(cell, areaUnit);
+    }
+
+    /** Finds the H3 cells whose center is inside a polygon or multipolygon WKT, or returns null on invalid input.
+     *  Only 2D POLYGON and MULTIPOLYGON text is read; anything else returns null.
+     *  @param polygonWKT the polygon or multipolygon WKT
+     *  @param res the resolution.
+     *  @return H3 indexes, in increasing order. Null when polygonWKT is null or not a well-formed polygon with
+     *          finite coordinates, or when res is null or out of range.
+     *  @throws IOException never, the polygon being read without the complete WKT reader
+     */
+    public List<Long> try_polygon_to_cells(String polygonWKT, Integer res) throws IOException {
+        final long[] cells = tryPolygonCells(polygonWKT, res);
+        return cells == null ? null : new LongArray(cells);
+    }
+
+    /** Finds the H3 cells whose center is inside a polygon or multipolygon WKT as addresses, or returns null on
+     *  invalid input.
+     *  @param polygonWKT the polygon or multipolygon WKT
+     *  @param res the resolution.
+     *  @return H3 addresses, in increasing order of index. Null when polygonWKT is null or not a well-formed polygon with
+     *          finite coordinates, or when res is null or out of range.
+     *  @throws IOException never, the polygon being read without the complete WKT reader
+     */
+    public List<String> try_polygon_to_cell_addresses(String polygonWKT, Integer res) throws IOException {
+        final long[] cells = tryPolygonCells(polygonWKT, res);
+        return cells == null ? null : H3AddressCodec.encodeAll(cells);
+    }
+
+    /** The input checks of the try_ UDFs, which return null rather than throwing, stack traces being expensive
+     *  when a dirty column fails on many rows.
+     */
+    private static boolean isLatLng(double lat, double lng) {
+        return Double.isFinite(lat) && Double.isFinite(lng);
+    }
+
+    private static boolean isResolution(Integer res) {
+        return res != null && res >= 0 && res <= H3Index.MAX_RES;
+    }
+
+    private static boolean isParentResolution(long h3, Integer parentRes) {
+        return parentRes != null && parentRes >= 0 && parentRes <= H3Index.getResolution(h3);
+    }
+
+    /** Decodes the address of a valid cell.
+     *  @return the cell, or H3AddressCodec.INVALID when h3Address is null or not the address of a valid cell.
+     */
+    private static long validCell(String h3Address) {
+        if (h3Address == null) { return H3AddressCodec.INVALID; }
+        final long h3 = H3AddressCodec.tryDecode(h3Address);
+        return H3Index.isValidCell(h3) ? h3 : H3AddressCodec.INVALID;
+    }
+
+    /** Looks an area unit up by name, without the exception of AreaUnit.valueOf.
+     *  @return the unit, or null when unit is null or unknown.
+     */
+    private static AreaUnit areaUnit(String unit) {
+        if (unit == null) { return null; }
+        for (final AreaUnit areaUnit : AREA_UNITS) {
+            if (areaUnit.name().equals(unit)) { return areaUnit; }
+        }
+        return null;
+    }
+
+    /** Formats a point as its latitude and longitude with %f precision, around a separator. */
+    static String pointsListStr(LatLng geoCoord, String sep) {
+        final StringBuilder point = new StringBuilder(POINT_LENGTH);
+        CoordinateFormatter.appendFixed(geoCoord.lat, point);
+        point.append(sep);
+        CoordinateFormatter.appendFixed(geoCoord.lng, point);
+        return point.toString();
     }
 
     private static String wktPoint(LatLng coord) {
-        return String.format("POINT (%f %f)", coord.lng, coord.lat);
+        final StringBuilder point = new StringBuilder(POINT_LENGTH).append("POINT (");
+        CoordinateFormatter.appendFixed(coord.lng, point);
+        point.append(' ');
+        CoordinateFormatter.appendFixed(coord.lat, point);
+        return point.append(')').toString();
+    }
+
+    private static List<byte[]> wkbPoints(List<LatLng> coords) {
+        final List<byte[]> points = new ArrayList<>(coords.size());
+        for (final LatLng coord : coords) {
+            points.add(WkbWriter.point(coord));
+        }
+        return points;
     }
 
     /** Returns a Simple Feature point from an H3 LatLng
@@ -0,0 +1,454 @@
+package com.aws.athena.udf.h3;
+
+import com.uber.h3core.exceptions.H3Exception;
+
+/** Pure Java bit manipulations of 64-bit H3 indexes, for the inspection and hierarchy functions that do
+ *  not need the native library.
+ *  The layout is the one of the H3 specification: 4 bits of mode and reserved bits, 4 bits of resolution,
+ *  7 bits of base cell, then 15 digits of 3 bits, the digits finer than the resolution being set to 7.
+ */
+final class H3Index {
+
+    /** The finest H3 resolution. */
+    static final int MAX_RES = 15;
+
+    private static final int RES_OFFSET = 52;
+    private static final long RES_MASK = 0xFL << RES_OFFSET;
+    private static final int BASE_CELL_OFFSET = 45;
+    private static final long BASE_CELL_MASK = 0x7FL;
+    private static final int DIGIT_BITS = 3;
+    private static final long DIGIT_MASK = 0x7L;
+    private static final long UNUSED_DIGIT = 0x7L;
+
+    /** The H3 error code for a resolution argument out of range. */
+    private static final int E_RES_DOMAIN = 4;
+
+    /** The number of children of a hexagon at the next resolution. */
+    private static final int CHILDREN = 7;
+
+    /** The top byte of a cell: the high bit clear, the cell mode 1, and the reserved bits clear. */
+    private static final long CELL_HEADER = 0x08L;
+    private static final int HEADER_OFFSET = 56;
+    private static final int NUM_BASE_CELLS = 122;
+
+    /** The digit of the K axis, deleted below pentagons. */
+    private static final int K_AXES_DIGIT = 1;
+
+    /** The base cells that are pentagons, as a bit set over the base cell numbers. */
+    private static final long[] PENTAGON_BASE_CELLS = new long[2];
+
+    static {
+        for (final int baseCell : new int[] { 4, 14, 24, 38, 49, 58, 63, 72, 83, 97, 107, 117 }) {
+            PENTAGON_BASE_CELLS[baseCell >>> 6] |= 1L << baseCell;
+        }
+    }
+
+    private H3Index() {
+    }
+
+    /** Returns the resolution of an index.
+     *  @param h3 the index.
+     *  @return the resolution, 0 &lt;= res &lt;= 15.
+     */
+    static int getResolution(long h3) {
+        return (int) ((h3 & RES_MASK) >>> RES_OFFSET);
+    }
+
+    /** Returns the base cell number of an index.
+     *  @param h3 the index.
+     *  @return the base cell number.
+     */
+    static int getBaseCellNumber(long h3) {
+        return (int) ((h3 >>> BASE_CELL_OFFSET) & BASE_CELL_MASK);
+    }
+
+    /** Returns whether an index has a Class III (odd) resolution.
+     *  @param h3 the index.
+     *  @return true when the resolution is odd.
+     */
+    static boolean isResClassIII(long h3) {
+        return (getResolution(h3) & 1) == 1;
+    }
+
+    /** Returns whether a cell is a pentagon: a pentagon base cell and only center digits.
+     *  @param h3 the cell.
+     *  @return true for the 12 pentagons of each resolution.
+     */
+    static boolean isPentagon(long h3) {
+        final int baseCell = getBaseCellNumber(h3);
+        if ((PENTAGON_BASE_CELLS[baseCell >>> 6] & (1L << baseCell)) == 0) { return false; }
+        final int res = getResolution(h3);
+        final long digitsMask = ((1L << (res * DIGIT_BITS)) - 1) << digitOffset(res);
+        return (h3 & digitsMask) == 0;
+    }
+
+    /** Returns whether an index is a valid cell, with the checks of H3Core.isValidCell but without the native
+     *  library: the cell mode, the base cell, the digits up to the resolution, unused digits after it, and no
+     *  digit on the deleted K axis below a pentagon.
+     *  @param h3 the index.
+     *  @return true for a valid cell.
+     */
+    static boolean isValidCell(long h3) {
+        if ((h3 >>> HEADER_OFFSET) != CELL_HEADER) { return false; }
+        final int baseCell = getBaseCellNumber(h3);
+        if (baseCell >= NUM_BASE_CELLS) { return false; }
+        final int res = getResolution(h3);
+        final long unusedMask = (1L << digitOffset(res)) - 1;
+        if ((h3 & unusedMask) != unusedMask) { return false; }
+
+        boolean leadingZeros = (PENTAGON_BASE_CELLS[baseCell >>> 6] & (1L << baseCell)) != 0;
+        for (int r = 1; r <= res; ++r) {
+            final int digit = getIndexDigit(h3, r);
+            if (digit == UNUSED_DIGIT) { return false; }
+            if (leadingZeros && digit != 0) {
+                if (digit == K_AXES_DIGIT) { return false; }
+                leadingZeros = false;
+            }
+        }
+        return true;
+    }
+
+    /** Returns the digit of an index at a given resolution.
+     *  @param h3 the index.
+     *  @param res the resolution of the digit, 1 &lt;= res &lt;= 15.
+     *  @return the digit, 0 to 6, or 7 when res is finer than the resolution of the index.
+     */
+    static int getIndexDigit(long h3, int res) {
+        return (int) ((h3 >>> digitOffset(res)) & DIGIT_MASK);
+    }
+
+    /** Returns the parent of an index at a coarser resolution, with the validation of H3Core.cellToParent.
+     *  @param h3 the index.
+     *  @param parentRes the parent resolution.
+     *  @return the parent index, or h3 itself when parentRes is the resolution of h3.
+     *  @throws IllegalArgumentException when parentRes is negative or finer than the resolution of h3.
+     */
+    static long cellToParent(long h3, int parentRes) {
+        final int res = getResolution(h3);
+        if (parentRes < 0 || parentRes > res) {
+            throw new IllegalArgumentException(
+                String.format("res (%d) must be between 0 and %d, inclusive", parentRes, res));
+        }
+        return parentUnchecked(h3, res, parentRes);
+    }
+
+    /** Returns all the parents of an index, from the direct parent down to resolution 0, in one pass.
+     *  @param h3 the index.
+     *  @return the parents, the element i being at resolution res - 1 - i.
+     */
+    static long[] cellToParents(long h3) {
+        final int res = getResolution(h3);
+        final long[] parents = new long[res];
+        long parent = h3;
+        for (int i = 0; i < res; ++i) {
+            final int parentRes = res - 1 - i;
+            parent = parentUnchecked(parent, parentRes + 1, parentRes);
+            parents[i] = parent;
+        }
+        return parents;
+    }
+
+    /** Returns an index and its parents from a coarser resolution up, in one pass.
+     *  @param h3 the index.
+     *  @param minRes the coarsest resolution.
+     *  @return the indexes, the element i being at resolution minRes + i, the last one being h3.
+     *  @throws IllegalArgumentException when minRes is negative or finer than the resolution of h3.
+     */
+    static long[] cellToResolutions(long h3, int minRes) {
+        final int res = getResolution(h3);
+        if (minRes < 0 || minRes > res) {
+            throw new IllegalArgumentException(
+                String.format("res (%d) must be between 0 and %d, inclusive", minRes, res));
+        }
+        final long[] cells = new long[res - minRes + 1];
+        long cell = h3;
+        cells[cells.length - 1] = cell;
+        for (int i = cells.length - 2; i >= 0; --i) {
+            cell = parentUnchecked(cell, minRes + i + 1, minRes + i);
+            cells[i] = cell;
+        }
+        return cells;
+    }
+
+    /** Returns the center child of an index at a finer resolution, with the validation of
+     *  H3Core.cellToCenterChild.
+     *  @param h3 the index.
+     *  @param childRes the child resolution.
+     *  @return the center child.
+     *  @throws IllegalArgumentException when childRes is not a valid resolution.
+     *  @throws H3Exception when childRes is coarser than the resolution of h3.
+     */
+    static long cellToCenterChild(long h3, int childRes) {
+        checkResolution(childRes);
+        final int res = getResolution(h3);
+        if (childRes < res) {
+            throw new H3Exception(E_RES_DOMAIN);
+        }
+        long child = setResolution(h3, childRes);
+        for (int r = res + 1; r <= childRes; ++r) {
+            child &= ~(DIGIT_MASK << digitOffset(r));
+        }
+        return child;
+    }
+
+    /** Returns the exact number of children of a cell at a finer resolution, with the validation of
+     *  H3Core.cellToChildren: 7 per resolution for a hexagon, and one less for the center pentagon each time.
+     *  @param h3 the cell.
+     *  @param childRes the child resolution.
+     *  @return the number of children.
+     *  @throws IllegalArgumentException when childRes is not a valid resolution.
+     *  @throws H3Exception when childRes is coarser than the resolution of h3.
+     */
+    static long cellToChildrenCount(long h3, int childRes) {
+        checkResolution(childRes);
+        final int res = getResolution(h3);
+        if (childRes < res) {
+            throw new H3Exception(E_RES_DOMAIN);
+        }
+        final long hexagons = hexagonChildren(childRes - res);
+        return isPentagon(h3) ? pentagonChildren(hexagons) : hexagons;
+    }
+
+    /** Returns the exact number of descendants of a cell from the next resolution down to depth resolutions
+     *  finer, as returned by cellToDescendants.
+     *  @param h3 the cell.
+     *  @param depth the number of finer resolutions.
+     *  @return the number of descendants.
+     *  @throws IllegalArgumentException when a resolution is out of range.
+     */
+    static long cellToDescendantsCount(long h3, int depth) {
+        final int res = getResolution(h3);
+        long count = 0;
+        for (int i = 1; i <= depth; ++i) {
+            count += cellToChildrenCount(h3, res + i);
+        }
+        return count;
+    }
+
+    /** Returns the number of children of a cell at a finer resolution, as the size of an array.
+     *  @param h3 the cell.
+     *  @param childRes the child resolution.
+     *  @return the number of children.
+     *  @throws IllegalArgumentException when childRes is not a valid resolution, or the children do not fit
+     *          in an array.
+     *  @throws H3Exception when childRes is coarser than the resolution of h3.
+     */
+    static int cellToChildrenSize(long h3, int childRes) {
+        final long size = cellToChildrenCount(h3, childRes);
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException(
+                String.format("%d children at resolution %d do not fit in an array", size, childRes));
+        }
+        return (int) size;
+    }
+
+    /** Returns the children of a cell at a finer resolution, in increasing order as H3Core.cellToChildren does,
+     *  into an array sized up front.
+     *  @param h3 the cell.
+     *  @param childRes the child resolution.
+     *  @return the children.
+     *  @throws IllegalArgumentException when childRes is not a valid resolution, or the children do not fit
+     *          in an array.
+     *  @throws H3Exception when childRes is coarser than the resolution of h3.
+     */
+    static long[] cellToChildren(long h3, int childRes) {
+        final long[] children = new long[cellToChildrenSize(h3, childRes)];
+        writeChildren(h3, childRes, children, 0);
+        return children;
+    }
+
+    /** Returns the descendants of a cell from the next resolution down to depth resolutions finer, each
+     *  resolution in increasing order, into an array sized up front.
+     *  @param h3 the cell.
+     *  @param depth the number of finer resolutions.
+     *  @return the descendants.
+     *  @throws IllegalArgumentException when a resolution is out of range, or the descendants do not fit
+     *          in an array.
+     */
+    static long[] cellToDescendants(long h3, int depth) {
+        final int res = getResolution(h3);
+        final long size = cellToDescendantsCount(h3, depth);
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException(
+                String.format("%d descendants at depth %d do not fit in an array", size, depth));
+        }
+        final long[] descendants = new long[(int) size];
+        int offset = 0;
+        for (int i = 1; i <= depth; ++i) {
+            offset = writeChildren(h3, res + i, descendants, offset);
+        }
+        return descendants;
+    }
+
+    /** Returns the child of a cell at a position of the increasing order of its children, computed from the
+     *  position without generating the children before it.
+     *  @param h3 the cell.
+     *  @param childRes the child resolution.
+     *  @param position the position, 0 &lt;= position &lt; cellToChildrenCount(h3, childRes).
+     *  @return the child.
+     *  @throws IllegalArgumentException when childRes is not a valid resolution, or position is out of range.
+     *  @throws H3Exception when childRes is coarser than the resolution of h3.
+     */
+    static long cellToChildAt(long h3, int childRes, long position) {
+        final long count = cellToChildrenCount(h3, childRes);
+        if (position < 0 || position >= count) {
+            throw new IllegalArgumentException(
+                String.format("child position %d is out of range (must be 0 <= position < %d)", position, count));
+        }
+        final int res = getResolution(h3);
+        long child = setResolution(h3, childRes);
+        long remaining = position;
+        boolean pentagon = isPentagon(h3);
+        for (int r = res + 1; r <= childRes; ++r) {
+            // Below a pentagon, the center child is a pentagon and the k-axis child is deleted.
+            final long hexagons = hexagonChildren(childRes - r);
+            final int digit;
+            if (pentagon) {
+                final long centerCount = pentagonChildren(hexagons);
+                if (remaining < centerCount) {
+                    digit = 0;
+                } else {
+                    remaining -= centerCount;
+                    digit = K_AXES_DIGIT + 1 + (int) (remaining / hexagons);
+                    remaining %= hexagons;
+                    pentagon = false;
+                }
+            } else {
+                digit = (int) (remaining / hexagons);
+                remaining %= hexagons;
+            }
+            child = setDigit(child, r, digit);
+        }
+        return child;
+    }
+
+    /** Returns a range of the children of a cell, in increasing order, without generating the children before
+     *  it, so that the children of a large expansion can be split across rows.
+     *  @param h3 the cell.
+     *  @param childRes the child resolution.
+     *  @param offset the position of the first child, 0 or more.
+     *  @param limit the maximum number of children, 0 or more.
+     *  @return the children at positions offset to offset + limit, fewer past the last child.
+     *  @throws IllegalArgumentException when childRes is not a valid resolution, or offset or limit is negative.
+     *  @throws H3Exception when childRes is coarser than the resolution of h3.
+     */
+    static long[] cellToChildrenRange(long h3, int childRes, long offset, int limit) {
+        final long count = cellToChildrenCount(h3, childRes);
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException(
+                String.format("invalid child range: offset %d and limit %d must not be negative", offset, limit));
+        }
+        final long[] children = new long[(int) Math.max(0, Math.min(limit, count - offset))];
+        if (children.length == 0) {
+            return children;
+        }
+        final int res = getResolution(h3);
+        final boolean pentagon = isPentagon(h3);
+        children[0] = cellToChildAt(h3, childRes, offset);
+        for (int i = 1; i < children.length; ++i) {
+            children[i] = nextChild(children[i - 1], res, childRes, pentagon);
+        }
+        return children;
+    }
+
+    /** Returns the center children of a cell at the depth next resolutions.
+     *  @param h3 the cell.
+     *  @param depth the number of finer resolutions.
+     *  @return the center children, the element i being at resolution res + 1 + i.
+     *  @throws IllegalArgumentException when a resolution is out of range.
+     */
+    static long[] cellToCenterDescendants(long h3, int depth) {
+        final int res = getResolution(h3);
+        final long[] descendants = new long[Math.max(depth, 0)];
+        for (int i = 0; i < descendants.length; ++i) {
+            descendants[i] = cellToCenterChild(h3, res + 1 + i);
+        }
+        return descendants;
+    }
+
+    /** Checks a resolution argument the way H3Core does.
+     *  @param res the resolution.
+     *  @throws IllegalArgumentException when res is out of range.
+     */
+    static void checkResolution(int res) {
+        if (res < 0 || res > MAX_RES) {
+            throw new IllegalArgumentException(
+                String.format("resolution %d is out of range (must be 0 <= res <= 15)", res));
+        }
+    }
+
+    /** Writes the children of a cell by incrementing the digits of the center child like an odometer, skipping
+     *  the deleted k-axis subsequence below pentagons.
+     */
+    private static int writeChildren(long h3, int childRes, long[] children, int offset) {
+        final int res = getResolution(h3);
+        final int end = offset + cellToChildrenSize(h3, childRes);
+        final boolean pentagon = isPentagon(h3);
+        long child = setResolution(h3, childRes);
+        for (int r = res + 1; r <= childRes; ++r) {
+            child &= ~(DIGIT_MASK << digitOffset(r));
+        }
+        children[offset] = child;
+        for (int i = offset + 1; i < end; ++i) {
+            child = nextChild(child, res, childRes, pentagon);
+            children[i] = child;
+        }
+        return end;
+    }
+
+    private static long nextChild(long child, int res, int childRes, boolean pentagon) {
+        long next = child;
+        for (int r = childRes; r > res; --r) {
+            final int digit = getIndexDigit(next, r) + 1;
+            if (digit < CHILDREN) {
+                // Below a pentagon, the cells whose digits are all center digits then a k-axis digit are deleted.
+                final boolean deleted = digit == 1 && pentagon && hasCenterDigits(next, res + 1, r - 1);
+                return setDigit(next, r, deleted ? 2 : digit);
+            }
+            next = setDigit(next, r, 0);
+        }
+        throw new IllegalStateException("No child after " + Long.toHexString(child));
+    }
+
+    /** The number of descendants of a hexagon depth resolutions finer, 7 to the power depth. */
+    private static long hexagonChildren(int depth) {
+        long hexagons = 1;
+        for (int i = 0; i < depth; ++i) {
+            hexagons *= CHILDREN;
+        }
+        return hexagons;
+    }
+
+    /** The number of descendants of a pentagon at the resolution where a hexagon has a given number. */
+    private static long pentagonChildren(long hexagons) {
+        return 1 + 5 * (hexagons - 1) / 6;
+    }
+
+    private static boolean hasCenterDigits(long h3, int fromRes, int toRes) {
+        for (int r = fromRes; r <= toRes; ++r) {
+            if (getIndexDigit(h3, r) != 0) { return false; }
+        }
+        return true;
+    }
+
+    private static long setDigit(long h3, int res, int digit) {
+        final int offset = digitOffset(res);
+        return (h3 & ~(DIGIT_MASK << offset)) | ((long) digit << offset);
+    }
+
+    private static long parentUnchecked(long h3, int res, int parentRes) {
+        long parent = setResolution(h3, parentRes);
+        for (int r = parentRes + 1; r <= res; ++r) {
+            parent |= UNUSED_DIGIT << digitOffset(r);
+        }
+        return parent;
+    }
+
+    private static long setResolution(long h3, int res) {
+        return (h3 & ~RES_MASK) | ((long) res << RES_OFFSET);
+    }
+
+    private static int digitOffset(int res) {
+        return (MAX_RES - res) * DIGIT_BITS;
+    }
+}
@@ -0,0 +1,51 @@
+package com.aws.athena.udf.h3;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/** Read-only list view of a primitive long array, returned by the UDFs producing lists of cells.
+ *  The array is sized up front by the producer, and the list boxes an element only when it is read through get,
+ *  which the vectorized polygon functions avoid by writing its array straight into the Arrow list vector.
+ */
+final class LongArray extends AbstractList<Long> implements RandomAccess {
+
+    private final long[] values;
+
+    /** Creates a view.
+     *  @param values the array, not copied and not to be modified afterwards.
+     */
+    LongArray(long[] values) {
+        this.values = values;
+    }
+
+    /** Sorts an array and removes its duplicates, in place.
+     *  @param values the array, modified.
+     *  @return the distinct values in increasing order, values itself when there was no duplicate.
+     */
+    static long[] sortedDistinct(long[] values) {
+        Arrays.sort(values);
+        int size = 0;
+        for (int i = 0; i < values.length; ++i) {
+            if (size == 0 || values[i] != values[size - 1]) {
+                values[size++] = values[i];
+            }
+        }
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+
+    /** @return the array viewed, not to be modified. */
+    long[] array() {
+        return values;
+    }
+
+    @Override
+    public Long get(int index) {
+        return values[index];
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+}
@@ -0,0 +1,110 @@
+package com.aws.athena.udf.h3;
+
+import java.util.Arrays;
+
+/** Open-addressing hash map from primitive longs to non-negative ints, with linear probing.
+ *  Avoids boxing H3 indexes when counting or deduplicating the cells of a batch.
+ */
+final class LongIntHashMap {
+
+    /** The value returned for a missing key. */
+    static final int MISSING = -1;
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    /** Creates a map.
+     *  @param expectedSize the number of keys expected, to size the table without rehashing.
+     */
+    LongIntHashMap(int expectedSize) {
+        final int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, MISSING);
+        mask = capacity - 1;
+    }
+
+    /** Returns the value of a key.
+     *  @param key the key.
+     *  @return the value, or MISSING.
+     */
+    int get(long key) {
+        int slot = slot(key);
+        while (values[slot] != MISSING) {
+            if (keys[slot] == key) { return values[slot]; }
+            slot = (slot + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    /** Associates a value to a key unless the key already has one.
+     *  @param key the key.
+     *  @param value the value, not negative.
+     *  @return the existing value, or MISSING when value was inserted.
+     */
+    int putIfAbsent(long key, int value) {
+        int slot = slot(key);
+        while (values[slot] != MISSING) {
+            if (keys[slot] == key) { return values[slot]; }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > keys.length * LOAD_FACTOR) {
+            rehash();
+        }
+        return MISSING;
+    }
+
+    /** Sets the value of a key.
+     *  @param key the key.
+     *  @param value the value, not negative.
+     */
+    void put(long key, int value) {
+        int slot = slot(key);
+        while (values[slot] != MISSING) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > keys.length * LOAD_FACTOR) {
+            rehash();
+        }
+    }
+
+    /** @return the number of keys. */
+    int size() {
+        return size;
+    }
+
+    private int slot(long key) {
+        final long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void rehash() {
+        final long[] oldKeys = keys;
+        final int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        Arrays.fill(values, MISSING);
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; ++i) {
+            if (oldValues[i] == MISSING) { continue; }
+            int slot = slot(oldKeys[i]);
+            while (values[slot] != MISSING) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+}
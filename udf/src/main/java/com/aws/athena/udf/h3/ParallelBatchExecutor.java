@@ -0,0 +1,253 @@
+package com.aws.athena.udf.h3;
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.apache.arrow.vector.BaseFixedWidthVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+/** Evaluation of the rows of a batch on a pool of one worker per processor, for the UDFs costly enough per row.
+ *  A vectorized UDF with a fixed-width result writes straight into disjoint row ranges of the output vector, the
+ *  ranges being aligned to 64 rows so that no two workers write the same byte of a validity or bit buffer.
+ *  Other UDFs, with a list or string result or evaluated through reflection, are evaluated over chunks of the
+ *  batch copied into blocks of their own, whose results are copied back in order.
+ *  A UDF goes parallel from a minimum number of rows per batch, by name, and stays serial when it has none or
+ *  when its arguments are the same on every row.
+ */
+final class ParallelBatchExecutor {
+
+    /** The environment variable disabling the parallel evaluation when set to false. */
+    static final String ENABLED_VARIABLE = "H3_PARALLEL_BATCH";
+
+    /** The row ranges of the in-place evaluation start at multiples of this. */
+    static final int ROW_ALIGNMENT = 64;
+
+    /** The number of chunks per worker, so that chunks of uneven cost balance out. */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /** Functions filling, merging or tracing polygons: a few rows are worth a worker. */
+    private static final int POLYGON_MIN_ROWS = 16;
+
+    /** Functions returning a cell boundary or a set of cells. */
+    private static final int BOUNDARY_MIN_ROWS = 1024;
+
+    /** Single native calls per row, such as indexing a point or measuring a cell. */
+    private static final int NATIVE_MIN_ROWS = 8192;
+
+    /** The minimum rows per batch to go parallel of the UDFs that may, by name. */
+    static final Map<String, Integer> DEFAULT_MIN_ROWS = defaultMinRows();
+
+    private final int parallelism;
+    private final Map<String, Integer> minRows;
+    private volatile ForkJoinPool pool;
+
+    /** Creates an executor.
+     *  @param parallelism the number of worker threads, 1 to always evaluate serially.
+     *  @param minRows the minimum rows per batch to go parallel, by UDF name.
+     */
+    ParallelBatchExecutor(int parallelism, Map<String, Integer> minRows) {
+        this.parallelism = parallelism;
+        this.minRows = minRows;
+    }
+
+    /** Creates an executor with one worker per processor and the default thresholds, unless the
+     *  H3_PARALLEL_BATCH environment variable is false.
+     *  @return the executor.
+     */
+    static ParallelBatchExecutor fromEnvironment() {
+        final boolean enabled = !"false".equalsIgnoreCase(System.getenv(ENABLED_VARIABLE));
+        return new ParallelBatchExecutor(enabled ? Runtime.getRuntime().availableProcessors() : 1,
+                                         DEFAULT_MIN_ROWS);
+    }
+
+    /** Evaluates a batch, in parallel when the UDF is costly enough for its number of rows.
+     *  @param allocator the allocator of the blocks.
+     *  @param method the UDF method.
+     *  @param function the vectorized implementation of the UDF, or null.
+     *  @param inputRecords the input record batch, one column per UDF parameter.
+     *  @param outputSchema the schema of the output, a single column.
+     *  @param evaluator the serial evaluation of a batch by the UDF.
+     *  @return the block holding the result of each row.
+     *  @throws Exception when the UDF fails.
+     */
+    Block process(BlockAllocator allocator, Method method, VectorizedFunction function, Block inputRecords,
+                  Schema outputSchema, BatchMemo.BatchEvaluator evaluator) throws Exception {
+        final int rowCount = inputRecords.getRowCount();
+        final Integer methodMinRows = minRows.get(method.getName());
+        if (parallelism <= 1 || methodMinRows == null || rowCount < Math.max(2, methodMinRows)
+                || hasConstantArguments(inputRecords.getFieldVectors(), rowCount)) {
+            return evaluator.evaluate(inputRecords);
+        }
+
+        final int chunks = Math.min(parallelism * CHUNKS_PER_THREAD, rowCount);
+        final Block outputRecords = allocator.createBlock(outputSchema);
+        try {
+            final FieldVector result = outputRecords.getFieldVectors().get(0);
+            if (function != null && result instanceof BaseFixedWidthVector) {
+                ((BaseFixedWidthVector) result).allocateNew(rowCount);
+                final int chunkRows = align((rowCount + chunks - 1) / chunks);
+                final List<FieldVector> arguments = inputRecords.getFieldVectors();
+                final List<Callable<Void>> tasks = new ArrayList<>(chunks);
+                for (int from = 0; from < rowCount; from += chunkRows) {
+                    final int rangeFrom = from;
+                    final int rangeTo = Math.min(rowCount, from + chunkRows);
+                    tasks.add(() -> {
+                        function.apply(arguments, result, rangeFrom, rangeTo);
+                        return null;
+                    });
+                }
+                invokeAll(tasks);
+            } else {
+                evaluateChunks(allocator, inputRecords, result, chunks, evaluator);
+            }
+        } catch (Exception | Error e) {
+            outputRecords.close();
+            throw e;
+        }
+        outputRecords.setRowCount(rowCount);
+        return outputRecords;
+    }
+
+    /** Evaluates copies of chunks of the batch on the pool and copies their results into the output vector.
+     *  The copies and the results are closed as soon as merged, or when a chunk fails.
+     */
+    private void evaluateChunks(BlockAllocator allocator, Block inputRecords, FieldVector result, int chunks,
+                                BatchMemo.BatchEvaluator evaluator) throws Exception {
+        final int rowCount = inputRecords.getRowCount();
+        final int chunkRows = (rowCount + chunks - 1) / chunks;
+        final List<FieldVector> arguments = inputRecords.getFieldVectors();
+        final List<Block> chunkInputs = new ArrayList<>(chunks);
+        final Block[] chunkOutputs = new Block[(rowCount + chunkRows - 1) / chunkRows];
+        try {
+            final UdfEvents.BatchPhase splitEvent = new UdfEvents.BatchPhase();
+            splitEvent.begin();
+            final List<Callable<Void>> tasks = new ArrayList<>(chunks);
+            for (int from = 0; from < rowCount; from += chunkRows) {
+                final int length = Math.min(chunkRows, rowCount - from);
+                final Block chunkInput = allocator.createBlock(inputRecords.getSchema());
+                chunkInputs.add(chunkInput);
+                final List<FieldVector> chunkArguments = chunkInput.getFieldVectors();
+                for (int a = 0; a < arguments.size(); ++a) {
+                    final FieldVector source = arguments.get(a);
+                    final FieldVector target = chunkArguments.get(a);
+                    for (int k = 0; k < length; ++k) {
+                        target.copyFromSafe(from + k, k, source);
+                    }
+                }
+                chunkInput.setRowCount(length);
+                final int chunk = chunkInputs.size() - 1;
+                tasks.add(() -> {
+                    chunkOutputs[chunk] = evaluator.evaluate(chunkInput);
+                    return null;
+                });
+            }
+            splitEvent.commit("split", rowCount);
+
+            invokeAll(tasks);
+            final UdfEvents.BatchPhase mergeEvent = new UdfEvents.BatchPhase();
+            mergeEvent.begin();
+            int offset = 0;
+            for (int chunk = 0; chunk < chunkOutputs.length; ++chunk) {
+                try (Block output = chunkOutputs[chunk]) {
+                    chunkOutputs[chunk] = null;
+                    final FieldVector chunkResult = output.getFieldVectors().get(0);
+                    final int length = output.getRowCount();
+                    for (int k = 0; k < length; ++k) {
+                        result.copyFromSafe(k, offset + k, chunkResult);
+                    }
+                    offset += length;
+                }
+            }
+            mergeEvent.commit("merge", rowCount);
+        } finally {
+            for (final Block chunkInput : chunkInputs) {
+                chunkInput.close();
+            }
+            for (final Block chunkOutput : chunkOutputs) {
+                if (chunkOutput != null) {
+                    chunkOutput.close();
+                }
+            }
+        }
+    }
+
+    private <T> List<T> invokeAll(List<Callable<T>> tasks) throws Exception {
+        final List<T> results = new ArrayList<>(tasks.size());
+        try {
+            for (final Future<T> result : pool().invokeAll(tasks)) {
+                results.add(result.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted batch", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : new IllegalStateException(e.getCause());
+        }
+        return results;
+    }
+
+    /** Whether every argument column holds the same value on every row, as a polygon repeated on each row with
+     *  a literal resolution. The chunks would then all compute the same value at once, each missing the polygon
+     *  cache, where a serial evaluation computes it once and reads it back from the cache.
+     */
+    private static boolean hasConstantArguments(List<FieldVector> arguments, int rowCount) {
+        for (final FieldVector argument : arguments) {
+            if (!ConstantColumns.isConstant(argument, 0, rowCount)) { return false; }
+        }
+        return !arguments.isEmpty();
+    }
+
+    private static int align(int rows) {
+        return (rows + ROW_ALIGNMENT - 1) / ROW_ALIGNMENT * ROW_ALIGNMENT;
+    }
+
+    private ForkJoinPool pool() {
+        ForkJoinPool result = pool;
+        if (result == null) {
+            synchronized (this) {
+                if (pool == null) {
+                    pool = new ForkJoinPool(parallelism);
+                }
+                result = pool;
+            }
+        }
+        return result;
+    }
+
+    private static Map<String, Integer> defaultMinRows() {
+        final Map<String, Integer> minRows = new HashMap<>();
+        for (final String name : new String[] {
+                "polygon_to_cells", "polygon_to_cell_addresses", "polygon_to_cells_geojson",
+                "polygon_to_cell_addresses_geojson", "polygon_to_cells_compact", "polygon_to_cell_addresses_compact",
+                "try_polygon_to_cells", "try_polygon_to_cell_addresses", "cells_to_multi_polygon",
+                "cell_addresses_to_multi_polygon", "cells_to_multi_polygon_wkb", "cell_addresses_to_multi_polygon_wkb",
+                "lat_lng_to_cell_counts" }) {
+            minRows.put(name, POLYGON_MIN_ROWS);
+        }
+        for (final String name : new String[] {
+                "cell_to_polygon_wkt", "cell_to_polygon_wkb", "cell_to_boundary", "cell_to_boundary_sys",
+                "cell_to_boundary_wkt", "cell_to_boundary_wkb", "directed_edge_to_boundary",
+                "directed_edge_to_boundary_wkb", "grid_disk", "grid_ring_unsafe", "grid_path_cells",
+                "compact_cells", "compact_cell_addresses", "uncompact_cells", "uncompact_cell_addresses" }) {
+            minRows.put(name, BOUNDARY_MIN_ROWS);
+        }
+        for (final String name : new String[] {
+                "lat_lng_to_cell", "lat_lng_to_cell_address", "lat_lng_to_cells_multi", "try_lat_lng_to_cell",
+                "cell_to_lat_lng", "cell_to_lat_lng_wkt", "cell_to_lat_lng_wkb", "cell_area", "cell_edge_length",
+                "grid_distance", "cell_to_local_ij", "are_neighbor_cells" }) {
+            minRows.put(name, NATIVE_MIN_ROWS);
+        }
+        return Map.copyOf(minRows);
+    }
+}
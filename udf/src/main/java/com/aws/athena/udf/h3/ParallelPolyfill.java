@@ -0,0 +1,224 @@
+package com.aws.athena.udf.h3;
+
+import com.uber.h3core.AreaUnit;
+import com.uber.h3core.H3Core;
+import com.uber.h3core.util.LatLng;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+
+/** Polyfill of polygons and multipolygons, split into tiles filled on a fork-join pool when large.
+ *  A polygon whose bounding box is expected to hold at least minCells cells is clipped into vertical strips of
+ *  longitude that overlap by a small margin, and each strip is filled on its own. Every cell center inside the
+ *  polygon lies strictly inside at least one strip, so the union of the strips, sorted and deduplicated, is
+ *  exactly the polyfill of the whole polygon. The members of a multipolygon are tasks of their own.
+ *  Polygons wider than 180 degrees of longitude are left to H3, which takes them as crossing the antimeridian.
+ *  Polygons are filled serially on a worker of a fork-join pool, such as a chunk of a batch evaluated by the
+ *  ParallelBatchExecutor, so that the two pools do not nest: the batch already keeps every processor busy, and
+ *  nested fills would hold one large polygon per batch worker in memory at once.
+ */
+final class ParallelPolyfill {
+
+    /** The environment variable holding the minimum expected number of cells of a polygon to split it. */
+    static final String MIN_CELLS_VARIABLE = "H3_PARALLEL_POLYFILL_MIN_CELLS";
+
+    /** The default minimum expected number of cells of a polygon to split it. */
+    static final long DEFAULT_MIN_CELLS = 200_000;
+
+    /** The number of strips per worker, so that strips of uneven density balance out. */
+    private static final int STRIPS_PER_THREAD = 4;
+
+    /** The overlap of neighbouring strips, in degrees, about 10 cm. */
+    private static final double STRIP_MARGIN = 1e-6;
+
+    private static final double KM_PER_DEGREE = 111.195;
+
+    private final H3Core h3Core;
+    private final long minCells;
+    private final int parallelism;
+    private volatile ForkJoinPool pool;
+
+    /** Creates a polyfill.
+     *  @param h3Core the H3 library.
+     *  @param minCells the minimum expected number of cells of a polygon to split it.
+     *  @param parallelism the number of worker threads, 1 to always fill serially.
+     */
+    ParallelPolyfill(H3Core h3Core, long minCells, int parallelism) {
+        this.h3Core = h3Core;
+        this.minCells = minCells;
+        this.parallelism = parallelism;
+    }
+
+    /** Creates a polyfill with one worker per processor, splitting polygons from the number of cells of the
+     *  H3_PARALLEL_POLYFILL_MIN_CELLS environment variable, or DEFAULT_MIN_CELLS.
+     *  @param h3Core the H3 library.
+     *  @return the polyfill.
+     *  @throws NumberFormatException when the variable is not a number.
+     */
+    static ParallelPolyfill fromEnvironment(H3Core h3Core) {
+        final String minCells = System.getenv(MIN_CELLS_VARIABLE);
+        return new ParallelPolyfill(h3Core,
+                                    minCells == null ? DEFAULT_MIN_CELLS : Long.parseLong(minCells.trim()),
+                                    Runtime.getRuntime().availableProcessors());
+    }
+
+    /** Finds the cells whose center is inside any of the polygons.
+     *  @param polygons the polygons, each a list of rings, the first one being the exterior.
+     *  @param res the resolution.
+     *  @return the cells, in increasing order without duplicates however the polygons were filled.
+     */
+    long[] polygonsToCells(List<List<List<LatLng>>> polygons, int res) {
+        final boolean parallel = parallelism > 1 && !ForkJoinTask.inForkJoinPool();
+        final List<Callable<long[]>> tasks = new ArrayList<>();
+        long estimatedCells = 0;
+        for (final List<List<LatLng>> polygon : polygons) {
+            estimatedCells += addTasks(tasks, polygon, res, parallel);
+        }
+        if (tasks.size() == 1) {
+            return LongArray.sortedDistinct(call(tasks.get(0)));
+        }
+
+        final List<long[]> results = new ArrayList<>(tasks.size());
+        if (parallel && estimatedCells >= minCells) {
+            try {
+                for (final Future<long[]> result : pool().invokeAll(tasks)) {
+                    results.add(result.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted polyfill", e);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+                    : new IllegalStateException(e.getCause());
+            }
+        } else {
+            for (final Callable<long[]> task : tasks) {
+                results.add(call(task));
+            }
+        }
+
+        int size = 0;
+        for (final long[] result : results) {
+            size += result.length;
+        }
+        final long[] cells = new long[size];
+        int offset = 0;
+        for (final long[] result : results) {
+            System.arraycopy(result, 0, cells, offset, result.length);
+            offset += result.length;
+        }
+        return LongArray.sortedDistinct(cells);
+    }
+
+    /** Adds the task filling a polygon, or one task per strip when the polygon is large and filled in parallel.
+     *  @return the expected number of cells of the polygon, from its bounding box.
+     */
+    private long addTasks(List<Callable<long[]>> tasks, List<List<LatLng>> polygon, int res, boolean parallel) {
+        final List<LatLng> exterior = polygon.get(0);
+        double minLat = Double.POSITIVE_INFINITY, maxLat = Double.NEGATIVE_INFINITY;
+        double minLng = Double.POSITIVE_INFINITY, maxLng = Double.NEGATIVE_INFINITY;
+        for (final LatLng point : exterior) {
+            minLat = Math.min(minLat, point.lat);
+            maxLat = Math.max(maxLat, point.lat);
+            minLng = Math.min(minLng, point.lng);
+            maxLng = Math.max(maxLng, point.lng);
+        }
+
+        final long estimatedCells = estimateCells(minLat, maxLat, minLng, maxLng, res);
+        final int strips = parallel && maxLng - minLng <= 180.0 && estimatedCells >= minCells
+            ? parallelism * STRIPS_PER_THREAD : 1;
+        if (strips == 1) {
+            tasks.add(() -> fill(exterior, polygon.subList(1, polygon.size()), res));
+            return estimatedCells;
+        }
+
+        final double width = (maxLng - minLng) / strips;
+        for (int s = 0; s < strips; ++s) {
+            final double from = minLng + s * width - STRIP_MARGIN;
+            final double to = s == strips - 1 ? maxLng + STRIP_MARGIN : minLng + (s + 1) * width + STRIP_MARGIN;
+            tasks.add(() -> {
+                final List<LatLng> clippedExterior = clip(exterior, from, to);
+                if (clippedExterior.size() < 3) { return new long[0]; }
+                final List<List<LatLng>> clippedHoles = new ArrayList<>(polygon.size() - 1);
+                for (final List<LatLng> hole : polygon.subList(1, polygon.size())) {
+                    final List<LatLng> clippedHole = clip(hole, from, to);
+                    if (clippedHole.size() >= 3) {
+                        clippedHoles.add(clippedHole);
+                    }
+                }
+                return fill(clippedExterior, clippedHoles, res);
+            });
+        }
+        return estimatedCells;
+    }
+
+    private long estimateCells(double minLat, double maxLat, double minLng, double maxLng, int res) {
+        final double heightKm = (maxLat - minLat) * KM_PER_DEGREE;
+        final double widthKm = (maxLng - minLng) * KM_PER_DEGREE * Math.cos(Math.toRadians((minLat + maxLat) / 2));
+        return (long) (heightKm * Math.abs(widthKm) / h3Core.getHexagonAreaAvg(res, AreaUnit.km2));
+    }
+
+    private long[] fill(List<LatLng> exterior, List<List<LatLng>> holes, int res) {
+        final List<Long> cells = h3Core.polygonToCells(exterior, holes, res);
+        final long[] result = new long[cells.size()];
+        int i = 0;
+        for (final long cell : cells) {
+            result[i++] = cell;
+        }
+        return result;
+    }
+
+    /** Clips a ring to the longitudes from from to to, Sutherland-Hodgman style, the strip being convex.
+     *  Parts of the ring outside the strip collapse onto its sides, which does not change which points strictly
+     *  inside the strip are inside the ring.
+     */
+    static List<LatLng> clip(List<LatLng> ring, double from, double to) {
+        return clipSide(clipSide(ring, from, true), to, false);
+    }
+
+    private static List<LatLng> clipSide(List<LatLng> ring, double lng, boolean keepEast) {
+        final List<LatLng> clipped = new ArrayList<>(ring.size() + 4);
+        for (int i = 0; i < ring.size(); ++i) {
+            final LatLng current = ring.get(i);
+            final LatLng previous = ring.get(i == 0 ? ring.size() - 1 : i - 1);
+            final boolean currentInside = keepEast ? current.lng >= lng : current.lng <= lng;
+            final boolean previousInside = keepEast ? previous.lng >= lng : previous.lng <= lng;
+            if (currentInside != previousInside) {
+                final double t = (lng - previous.lng) / (current.lng - previous.lng);
+                clipped.add(new LatLng(previous.lat + t * (current.lat - previous.lat), lng));
+            }
+            if (currentInside) {
+                clipped.add(current);
+            }
+        }
+        return clipped;
+    }
+
+    private ForkJoinPool pool() {
+        ForkJoinPool result = pool;
+        if (result == null) {
+            synchronized (this) {
+                if (pool == null) {
+                    pool = new ForkJoinPool(parallelism);
+                }
+                result = pool;
+            }
+        }
+        return result;
+    }
+
+    private static long[] call(Callable<long[]> task) {
+        try {
+            return task.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
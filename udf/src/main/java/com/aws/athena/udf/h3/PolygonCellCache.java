@@ -0,0 +1,181 @@
+package com.aws.athena.udf.h3;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** Bounded LRU cache of polyfill results, keyed by polygon WKT, resolution and reader.
+ *  Queries typically pass the same WKT literal to polygon_to_cells on every row, so within a warm Lambda
+ *  container the parse and the polyfill of a polygon are done once. The cache is bounded by the estimated
+ *  size in bytes of its entries rather than by their number, as a single polygon can hold millions of cells.
+ */
+final class PolygonCellCache {
+
+    /** The environment variable overriding the maximum size of the cache, in bytes. 0 disables the cache. */
+    static final String MAX_BYTES_VARIABLE = "H3_POLYGON_CACHE_MAX_BYTES";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PolygonCellCache.class);
+
+    /** Estimated overhead of an entry: key, map node, array headers. */
+    private static final long ENTRY_OVERHEAD_BYTES = 128;
+
+    /** Key of a polyfill: the WKT hash is cached by String, equality falls back to the full text. The polygons
+     *  read by the strict reader of the try_ UDFs are kept apart, as it rejects texts the complete reader accepts.
+     */
+    private static final class Key {
+        private final String wkt;
+        private final int res;
+        private final boolean strict;
+
+        Key(String wkt, int res, boolean strict) {
+            this.wkt = wkt;
+            this.res = res;
+            this.strict = strict;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) { return false; }
+            final Key key = (Key) other;
+            return res == key.res && strict == key.strict && wkt.equals(key.wkt);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(wkt, res, strict);
+        }
+    }
+
+    private final long maxBytes;
+    private final Map<Key, long[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long sizeInBytes;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /** Creates a cache.
+     *  @param maxBytes the maximum estimated size of the cached cells, in bytes.
+     */
+    PolygonCellCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /** Creates a cache sized by the H3_POLYGON_CACHE_MAX_BYTES environment variable, defaulting to an eighth of
+     *  the maximum heap.
+     *  @return the cache.
+     */
+    static PolygonCellCache fromEnvironment() {
+        final String maxBytes = System.getenv(MAX_BYTES_VARIABLE);
+        return new PolygonCellCache(maxBytes == null ? Runtime.getRuntime().maxMemory() / 8 : Long.parseLong(maxBytes));
+    }
+
+    /** Returns the cells of a polygon at a resolution.
+     *  @param wkt the polygon WKT.
+     *  @param res the resolution.
+     *  @return the cached cells, which must not be modified, or null on a miss.
+     */
+    long[] get(String wkt, int res) {
+        return get(wkt, res, false);
+    }
+
+    /** Returns the cells of a polygon at a resolution, as read by the complete or the strict reader.
+     *  @param wkt the polygon WKT.
+     *  @param res the resolution.
+     *  @param strict whether the polygon is read by the strict reader of the try_ UDFs.
+     *  @return the cached cells, which must not be modified, or null on a miss.
+     */
+    synchronized long[] get(String wkt, int res, boolean strict) {
+        final long[] cells = entries.get(new Key(wkt, res, strict));
+        if (cells == null) {
+            ++missCount;
+        } else {
+            ++hitCount;
+        }
+        return cells;
+    }
+
+    /** Caches the cells of a polygon at a resolution, evicting the least recently used polygons if needed.
+     *  Polygons too large for the cache are not cached.
+     *  @param wkt the polygon WKT.
+     *  @param res the resolution.
+     *  @param cells the cells, which must not be modified afterwards.
+     */
+    void put(String wkt, int res, long[] cells) {
+        put(wkt, res, false, cells);
+    }
+
+    /** Caches the cells of a polygon at a resolution, as read by the complete or the strict reader.
+     *  @param wkt the polygon WKT.
+     *  @param res the resolution.
+     *  @param strict whether the polygon is read by the strict reader of the try_ UDFs.
+     *  @param cells the cells, which must not be modified afterwards.
+     */
+    synchronized void put(String wkt, int res, boolean strict, long[] cells) {
+        final long entryBytes = entrySize(wkt, cells);
+        if (entryBytes > maxBytes) { return; }
+
+        final long[] previous = entries.put(new Key(wkt, res, strict), cells);
+        sizeInBytes += entryBytes - (previous == null ? 0 : entrySize(wkt, previous));
+
+        final Iterator<Map.Entry<Key, long[]>> eldest = entries.entrySet().iterator();
+        long evicted = 0;
+        while (sizeInBytes > maxBytes && eldest.hasNext()) {
+            final Map.Entry<Key, long[]> entry = eldest.next();
+            sizeInBytes -= entrySize(entry.getKey().wkt, entry.getValue());
+            eldest.remove();
+            ++evicted;
+        }
+        if (evicted > 0) {
+            evictionCount += evicted;
+            LOGGER.info("Evicted {} polygons from the polygon cell cache: {}", evicted, this);
+        }
+    }
+
+    /** Removes every polygon and resets the counters. */
+    synchronized void clear() {
+        entries.clear();
+        sizeInBytes = 0;
+        hitCount = 0;
+        missCount = 0;
+        evictionCount = 0;
+    }
+
+    /** @return the number of lookups that found the polygon. */
+    synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /** @return the number of lookups that did not find the polygon. */
+    synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /** @return the number of polygons evicted to make room for others. */
+    synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /** @return the estimated size of the cached polygons, in bytes. */
+    synchronized long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    /** @return the number of cached polygons. */
+    synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("hits=%d, misses=%d, evictions=%d, entries=%d, bytes=%d/%d",
+                             hitCount, missCount, evictionCount, entries.size(), sizeInBytes, maxBytes);
+    }
+
+    private static long entrySize(String wkt, long[] cells) {
+        return ENTRY_OVERHEAD_BYTES + 2L * wkt.length() + (long) Long.BYTES * cells.length;
+    }
+}
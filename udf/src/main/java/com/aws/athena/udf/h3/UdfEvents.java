@@ -0,0 +1,113 @@
+package com.aws.athena.udf.h3;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Java Flight Recorder events of the UDF hot paths, for attributing the time of a recording to the batches,
+ *  their phases and the polygon functions. They are disabled by default, so that an event costs a check of a
+ *  flag, and are enabled by the settings in benchmarks/h3-udf.jfc. An event is filled and committed only when
+ *  shouldCommit, after end, says it is enabled and above its threshold.
+ */
+final class UdfEvents {
+
+    private static final String CATEGORY = "H3 UDF";
+
+    private UdfEvents() {
+    }
+
+    @Name("com.aws.athena.udf.h3.Batch")
+    @Label("UDF Batch")
+    @Description("Evaluation of a record batch by a UDF")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    static final class Batch extends Event {
+        @Label("Function")
+        String function;
+
+        @Label("Rows")
+        int rows;
+
+        @Label("Vectorized")
+        boolean vectorized;
+    }
+
+    @Name("com.aws.athena.udf.h3.BatchPhase")
+    @Label("UDF Batch Phase")
+    @Description("Copy of rows around the evaluation of a batch, such as its deduplication or its split across workers")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    static final class BatchPhase extends Event {
+        @Label("Phase")
+        String phase;
+
+        @Label("Rows")
+        int rows;
+
+        /** Ends the phase and commits it when enabled.
+         *  @param phaseName the name of the phase.
+         *  @param rowCount the number of rows copied.
+         */
+        void commit(String phaseName, int rowCount) {
+            end();
+            if (shouldCommit()) {
+                phase = phaseName;
+                rows = rowCount;
+                commit();
+            }
+        }
+    }
+
+    @Name("com.aws.athena.udf.h3.PolygonRead")
+    @Label("Polygon Read")
+    @Description("Parsing of the WKT, WKB or GeoJSON polygons of a polygon_to_cells cache miss")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    static final class PolygonRead extends Event {
+        @Label("Size")
+        @DataAmount
+        int size;
+
+        @Label("Polygons")
+        int polygons;
+    }
+
+    @Name("com.aws.athena.udf.h3.Polyfill")
+    @Label("Polyfill")
+    @Description("Filling of the polygons of a polygon_to_cells cache miss with cells")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    static final class Polyfill extends Event {
+        @Label("Resolution")
+        int res;
+
+        @Label("Polygons")
+        int polygons;
+
+        @Label("Cells")
+        int cells;
+    }
+
+    @Name("com.aws.athena.udf.h3.MultiPolygon")
+    @Label("Multipolygon")
+    @Description("Tracing of the outline of a set of cells")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    static final class MultiPolygon extends Event {
+        @Label("Cells")
+        int cells;
+
+        @Label("Polygons")
+        int polygons;
+    }
+}
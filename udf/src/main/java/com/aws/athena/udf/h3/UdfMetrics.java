@@ -0,0 +1,172 @@
+package com.aws.athena.udf.h3;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+
+/** Metrics of the record batches evaluated by each UDF: rows, failures, bytes returned and time. Each batch,
+ *  which is one Lambda invocation, is written to standard output, which Lambda sends to the log group of the
+ *  function, as one line in the CloudWatch embedded metric format, so that CloudWatch extracts it as a sample of
+ *  the metrics of the H3AthenaUDF namespace with a Function dimension. The batch time is the raw value of the
+ *  batch, so that CloudWatch computes its percentiles across invocations, and its sample count is the number
+ *  of batches. The lookups, evictions and size of the polygon cell cache since the previous batch follow on a
+ *  line of their own, with a Cache dimension, when the cache was looked up.
+ */
+final class UdfMetrics {
+
+    /** The environment variable disabling the metrics when set to false. */
+    static final String ENABLED_VARIABLE = "H3_METRICS";
+
+    /** The CloudWatch namespace of the metrics. */
+    static final String NAMESPACE = "H3AthenaUDF";
+
+    /** The dimension holding the UDF name. */
+    static final String FUNCTION = "Function";
+
+    /** The dimension holding the cache name. */
+    static final String CACHE = "Cache";
+
+    /** The value of the cache dimension for the polygon cell cache. */
+    static final String POLYGON_CELL_CACHE = "PolygonCells";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final String COUNT = "Count";
+    private static final String BYTES = "Bytes";
+    private static final String MILLISECONDS = "Milliseconds";
+    private static final String[][] METRICS = {
+        { "Rows", COUNT }, { "Exceptions", COUNT }, { "BytesReturned", BYTES }, { "BatchTime", MILLISECONDS } };
+    private static final String[][] CACHE_METRICS = {
+        { "CacheHits", COUNT }, { "CacheMisses", COUNT }, { "CacheEvictions", COUNT }, { "CacheEntries", COUNT },
+        { "CacheBytes", BYTES } };
+
+    private final boolean enabled;
+    private final PrintStream out;
+    private final PolygonCellCache polygonCellCache;
+    private long lastCacheHits;
+    private long lastCacheMisses;
+    private long lastCacheEvictions;
+
+    /** Creates metrics.
+     *  @param enabled whether to record batches.
+     *  @param polygonCellCache the polygon cell cache whose counters are written with those of the UDFs.
+     *  @param out the stream the lines are written to.
+     */
+    UdfMetrics(boolean enabled, PolygonCellCache polygonCellCache, PrintStream out) {
+        this.enabled = enabled;
+        this.polygonCellCache = polygonCellCache;
+        this.out = out;
+    }
+
+    /** Creates metrics written to standard output after every batch, unless the H3_METRICS environment variable
+     *  is false.
+     *  @param polygonCellCache the polygon cell cache whose counters are written with those of the UDFs.
+     *  @return the metrics.
+     */
+    static UdfMetrics fromEnvironment(PolygonCellCache polygonCellCache) {
+        return new UdfMetrics(!"false".equalsIgnoreCase(System.getenv(ENABLED_VARIABLE)), polygonCellCache,
+                              System.out);
+    }
+
+    /** @return whether batches are recorded. */
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Writes the metrics of a batch, followed by the counters of the polygon cell cache.
+     *  @param function the UDF name.
+     *  @param rows the number of rows of the batch.
+     *  @param nanos the time taken to evaluate the batch.
+     *  @param bytes the size of the output buffers, or -1 when the UDF failed.
+     */
+    synchronized void record(String function, int rows, long nanos, long bytes) {
+        final long timestamp = System.currentTimeMillis();
+        out.println(toEmf(timestamp, function, rows, nanos, bytes));
+        if (polygonCellCache != null) {
+            writeCache(timestamp);
+        }
+    }
+
+    /** Writes the lookups and evictions of the polygon cell cache since the previous batch, with its current size.
+     *  The counters of the cache are cumulative, and restart from 0 when it is cleared.
+     */
+    private void writeCache(long timestamp) {
+        final long hits = polygonCellCache.getHitCount();
+        final long misses = polygonCellCache.getMissCount();
+        final long evictions = polygonCellCache.getEvictionCount();
+        final long newHits = since(hits, lastCacheHits);
+        final long newMisses = since(misses, lastCacheMisses);
+        if (newHits + newMisses > 0) {
+            final StringWriter line = new StringWriter();
+            try (JsonGenerator json = JSON_FACTORY.createGenerator(line)) {
+                writeDirective(json, timestamp, CACHE, CACHE_METRICS);
+                json.writeStringField(CACHE, POLYGON_CELL_CACHE);
+                json.writeNumberField("CacheHits", newHits);
+                json.writeNumberField("CacheMisses", newMisses);
+                json.writeNumberField("CacheEvictions", since(evictions, lastCacheEvictions));
+                json.writeNumberField("CacheEntries", polygonCellCache.size());
+                json.writeNumberField("CacheBytes", polygonCellCache.getSizeInBytes());
+                json.writeEndObject();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            out.println(line);
+        }
+        lastCacheHits = hits;
+        lastCacheMisses = misses;
+        lastCacheEvictions = evictions;
+    }
+
+    private static long since(long count, long lastCount) {
+        return count >= lastCount ? count - lastCount : count;
+    }
+
+    /** Formats the metrics of a batch as an embedded metric format object. */
+    private static String toEmf(long timestamp, String function, int rows, long nanos, long bytes) {
+        final StringWriter line = new StringWriter();
+        try (JsonGenerator json = JSON_FACTORY.createGenerator(line)) {
+            writeDirective(json, timestamp, FUNCTION, METRICS);
+
+            json.writeStringField(FUNCTION, function);
+            json.writeNumberField("Rows", rows);
+            json.writeNumberField("Exceptions", bytes < 0 ? 1 : 0);
+            json.writeNumberField("BytesReturned", Math.max(0, bytes));
+            json.writeNumberField("BatchTime", nanos / 1e6);
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return line.toString();
+    }
+
+    /** Starts an embedded metric format object with the metadata declaring its metrics under one dimension. */
+    private static void writeDirective(JsonGenerator json, long timestamp, String dimension, String[][] metrics)
+            throws IOException {
+        json.writeStartObject();
+        json.writeObjectFieldStart("_aws");
+        json.writeNumberField("Timestamp", timestamp);
+        json.writeArrayFieldStart("CloudWatchMetrics");
+        json.writeStartObject();
+        json.writeStringField("Namespace", NAMESPACE);
+        json.writeArrayFieldStart("Dimensions");
+        json.writeStartArray();
+        json.writeString(dimension);
+        json.writeEndArray();
+        json.writeEndArray();
+        json.writeArrayFieldStart("Metrics");
+        for (final String[] metric : metrics) {
+            json.writeStartObject();
+            json.writeStringField("Name", metric[0]);
+            json.writeStringField("Unit", metric[1]);
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+}
@@ -0,0 +1,20 @@
+package com.aws.athena.udf.h3;
+
+import java.util.List;
+
+import org.apache.arrow.vector.FieldVector;
+
+/** A UDF implementation evaluated directly on the Arrow vectors of a record batch,
+ *  without per-row reflection or boxing of the arguments.
+ */
+@FunctionalInterface
+interface VectorizedFunction {
+
+    /** Evaluates the function for rows from (inclusive) to to (exclusive) of a record batch.
+     *  @param arguments the input vectors, in the order of the UDF parameters.
+     *  @param result the output vector, already allocated for the whole batch.
+     *  @param from the first row to evaluate.
+     *  @param to the row after the last row to evaluate.
+     */
+    void apply(List<FieldVector> arguments, FieldVector result, int from, int to);
+}
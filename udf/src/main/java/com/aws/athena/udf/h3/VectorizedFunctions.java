@@ -0,0 +1,591 @@
+package com.aws.athena.udf.h3;
+
+import com.uber.h3core.AreaUnit;
+import com.uber.h3core.H3Core;
+import com.uber.h3core.LengthUnit;
+import com.uber.h3core.util.LatLng;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.function.LongToIntFunction;
+import java.util.function.LongUnaryOperator;
+
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarBinaryVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.complex.ListVector;
+import org.apache.arrow.vector.complex.StructVector;
+
+/** Registry of the UDFs that have a vectorized implementation, keyed by the handler method they replace.
+ *  Functions missing from the registry are evaluated row by row through reflection.
+ */
+final class VectorizedFunctions {
+
+    /** A function of a cell and a resolution returning a cell. */
+    @FunctionalInterface
+    private interface CellResToCellFunction {
+        long apply(long h3, int res);
+    }
+
+    /** A string argument, such as a unit or a separator, resolved to the value it stands for. When the column is
+     *  constant over the batch, it is resolved and validated at its first non-null row only, so that the loop
+     *  over the other columns does no string work; otherwise it is resolved row by row.
+     */
+    private static final class StringArgument<T> {
+        private final VarCharVector vector;
+        private final Function<String, T> resolver;
+        private final boolean constant;
+        private T value;
+
+        StringArgument(VarCharVector vector, int from, int to, Function<String, T> resolver) {
+            this.vector = vector;
+            this.resolver = resolver;
+            this.constant = ConstantColumns.isConstant(vector, from, to);
+        }
+
+        /** @return the value of the argument at a row, which must not be null. */
+        T get(int index) {
+            if (value == null || !constant) {
+                value = resolver.apply(vector.getObject(index).toString());
+            }
+            return value;
+        }
+    }
+
+    /** A function of a cell and an integer returning cells, or null. */
+    @FunctionalInterface
+    private interface CellIntToCellsFunction {
+        long[] apply(long h3, int value);
+    }
+
+    /** A polygon UDF of the handler, returning its cells as a LongArray, or null. */
+    @FunctionalInterface
+    private interface PolygonToCellsFunction<T> {
+        List<Long> apply(T polygon, Integer res) throws IOException;
+    }
+
+    private final H3Core h3Core;
+    private final Map<Method, VectorizedFunction> functions = new HashMap<>();
+    private final Set<Method> pureJavaFunctions = new HashSet<>();
+
+    VectorizedFunctions(H3Core h3Core, CellCountLimit cellCountLimit) {
+        this.h3Core = h3Core;
+
+        register(this::latLngToCell, "lat_lng_to_cell", Double.class, Double.class, Integer.class);
+        register(this::latLngToCellAddress, "lat_lng_to_cell_address", Double.class, Double.class, Integer.class);
+        registerPureJava(VectorizedFunctions::stringToH3, "string_to_h3", String.class);
+        registerPureJava(VectorizedFunctions::h3ToString, "h3_to_string", Long.class);
+        registerPureJava(VectorizedFunctions::getResolutionOfAddress, "get_resolution", String.class);
+        registerPureJava(VectorizedFunctions::cellToParentAddress, "cell_to_parent", String.class, Integer.class);
+        registerPureJava(cellToInt(H3Index::getResolution), "get_resolution", Long.class);
+        registerPureJava(cellToInt(H3Index::getBaseCellNumber), "get_base_cell_number", Long.class);
+        register(cellToBoolean(h3Core::isValidCell), "is_valid_cell", Long.class);
+        register(cellToBoolean(h3Core::isPentagon), "is_pentagon", Long.class);
+        registerPureJava(cellToBoolean(H3Index::isResClassIII), "is_res_class_iii", Long.class);
+        registerPureJava(cellToCell(h -> H3Index.cellToParent(h, H3Index.getResolution(h) - 1)), "cell_to_parent",
+                         Long.class);
+        registerPureJava(cellToCell(h -> H3Index.cellToParent(h, H3Index.getResolution(h) - 1)), "cell_direct_parent",
+                         Long.class);
+        registerPureJava(cellResToCell(H3Index::cellToParent), "cell_to_parent", Long.class, Integer.class);
+        registerPureJava(cellResToCell(H3Index::cellToCenterChild), "cell_to_center_child",
+                         Long.class, Integer.class);
+        registerPureJava(VectorizedFunctions::cellToParents, "cell_to_parents", Long.class);
+        registerPureJava(cellIntToCells(cellCountLimit::cellToChildren), "cell_to_children", Long.class, Integer.class);
+        registerPureJava(cellIntToCells((h, depth) -> depth <= 0 ? null : cellCountLimit.cellToDescendants(h, depth)),
+                         "cell_to_descendants", Long.class, Integer.class);
+        registerPureJava(cellIntToCells(H3Index::cellToCenterDescendants), "cell_to_center_descendants",
+                         Long.class, Integer.class);
+        register(this::areNeighborCells, "are_neighbor_cells", Long.class, Long.class);
+        register(this::cellArea, "cell_area", Long.class, String.class);
+        register(this::cellEdgeLength, "cell_edge_length", Long.class, String.class);
+        register(this::hexagonEdgeLengthAvg, "get_hexagon_edge_length_avg", Integer.class, String.class);
+        register(this::cellToBoundarySys, "cell_to_boundary_sys", Long.class, String.class);
+        register(this::cellToBoundary, "cell_to_boundary", Long.class, String.class);
+        register(this::latLngToCellsMulti, "lat_lng_to_cells_multi",
+                 Double.class, Double.class, Integer.class, Integer.class);
+        register(this::latLngToCellCounts, "lat_lng_to_cell_counts", List.class, List.class, Integer.class);
+        register(this::tryLatLngToCell, "try_lat_lng_to_cell", Double.class, Double.class, Integer.class);
+        registerPureJava(VectorizedFunctions::tryStringToH3, "try_string_to_h3", String.class);
+        registerPureJava(VectorizedFunctions::tryCellToParent, "try_cell_to_parent", Long.class, Integer.class);
+        registerPureJava(VectorizedFunctions::tryCellToParentAddress, "try_cell_to_parent",
+                         String.class, Integer.class);
+    }
+
+    /** Registers the polygon filling UDFs of a handler, which go through its polygon cell cache. Their cells are
+     *  written from the array of the LongArray the handler returns, as BIGINT or straight as address bytes,
+     *  without boxing a cell or creating an address string.
+     *  @param handler the handler.
+     */
+    void registerPolygonFunctions(H3AthenaHandler handler) {
+        registerPolygonCells(handler::polygon_to_cells, "polygon_to_cells", "polygon_to_cell_addresses",
+                             String.class);
+        registerPolygonCells(handler::polygon_to_cells, "polygon_to_cells", "polygon_to_cell_addresses",
+                             byte[].class);
+        registerPolygonCells(handler::polygon_to_cells_geojson, "polygon_to_cells_geojson",
+                             "polygon_to_cell_addresses_geojson", String.class);
+        registerPolygonCells(handler::polygon_to_cells_compact, "polygon_to_cells_compact",
+                             "polygon_to_cell_addresses_compact", String.class);
+        registerPolygonCells(handler::try_polygon_to_cells, "try_polygon_to_cells", "try_polygon_to_cell_addresses",
+                             String.class);
+    }
+
+    /** Registers a polygon UDF and its address variant, from a WKT or GeoJSON text or a WKB. */
+    private <T> void registerPolygonCells(PolygonToCellsFunction<T> function, String name, String addressName,
+                                          Class<T> polygonType) {
+        register(polygonToCells(function, false), name, polygonType, Integer.class);
+        register(polygonToCells(function, true), addressName, polygonType, Integer.class);
+    }
+
+    /** Returns the vectorized implementation of a handler method.
+     *  @param method the UDF method resolved by the handler.
+     *  @return the vectorized implementation, or null when the method is only available row by row.
+     */
+    VectorizedFunction get(Method method) {
+        return functions.get(method);
+    }
+
+    /** Returns whether the vectorized implementation of a handler method runs in pure Java, without the native
+     *  library, so cheaply that evaluating it once per distinct argument does not pay off.
+     *  @param method the UDF method resolved by the handler.
+     *  @return true for the bit manipulation and address functions.
+     */
+    boolean isPureJava(Method method) {
+        return pureJavaFunctions.contains(method);
+    }
+
+    private void registerPureJava(VectorizedFunction function, String name, Class<?>... parameterTypes) {
+        pureJavaFunctions.add(register(function, name, parameterTypes));
+    }
+
+    private Method register(VectorizedFunction function, String name, Class<?>... parameterTypes) {
+        try {
+            final Method method = H3AthenaHandler.class.getMethod(name, parameterTypes);
+            functions.put(method, function);
+            return method;
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("No UDF method " + name + " to vectorize", e);
+        }
+    }
+
+    private void latLngToCell(List<FieldVector> arguments, FieldVector result, int from, int to) {
+        final Float8Vector lat = (Float8Vector) arguments.get(0);
+        final Float8Vector lng = (Float8Vector) arguments.get(1);
+        final IntVector res = (IntVector) arguments.get(2);
+        final BigIntVector out = (BigIntVector) result;
+        for (int i = from; i < to; ++i) {
+            if (lat.isNull(i) || lng.isNull(i) || res.isNull(i)) { continue; }
+            out.set(i, h3Core.latLngToCell(lat.get(i), lng.get(i), res.get(i)));
+        }
+    }
+
+    private void latLngToCellAddress(List<FieldVector> arguments, FieldVector result, int from, int to) {
+        final Float8Vector lat = (Float8Vector) arguments.get(0);
+        final Float8Vector lng = (Float8Vector) arguments.get(1);
+        final IntVector res = (IntVector) arguments.get(2);
+        final VarCharVector out = (VarCharVector) result;
+        final byte[] buffer = new byte[H3AddressCodec.MAX_LENGTH];
+        for (int i = from; i < to; ++i) {
+            if (lat.isNull(i) || lng.isNull(i) || res.isNull(i)) { continue; }
+            final long h3 = h3Core.latLngToCell(lat.get(i), lng.get(i), res.get(i));
+            out.setSafe(i, buffer, 0, H3AddressCodec.encode(h3, buffer));
+        }
+    }
+
+    private void latLngToCellsMulti(List<FieldVector> arguments, FieldVector result, int from, int to) {
+        final Float8Vector lat = (Float8Vector) arguments.get(0);
+        final Float8Vector lng = (Float8Vector) arguments.get(1);
+        final IntVector minRes = (IntVector) arguments.get(2);
+        final IntVector maxRes = (IntVector) arguments.get(3);
+        final ListVector out = (ListVector) result;
+        for (int i = from; i < to; ++i) {
+            if (lat.isNull(i) || lng.isNull(i) || minRes.isNull(i) || maxRes.isNull(i)) {
+                out.setNull(i);
+                continue;
+            }
+            final long h3 = h3Core.latLngToCell(lat.get(i), lng.get(i), maxRes.get(i));
+            setCells(out, i, H3Index.cellToResolutions(h3, minRes.get(i)));
+        }
+    }
+
+    /** Reads the coordinates straight from the Float8 children of the lists and writes the rows straight into
+     *  the struct child of the result, so that neither the locations nor the counts are boxed. The fields of the
+     *  rows are taken by position, and must be a BIGINT and an INTEGER.
+     */
+    private void latLngToCellCounts(List<FieldVector> arguments, FieldVector result, int from, int to) {
+        final ListVector lats = (ListVector) arguments.get(0);
+        final ListVector lngs = (ListVector) arguments.get(1);
+        final IntVector res = (IntVector) arguments.get(2);
+        final Float8Vector latValues = (Float8Vector) lats.getDataVector();
+        final Float8Vector lngValues = (Float8Vector) lngs.getDataVector();
+        final ListVector out = (ListVector) result;
+        final StructVector rows = (StructVector) out.getDataVector();
+        if (rows.size() != 2 || !(rows.getChildByOrdinal(0) instanceof BigIntVector)
+                || !(rows.getChildByOrdinal(1) instanceof IntVector)) {
+            throw new IllegalArgumentException(String.format(
+                "lat_lng_to_cell_counts returns ARRAY(ROW(cell BIGINT, count INTEGER)), not %s", out.getField()));
+        }
+        final BigIntVector cells = (BigIntVector) rows.getChildByOrdinal(0);
+        final IntVector counts = (IntVector) rows.getChildByOrdinal(1);
+        for (int i = from; i < to; ++i) {
+            if (lats.isNull(i) || lngs.isNull(i) || res.isNull(i)) {
+                out.setNull(i);
+                continue;
+            }
+            final int latStart = lats.getElementStartIndex(i);
+            final int lngStart = lngs.getElementStartIndex(i);
+            final int size = lats.getElementEndIndex(i) - latStart;
+            if (lngs.getElementEndIndex(i) - lngStart != size) {
+                throw new IllegalArgumentException(String.format("%d latitudes but %d longitudes", size,
+                                                                 lngs.getElementEndIndex(i) - lngStart));
+            }
+
+            final int resolution = res.get(i);
+            final CellCounter counter = new CellCounter(size);
+            for (int k = 0; k < size; ++k) {
+                if (latValues.isNull(latStart + k) || lngValues.isNull(lngStart + k)) { continue; }
+                counter.add(h3Core.latLngToCell(latValues.get(latStart + k), lngValues.get(lngStart + k), resolution));
+            }
+
+            final int offset = out.startNewValue(i);
+            for (int k = 0; k < counter.size(); ++k) {
+                rows.setIndexDefined(offset + k);
+                cells.setSafe(offset + k, counter.cell(k));
+                counts.setSafe(offset + k, counter.count(k));
+            }
+            out.endValue(i, counter.size());
+        }
+    }
+
+    private static void stringToH3(List<FieldVector> arguments, FieldVector result, int from, int to) {
+        final VarCharVector h3Address = (VarCharVector) arguments.get(0);
+        final BigIntVector out = (BigIntVector) result;
+        for (int i = from; i < to; ++i) {
+            if (h3Address.isNull(i)) { continue; }
+            out.set(i, decodeAddress(h3Address, i));
+        }
+    }
+
+    private static void h3ToString(List<FieldVector> arguments, FieldVector result, int from, int to) {
+        final BigIntVector h3 = (BigIntVector) arguments.get(0);
+        final VarCharVector out = (VarCharVector) result;
+        final byte[] buffer = new byte[H3AddressCodec.MAX_LENGTH];
+        for (int i = from; i < to; ++i) {
+            if (h3.isNull(i)) { continue; }
+            out.setSafe(i, buffer, 0, H3AddressCodec.encode(h3.get(i), buffer));
+        }
+    }
+
+    private static void getResolutionOfAddress(List<FieldVector> arguments, FieldVector result, int from, int to) {
+        final VarCharVector h3Address = (VarCharVector) arguments.get(0);
+        final IntVector out = (IntVector) result;
+        for (int i = from; i < to; ++i) {
+            if (h3Address.isNull(i)) { continue; }
+            out.set(i, H3Index.getResolution(decodeAddress(h3Address, i)));
+        }
+    }
+
+    private static void cellToParentAddress(List<FieldVector> arguments, FieldVector result, int from, int to) {
+        final VarCharVector h3Address = (VarCharVector) arguments.get(0);
+        final IntVector parentRes = (IntVector) arguments.get(1);
+        final VarCharVector out = (VarCharVector) result;
+        final byte[] buffer = new byte[H3AddressCodec.MAX_LENGTH];
+        for (int i = from; i < to; ++i) {
+            if (h3Address.isNull(i) || parentRes.isNull(i)) { continue; }
+            final long parent = H3Index.cellToParent(decodeAddress(h3Address, i), parentRes.get(i));
+            out.setSafe(i, buffer, 0, H3AddressCodec.encode(parent, buffer));
+        }
+    }
+
+    private void areNeighborCells(List<FieldVector> arguments, FieldVector result, int from, int to) {
+        final BigIntVector origin = (BigIntVector) arguments.get(0);
+        final BigIntVector destination = (BigIntVector) arguments.get(1);
+        final BitVector out = (BitVector) result;
+        for (int i = from; i < to; ++i) {
+            if (origin.isNull(i) || destination.isNull(i)) { continue; }
+            out.set(i, h3Core.areNeighborCells(origin.get(i), destination.get(i)) ? 1 : 0);
+        }
+    }
+
+    private void cellArea(List<FieldVector> arguments, FieldVector result, int from, int to) {
+        final BigIntVector h3 = (BigIntVector) arguments.get(0);
+        final VarCharVector unit = (VarCharVector) arguments.get(1);
+        final StringArgument<AreaUnit> areaUnit = new StringArgument<>(unit, from, to, AreaUnit::valueOf);
+        final Float8Vector out = (Float8Vector) result;
+        for (int i = from; i < to; ++i) {
+            if (h3.isNull(i) || unit.isNull(i)) { continue; }
+            out.set(i, h3Core.cellArea(h3.get(i), areaUnit.get(i)));
+        }
+    }
+
+    private void cellEdgeLength(List<FieldVector> arguments, FieldVector result, int from, int to) {
+        final BigIntVector h3 = (BigIntVector) arguments.get(0);
+        final VarCharVector unit = (VarCharVector) arguments.get(1);
+        final StringArgument<LengthUnit> lengthUnit = new StringArgument<>(unit, from, to, LengthUnit::valueOf);
+        final Float8Vector out = (Float8Vector) result;
+        for (int i = from; i < to; ++i) {
+            if (h3.isNull(i) || unit.isNull(i)) { continue; }
+            out.set(i, h3Core.edgeLength(h3Core.originToDirectedEdges(h3.get(i)).get(0), lengthUnit.get(i)));
+        }
+    }
+
+    private void hexagonEdgeLengthAvg(List<FieldVector> arguments, FieldVector result, int from, int to) {
+        final IntVector res = (IntVector) arguments.get(0);
+        final VarCharVector unit = (VarCharVector) arguments.get(1);
+        final StringArgument<LengthUnit> lengthUnit = new StringArgument<>(unit, from, to, LengthUnit::valueOf);
+        final Float8Vector out = (Float8Vector) result;
+        for (int i = from; i < to; ++i) {
+            if (res.isNull(i) || unit.isNull(i)) { continue; }
+            out.set(i, h3Core.getHexagonEdgeLengthAvg(res.get(i), lengthUnit.get(i)));
+        }
+    }
+
+    private void cellToBoundarySys(List<FieldVector> arguments, FieldVector result, int from, int to) {
+        final BigIntVector h3 = (BigIntVector) arguments.get(0);
+        final VarCharVector coordSys = (VarCharVector) arguments.get(1);
+        final StringArgument<Boolean> latitudes = new StringArgument<>(coordSys, from, to, sys -> {
+            if (!H3AthenaHandler.LAT.equals(sys) && !H3AthenaHandler.LNG.equals(sys)) {
+                throw new IllegalArgumentException("Unknown coord sys");
+            }
+            return H3AthenaHandler.LAT.equals(sys);
+        });
+        final ListVector out = (ListVector) result;
+        final Float8Vector values = (Float8Vector) out.getDataVector();
+        for (int i = from; i < to; ++i) {
+            if (h3.isNull(i) || coordSys.isNull(i)) {
+                out.setNull(i);
+                continue;
+            }
+            final boolean latitude = latitudes.get(i);
+            final List<LatLng> boundary = h3Core.cellToBoundary(h3.get(i));
+            final int offset = out.startNewValue(i);
+            for (int k = 0; k < boundary.size(); ++k) {
+                values.setSafe(offset + k, latitude ? boundary.get(k).lat : boundary.get(k).lng);
+            }
+            out.endValue(i, boundary.size());
+        }
+    }
+
+    private void cellToBoundary(List<FieldVector> arguments, FieldVector result, int from, int to) {
+        final BigIntVector h3 = (BigIntVector) arguments.get(0);
+        final VarCharVector sep = (VarCharVector) arguments.get(1);
+        final StringArgument<String> separator = new StringArgument<>(sep, from, to, Function.identity());
+        final ListVector out = (ListVector) result;
+        final VarCharVector values = (VarCharVector) out.getDataVector();
+        for (int i = from; i < to; ++i) {
+            if (h3.isNull(i) || sep.isNull(i)) {
+                out.setNull(i);
+                continue;
+            }
+            final String pointSeparator = separator.get(i);
+            final List<LatLng> boundary = h3Core.cellToBoundary(h3.get(i));
+            final int offset = out.startNewValue(i);
+            for (int k = 0; k < boundary.size(); ++k) {
+                final String point = H3AthenaHandler.pointsListStr(boundary.get(k), pointSeparator);
+                values.setSafe(offset + k, point.getBytes(StandardCharsets.UTF_8));
+            }
+            out.endValue(i, boundary.size());
+        }
+    }
+
+    /** The try_ kernels leave the rows with invalid input null, as they leave the rows with a null argument. */
+    private void tryLatLngToCell(List<FieldVector> arguments, FieldVector result, int from, int to) {
+        final Float8Vector lat = (Float8Vector) arguments.get(0);
+        final Float8Vector lng = (Float8Vector) arguments.get(1);
+        final IntVector res = (IntVector) arguments.get(2);
+        final BigIntVector out = (BigIntVector) result;
+        for (int i = from; i < to; ++i) {
+            if (lat.isNull(i) || lng.isNull(i) || res.isNull(i)) { continue; }
+            final double latitude = lat.get(i);
+            final double longitude = lng.get(i);
+            final int resolution = res.get(i);
+            if (!Double.isFinite(latitude) || !Double.isFinite(longitude)
+                || resolution < 0 || resolution > H3Index.MAX_RES) { continue; }
+            out.set(i, h3Core.latLngToCell(latitude, longitude, resolution));
+        }
+    }
+
+    private static void tryStringToH3(List<FieldVector> arguments, FieldVector result, int from, int to) {
+        final VarCharVector h3Address = (VarCharVector) arguments.get(0);
+        final BigIntVector out = (BigIntVector) result;
+        for (int i = from; i < to; ++i) {
+            if (h3Address.isNull(i)) { continue; }
+            final long h3 = tryDecodeAddress(h3Address, i);
+            if (H3Index.isValidCell(h3)) {
+                out.set(i, h3);
+            }
+        }
+    }
+
+    private static void tryCellToParent(List<FieldVector> arguments, FieldVector result, int from, int to) {
+        final BigIntVector h3 = (BigIntVector) arguments.get(0);
+        final IntVector parentRes = (IntVector) arguments.get(1);
+        final BigIntVector out = (BigIntVector) result;
+        for (int i = from; i < to; ++i) {
+            if (h3.isNull(i) || parentRes.isNull(i)) { continue; }
+            final long cell = h3.get(i);
+            final int res = parentRes.get(i);
+            if (H3Index.isValidCell(cell) && res >= 0 && res <= H3Index.getResolution(cell)) {
+                out.set(i, H3Index.cellToParent(cell, res));
+            }
+        }
+    }
+
+    private static void tryCellToParentAddress(List<FieldVector> arguments, FieldVector result, int from, int to) {
+        final VarCharVector h3Address = (VarCharVector) arguments.get(0);
+        final IntVector parentRes = (IntVector) arguments.get(1);
+        final VarCharVector out = (VarCharVector) result;
+        final byte[] buffer = new byte[H3AddressCodec.MAX_LENGTH];
+        for (int i = from; i < to; ++i) {
+            if (h3Address.isNull(i) || parentRes.isNull(i)) { continue; }
+            final long cell = tryDecodeAddress(h3Address, i);
+            final int res = parentRes.get(i);
+            if (H3Index.isValidCell(cell) && res >= 0 && res <= H3Index.getResolution(cell)) {
+                out.setSafe(i, buffer, 0, H3AddressCodec.encode(H3Index.cellToParent(cell, res), buffer));
+            }
+        }
+    }
+
+    private static void cellToParents(List<FieldVector> arguments, FieldVector result, int from, int to) {
+        final BigIntVector h3 = (BigIntVector) arguments.get(0);
+        final ListVector out = (ListVector) result;
+        for (int i = from; i < to; ++i) {
+            if (h3.isNull(i)) {
+                out.setNull(i);
+                continue;
+            }
+            setCells(out, i, H3Index.cellToParents(h3.get(i)));
+        }
+    }
+
+    /** Writes cells as the list at a row of a ListVector of BIGINT, without boxing them. */
+    private static void setCells(ListVector out, int index, long[] cells) {
+        final BigIntVector values = (BigIntVector) out.getDataVector();
+        final int offset = out.startNewValue(index);
+        for (int k = 0; k < cells.length; ++k) {
+            values.setSafe(offset + k, cells[k]);
+        }
+        out.endValue(index, cells.length);
+    }
+
+    /** Writes cells as the list at a row of a ListVector of VARCHAR addresses, without an address string. */
+    private static void setAddresses(ListVector out, int index, long[] cells, byte[] buffer) {
+        final VarCharVector values = (VarCharVector) out.getDataVector();
+        final int offset = out.startNewValue(index);
+        for (int k = 0; k < cells.length; ++k) {
+            values.setSafe(offset + k, buffer, 0, H3AddressCodec.encode(cells[k], buffer));
+        }
+        out.endValue(index, cells.length);
+    }
+
+    /** Decodes the address at a row of a VarCharVector straight from the Arrow data buffer. */
+    private static long decodeAddress(VarCharVector vector, int index) {
+        return H3AddressCodec.decode(vector.getDataBuffer(), vector.getStartOffset(index), vector.getEndOffset(index));
+    }
+
+    /** Decodes the address at a row of a VarCharVector without throwing, H3AddressCodec.INVALID when malformed. */
+    private static long tryDecodeAddress(VarCharVector vector, int index) {
+        return H3AddressCodec.tryDecode(vector.getDataBuffer(), vector.getStartOffset(index),
+                                        vector.getEndOffset(index));
+    }
+
+    private static VectorizedFunction cellToCell(LongUnaryOperator function) {
+        return (arguments, result, from, to) -> {
+            final BigIntVector h3 = (BigIntVector) arguments.get(0);
+            final BigIntVector out = (BigIntVector) result;
+            for (int i = from; i < to; ++i) {
+                if (h3.isNull(i)) { continue; }
+                out.set(i, function.applyAsLong(h3.get(i)));
+            }
+        };
+    }
+
+    private static VectorizedFunction cellToInt(LongToIntFunction function) {
+        return (arguments, result, from, to) -> {
+            final BigIntVector h3 = (BigIntVector) arguments.get(0);
+            final IntVector out = (IntVector) result;
+            for (int i = from; i < to; ++i) {
+                if (h3.isNull(i)) { continue; }
+                out.set(i, function.applyAsInt(h3.get(i)));
+            }
+        };
+    }
+
+    /** Boolean inspection functions return false, rather than null, on a null cell. */
+    private static VectorizedFunction cellToBoolean(LongPredicate function) {
+        return (arguments, result, from, to) -> {
+            final BigIntVector h3 = (BigIntVector) arguments.get(0);
+            final BitVector out = (BitVector) result;
+            for (int i = from; i < to; ++i) {
+                out.set(i, !h3.isNull(i) && function.test(h3.get(i)) ? 1 : 0);
+            }
+        };
+    }
+
+    private static VectorizedFunction cellIntToCells(CellIntToCellsFunction function) {
+        return (arguments, result, from, to) -> {
+            final BigIntVector h3 = (BigIntVector) arguments.get(0);
+            final IntVector value = (IntVector) arguments.get(1);
+            final ListVector out = (ListVector) result;
+            for (int i = from; i < to; ++i) {
+                final long[] cells = h3.isNull(i) || value.isNull(i) ? null : function.apply(h3.get(i), value.get(i));
+                if (cells == null) {
+                    out.setNull(i);
+                    continue;
+                }
+                setCells(out, i, cells);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> VectorizedFunction polygonToCells(PolygonToCellsFunction<T> function, boolean addresses) {
+        return (arguments, result, from, to) -> {
+            final FieldVector polygon = arguments.get(0);
+            final IntVector res = (IntVector) arguments.get(1);
+            final ListVector out = (ListVector) result;
+            final byte[] buffer = new byte[H3AddressCodec.MAX_LENGTH];
+            for (int i = from; i < to; ++i) {
+                final LongArray cells;
+                try {
+                    cells = polygon.isNull(i) || res.isNull(i) ? null : (LongArray) function.apply(
+                        (T) (polygon instanceof VarBinaryVector ? ((VarBinaryVector) polygon).get(i)
+                             : ((VarCharVector) polygon).getObject(i).toString()), res.get(i));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (cells == null) {
+                    out.setNull(i);
+                } else if (addresses) {
+                    setAddresses(out, i, cells.array(), buffer);
+                } else {
+                    setCells(out, i, cells.array());
+                }
+            }
+        };
+    }
+
+    private static VectorizedFunction cellResToCell(CellResToCellFunction function) {
+        return (arguments, result, from, to) -> {
+            final BigIntVector h3 = (BigIntVector) arguments.get(0);
+            final IntVector res = (IntVector) arguments.get(1);
+            final BigIntVector out = (BigIntVector) result;
+            for (int i = from; i < to; ++i) {
+                if (h3.isNull(i) || res.isNull(i)) { continue; }
+                out.set(i, function.apply(h3.get(i), res.get(i)));
+            }
+        };
+    }
+}
@@ -0,0 +1,130 @@
+package com.aws.athena.udf.h3;
+
+import com.uber.h3core.util.LatLng;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Reader of POLYGON and MULTIPOLYGON WKB, as returned by ST_AsBinary, straight into the rings of points H3 takes.
+ *  Both byte orders are read, as well as the ISO and extended (PostGIS) encodings of Z and M coordinates, which
+ *  are skipped, and of an SRID, which is ignored.
+ */
+final class WkbReader {
+
+    private static final int POLYGON = 3;
+    private static final int MULTIPOLYGON = 6;
+
+    private static final int EWKB_Z = 0x80000000;
+    private static final int EWKB_M = 0x40000000;
+    private static final int EWKB_SRID = 0x20000000;
+    private static final int EWKB_FLAGS = EWKB_Z | EWKB_M | EWKB_SRID;
+
+    private final ByteBuffer buffer;
+
+    /** The base geometry type of the last header read. */
+    private int type;
+
+    private WkbReader(byte[] wkb) {
+        this.buffer = ByteBuffer.wrap(wkb);
+    }
+
+    /** Reads the rings of a polygon or multipolygon.
+     *  @param wkb the WKB.
+     *  @return the polygons, each a list of rings, the first one being the exterior.
+     *  @throws IllegalArgumentException when wkb is not a well-formed polygon or multipolygon.
+     */
+    static List<List<List<LatLng>>> readPolygons(byte[] wkb) {
+        final WkbReader reader = new WkbReader(wkb);
+        try {
+            final List<List<List<LatLng>>> polygons = reader.readGeometry();
+            if (reader.buffer.hasRemaining()) {
+                throw new IllegalArgumentException("invalid polygonWKB: trailing bytes");
+            }
+            return polygons;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("invalid polygonWKB: truncated", e);
+        }
+    }
+
+    private List<List<List<LatLng>>> readGeometry() {
+        final int dimensions = readHeader();
+        if (type == POLYGON) {
+            return List.of(readPolygonBody(dimensions));
+        }
+        if (type != MULTIPOLYGON) {
+            throw new IllegalArgumentException("invalid polygonWKB: geometry type " + type);
+        }
+        final int count = readCount();
+        final List<List<List<LatLng>>> polygons = new ArrayList<>(count);
+        for (int p = 0; p < count; ++p) {
+            final int polygonDimensions = readHeader();
+            if (type != POLYGON) {
+                throw new IllegalArgumentException("invalid polygonWKB: multipolygon member type " + type);
+            }
+            polygons.add(readPolygonBody(polygonDimensions));
+        }
+        return polygons;
+    }
+
+    /** Reads a byte order and a geometry type, and the SRID of extended WKB.
+     *  @return the number of coordinates per point.
+     */
+    private int readHeader() {
+        final byte order = buffer.get();
+        if (order != 0 && order != 1) {
+            throw new IllegalArgumentException("invalid polygonWKB: byte order " + order);
+        }
+        buffer.order(order == 1 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        final int code = buffer.getInt();
+        int dimensions = 2;
+        if ((code & EWKB_FLAGS) != 0) {
+            if ((code & EWKB_Z) != 0) { ++dimensions; }
+            if ((code & EWKB_M) != 0) { ++dimensions; }
+            if ((code & EWKB_SRID) != 0) { buffer.getInt(); }
+            type = code & ~EWKB_FLAGS;
+        } else {
+            // ISO codes: 1000 for Z, 2000 for M, 3000 for ZM.
+            final int extra = code / 1000;
+            if (extra > 3) {
+                throw new IllegalArgumentException("invalid polygonWKB: geometry type " + code);
+            }
+            dimensions += extra == 3 ? 2 : extra == 0 ? 0 : 1;
+            type = code % 1000;
+        }
+        return dimensions;
+    }
+
+    private List<List<LatLng>> readPolygonBody(int dimensions) {
+        final int ringCount = readCount();
+        final List<List<LatLng>> rings = new ArrayList<>(ringCount);
+        for (int r = 0; r < ringCount; ++r) {
+            final int pointCount = readCount();
+            final List<LatLng> ring = new ArrayList<>(pointCount);
+            for (int i = 0; i < pointCount; ++i) {
+                final double lng = buffer.getDouble();
+                final double lat = buffer.getDouble();
+                for (int d = 2; d < dimensions; ++d) {
+                    buffer.getDouble();
+                }
+                ring.add(new LatLng(lat, lng));
+            }
+            rings.add(ring);
+        }
+        if (rings.isEmpty()) {
+            throw new IllegalArgumentException("invalid polygonWKB: empty polygon");
+        }
+        return rings;
+    }
+
+    /** Reads a count, checked against the bytes left so that a corrupt count does not allocate a huge list. */
+    private int readCount() {
+        final int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining()) {
+            throw new IllegalArgumentException("invalid polygonWKB: count " + count);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,111 @@
+package com.aws.athena.udf.h3;
+
+import com.uber.h3core.util.LatLng;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+/** Little-endian WKB encoding of H3 geometries, written straight into byte arrays sized up front.
+ *  Coordinates are 2D, longitude first. Rings are closed when the last point does not repeat the first one,
+ *  as WKB readers expect.
+ */
+final class WkbWriter {
+
+    /** The WKB geometry types written. */
+    static final int POINT = 1;
+    static final int POLYGON = 3;
+    static final int MULTIPOLYGON = 6;
+
+    private static final byte LITTLE_ENDIAN = 1;
+    private static final int HEADER_BYTES = 1 + Integer.BYTES;
+    private static final int POINT_BYTES = 2 * Double.BYTES;
+
+    private WkbWriter() {
+    }
+
+    /** Writes a point.
+     *  @param point the point.
+     *  @return the WKB.
+     */
+    static byte[] point(LatLng point) {
+        final ByteBuffer buffer = allocate(HEADER_BYTES + POINT_BYTES);
+        writeHeader(buffer, POINT);
+        writeCoordinates(buffer, point);
+        return buffer.array();
+    }
+
+    /** Writes a polygon without holes.
+     *  @param exterior the points of the exterior ring.
+     *  @return the WKB.
+     */
+    static byte[] polygon(List<LatLng> exterior) {
+        final ByteBuffer buffer = allocate(HEADER_BYTES + Integer.BYTES + ringSize(exterior));
+        writeHeader(buffer, POLYGON);
+        buffer.putInt(1);
+        writeRing(buffer, exterior);
+        return buffer.array();
+    }
+
+    /** Writes a multipolygon as returned by H3Core.cellsToMultiPolygon.
+     *  @param multiPolygon the polygons, each a list of rings, the first one being the exterior.
+     *  @return the WKB.
+     */
+    static byte[] multiPolygon(List<List<List<LatLng>>> multiPolygon) {
+        int size = HEADER_BYTES + Integer.BYTES;
+        for (final List<List<LatLng>> polygon : multiPolygon) {
+            size += HEADER_BYTES + Integer.BYTES;
+            for (final List<LatLng> ring : polygon) {
+                size += ringSize(ring);
+            }
+        }
+
+        final ByteBuffer buffer = allocate(size);
+        writeHeader(buffer, MULTIPOLYGON);
+        buffer.putInt(multiPolygon.size());
+        for (final List<List<LatLng>> polygon : multiPolygon) {
+            writeHeader(buffer, POLYGON);
+            buffer.putInt(polygon.size());
+            for (final List<LatLng> ring : polygon) {
+                writeRing(buffer, ring);
+            }
+        }
+        return buffer.array();
+    }
+
+    private static ByteBuffer allocate(int size) {
+        return ByteBuffer.wrap(new byte[size]).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void writeHeader(ByteBuffer buffer, int type) {
+        buffer.put(LITTLE_ENDIAN);
+        buffer.putInt(type);
+    }
+
+    private static void writeRing(ByteBuffer buffer, List<LatLng> ring) {
+        final boolean closed = isClosed(ring);
+        buffer.putInt(closed ? ring.size() : ring.size() + 1);
+        for (final LatLng point : ring) {
+            writeCoordinates(buffer, point);
+        }
+        if (!closed) {
+            writeCoordinates(buffer, ring.get(0));
+        }
+    }
+
+    private static void writeCoordinates(ByteBuffer buffer, LatLng point) {
+        buffer.putDouble(point.lng);
+        buffer.putDouble(point.lat);
+    }
+
+    private static int ringSize(List<LatLng> ring) {
+        return Integer.BYTES + (isClosed(ring) ? ring.size() : ring.size() + 1) * POINT_BYTES;
+    }
+
+    private static boolean isClosed(List<LatLng> ring) {
+        if (ring.isEmpty()) { return true; }
+        final LatLng first = ring.get(0);
+        final LatLng last = ring.get(ring.size() - 1);
+        return first.lat == last.lat && first.lng == last.lng;
+    }
+}
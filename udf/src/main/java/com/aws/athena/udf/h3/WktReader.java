@@ -0,0 +1,182 @@
+package com.aws.athena.udf.h3;
+
+import com.uber.h3core.util.LatLng;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/** Single-pass reader of 2D POLYGON and MULTIPOLYGON WKT, reading coordinates straight into a primitive array per
+ *  ring, without the Simple Features object graph.
+ *  Anything else, Z or M coordinates, EMPTY geometries or malformed text, is not read, so that the caller falls
+ *  back to the complete reader and its error reporting.
+ */
+final class WktReader {
+
+    private static final String POLYGON = "POLYGON";
+    private static final String MULTIPOLYGON = "MULTIPOLYGON";
+
+    /** The powers of ten exactly representable as doubles. */
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    /** The largest mantissa below which a double holds it exactly, 2^53. */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; ++i) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final String text;
+    private int position;
+    private double[] coordinates = new double[64];
+
+    private WktReader(String text) {
+        this.text = text;
+    }
+
+    /** Reads the rings of a polygon or multipolygon.
+     *  @param wkt the WKT.
+     *  @return the polygons, each a list of rings, the first one being the exterior, or null when wkt is not a
+     *          well-formed 2D polygon or multipolygon.
+     */
+    static List<List<List<LatLng>>> readPolygons(String wkt) {
+        return new WktReader(wkt).readPolygons();
+    }
+
+    private List<List<List<LatLng>>> readPolygons() {
+        skipWhitespace();
+        final List<List<List<LatLng>>> polygons;
+        if (text.startsWith(MULTIPOLYGON, position)) {
+            position += MULTIPOLYGON.length();
+            if (!accept('(')) { return null; }
+            polygons = new ArrayList<>();
+            do {
+                final List<List<LatLng>> polygon = readPolygon();
+                if (polygon == null) { return null; }
+                polygons.add(polygon);
+            } while (accept(','));
+            if (!accept(')')) { return null; }
+        } else if (text.startsWith(POLYGON, position)) {
+            position += POLYGON.length();
+            final List<List<LatLng>> polygon = readPolygon();
+            if (polygon == null) { return null; }
+            polygons = List.of(polygon);
+        } else {
+            return null;
+        }
+        skipWhitespace();
+        return position == text.length() ? polygons : null;
+    }
+
+    private List<List<LatLng>> readPolygon() {
+        if (!accept('(')) { return null; }
+        final List<List<LatLng>> rings = new ArrayList<>(1);
+        do {
+            final List<LatLng> ring = readRing();
+            if (ring == null) { return null; }
+            rings.add(ring);
+        } while (accept(','));
+        return accept(')') ? rings : null;
+    }
+
+    /** Reads the longitude and latitude pairs of a ring into the coordinate array, then swaps them into points. */
+    private List<LatLng> readRing() {
+        if (!accept('(')) { return null; }
+        int length = 0;
+        do {
+            if (length + 2 > coordinates.length) {
+                coordinates = Arrays.copyOf(coordinates, coordinates.length * 2);
+            }
+            skipWhitespace();
+            final double lng = readNumber();
+            if (Double.isNaN(lng) || !skipSeparator()) { return null; }
+            final double lat = readNumber();
+            if (Double.isNaN(lat)) { return null; }
+            coordinates[length++] = lng;
+            coordinates[length++] = lat;
+        } while (accept(','));
+        if (!accept(')')) { return null; }
+
+        final List<LatLng> ring = new ArrayList<>(length / 2);
+        for (int i = 0; i < length; i += 2) {
+            ring.add(new LatLng(coordinates[i + 1], coordinates[i]));
+        }
+        return ring;
+    }
+
+    /** Reads a decimal number, with the exact fast path for at most 15 significant digits and a power of ten
+     *  within the doubles, and Double.parseDouble otherwise.
+     *  @return the number, or NaN when there is none.
+     */
+    private double readNumber() {
+        final int start = position;
+        boolean negative = false;
+        if (position < text.length() && (text.charAt(position) == '-' || text.charAt(position) == '+')) {
+            negative = text.charAt(position++) == '-';
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean exact = true;
+        boolean point = false;
+        for (; position < text.length(); ++position) {
+            final char c = text.charAt(position);
+            if (c >= '0' && c <= '9') {
+                if (mantissa < MAX_EXACT_MANTISSA / 10) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (point) { ++fractionDigits; }
+                } else {
+                    exact = false;
+                }
+                ++digits;
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) { return Double.NaN; }
+        if (position < text.length() && (text.charAt(position) == 'e' || text.charAt(position) == 'E')) {
+            exact = false;
+            ++position;
+            if (position < text.length() && (text.charAt(position) == '-' || text.charAt(position) == '+')) {
+                ++position;
+            }
+            final int exponentStart = position;
+            while (position < text.length() && Character.isDigit(text.charAt(position))) {
+                ++position;
+            }
+            if (position == exponentStart) { return Double.NaN; }
+        }
+        if (!exact || fractionDigits >= POWERS_OF_TEN.length) {
+            return Double.parseDouble(text.substring(start, position));
+        }
+        final double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    /** Skips the whitespace between the two coordinates of a point, which must be there. */
+    private boolean skipSeparator() {
+        final int start = position;
+        skipWhitespace();
+        return position > start;
+    }
+
+    private boolean accept(char c) {
+        skipWhitespace();
+        if (position < text.length() && text.charAt(position) == c) {
+            ++position;
+            return true;
+        }
+        return false;
+    }
+
+    private void skipWhitespace() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            ++position;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.aws.athena.udf.h3;
+
+import com.uber.h3core.util.LatLng;
+
+import java.util.Arrays;
+import java.util.List;
+
+/** Streaming WKT writer over a single char buffer, sized up front from the number of vertices.
+ *  Coordinates are written at full precision, as Double.toString does, or with a fixed maximum number of
+ *  fraction digits, trailing zeros removed.
+ */
+final class WktWriter {
+
+    /** The number of fraction digits writing coordinates at full precision, as Double.toString does. */
+    static final int FULL_PRECISION = -1;
+
+    private static final int SEPARATOR_LENGTH = 2;
+
+    private final int digits;
+    private char[] buffer;
+    private int length;
+
+    /** Creates a writer.
+     *  @param digits the maximum number of fraction digits of coordinates, 0 to 15, or FULL_PRECISION.
+     *  @param points the expected number of points, to size the buffer.
+     */
+    WktWriter(int digits, int points) {
+        if (digits != FULL_PRECISION) {
+            CoordinateFormatter.checkDigits(digits);
+        }
+        this.digits = digits;
+        final int coordinateLength = (digits == FULL_PRECISION ? CoordinateFormatter.MAX_DIGITS : digits) + 6;
+        this.buffer = new char[32 + points * (2 * coordinateLength + SEPARATOR_LENGTH)];
+    }
+
+    /** Writes a multipolygon as returned by H3Core.cellsToMultiPolygon.
+     *  @param multiPolygon the polygons, each a list of rings, the first one being the exterior.
+     *  @param digits the maximum number of fraction digits of coordinates, 0 to 15, or FULL_PRECISION.
+     *  @return the WKT.
+     */
+    static String writeMultiPolygon(List<List<List<LatLng>>> multiPolygon, int digits) {
+        int points = 0;
+        for (final List<List<LatLng>> polygon : multiPolygon) {
+            for (final List<LatLng> ring : polygon) {
+                points += ring.size() + 1;
+            }
+        }
+        final WktWriter writer = new WktWriter(digits, points);
+        writer.append("MULTIPOLYGON (");
+        for (int p = 0; p < multiPolygon.size(); ++p) {
+            if (p > 0) { writer.append(", "); }
+            writer.append('(');
+            final List<List<LatLng>> polygon = multiPolygon.get(p);
+            for (int r = 0; r < polygon.size(); ++r) {
+                if (r > 0) { writer.append(", "); }
+                writer.appendRing(polygon.get(r));
+            }
+            writer.append(')');
+        }
+        writer.append(')');
+        return writer.toString();
+    }
+
+    /** Appends a ring of points in parentheses, longitude first.
+     *  @param ring the points.
+     */
+    void appendRing(List<LatLng> ring) {
+        append('(');
+        boolean first = true;
+        for (final LatLng point : ring) {
+            if (first) { first = false; }
+            else { append(", "); }
+            appendPoint(point);
+        }
+        append(')');
+    }
+
+    /** Appends a point as its longitude and latitude separated by a space.
+     *  @param point the point.
+     */
+    void appendPoint(LatLng point) {
+        appendCoordinate(point.lng);
+        append(' ');
+        appendCoordinate(point.lat);
+    }
+
+    /** Appends a coordinate.
+     *  @param value the coordinate.
+     */
+    void appendCoordinate(double value) {
+        if (digits == FULL_PRECISION) {
+            append(Double.toString(value));
+        } else {
+            ensureCapacity(CoordinateFormatter.MAX_LENGTH);
+            length = CoordinateFormatter.formatTrimmed(value, digits, buffer, length);
+        }
+    }
+
+    /** Appends text.
+     *  @param text the text.
+     */
+    void append(String text) {
+        ensureCapacity(text.length());
+        text.getChars(0, text.length(), buffer, length);
+        length += text.length();
+    }
+
+    /** Appends a char.
+     *  @param c the char.
+     */
+    void append(char c) {
+        ensureCapacity(1);
+        buffer[length++] = c;
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer, 0, length);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.aws.athena.udf.h3;
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.BlockUtils;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.types.Types.MinorType;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/** Checks that batches evaluated once per distinct cell return the same values as row by row. */
+public class BatchMemoTest {
+    private final H3AthenaHandler handler;
+    private final BlockAllocator allocator;
+    private final Random random = new Random(13);
+    private final List<Long> cells = new ArrayList<>();
+
+    public BatchMemoTest() throws IOException {
+        handler = new H3AthenaHandler();
+        allocator = new BlockAllocatorImpl();
+        for (int i = 0; i < 20; ++i) {
+            cells.add(handler.lat_lng_to_cell(random.nextDouble() * 180.0 - 90.0, random.nextDouble() * 360.0 - 180.0, 9));
+        }
+    }
+
+    @AfterEach
+    public void closeAllocator() {
+        allocator.close();
+    }
+
+    @Test
+    public void testrepeated_cells_evaluated_once() throws Exception {
+        final List<Object[]> rows = repeatedRows(1000, "km2");
+        final Block input = newInputBlock(rows, MinorType.BIGINT.getType(), MinorType.VARCHAR.getType());
+        final int[] evaluatedRows = new int[1];
+        final BatchMemo memo = new BatchMemo(true);
+
+        final Block output = memo.process(allocator, input, outputSchema(MinorType.FLOAT8.getType()), batch -> {
+            evaluatedRows[0] = batch.getRowCount();
+            return handler.processRows(allocator, H3AthenaHandler.class.getMethod("cell_area", Long.class, String.class),
+                                       batch, outputSchema(MinorType.FLOAT8.getType()));
+        });
+
+        assertEquals(cells.size() + 1, evaluatedRows[0]);
+        for (int i = 0; i < rows.size(); ++i) {
+            assertEquals(handler.cell_area((Long) rows.get(i)[0], "km2"), output.getFieldVectors().get(0).getObject(i));
+        }
+    }
+
+    @Test
+    public void testmemoized_functions_match_row_by_row() throws Exception {
+        final List<Object[]> cellRows = repeatedRows(500, null);
+        final List<Object[]> separatorRows = repeatedRows(500, ",");
+
+        assertMatchesRowByRow("cell_to_polygon_wkt", outputSchema(MinorType.VARCHAR.getType()), cellRows, Long.class);
+        assertMatchesRowByRow("is_valid_cell", outputSchema(MinorType.BIT.getType()), cellRows, Long.class);
+        assertMatchesRowByRow("cell_to_boundary", listOutputSchema(MinorType.VARCHAR.getType()), separatorRows,
+                              Long.class, String.class);
+        assertMatchesRowByRow("grid_disk", listOutputSchema(MinorType.BIGINT.getType()), repeatedRows(500, 1),
+                              Long.class, Integer.class);
+    }
+
+    @Test
+    public void testvarying_arguments_not_memoized() throws Exception {
+        final List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 500; ++i) {
+            rows.add(new Object[] { cells.get(i % cells.size()), random.nextInt(3) });
+        }
+        assertMatchesRowByRow("grid_disk", listOutputSchema(MinorType.BIGINT.getType()), rows, Long.class, Integer.class);
+    }
+
+    /** Rows cycling through the cells, with a few nulls, and a constant second argument unless null. */
+    private List<Object[]> repeatedRows(int count, Object constant) {
+        final List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < count; ++i) {
+            final Long cell = i % 97 == 0 ? null : cells.get(random.nextInt(cells.size()));
+            rows.add(constant == null ? new Object[] { cell } : new Object[] { cell, constant });
+        }
+        return rows;
+    }
+
+    private void assertMatchesRowByRow(String name, Schema outputSchema, List<Object[]> rows, Class<?>... parameterTypes)
+            throws Exception {
+        final Method method = H3AthenaHandler.class.getMethod(name, parameterTypes);
+        final ArrowType[] types = new ArrowType[parameterTypes.length];
+        for (int p = 0; p < parameterTypes.length; ++p) {
+            types[p] = parameterTypes[p] == Long.class ? MinorType.BIGINT.getType()
+                : parameterTypes[p] == Integer.class ? MinorType.INT.getType() : MinorType.VARCHAR.getType();
+        }
+        final Block output = handler.processRows(allocator, method, newInputBlock(rows, types), outputSchema);
+        final FieldVector result = output.getFieldVectors().get(0);
+
+        assertEquals(rows.size(), output.getRowCount());
+        for (int i = 0; i < rows.size(); ++i) {
+            final Object expected = method.invoke(handler, rows.get(i));
+            final Object actual = result.getObject(i);
+            if (expected instanceof List) {
+                assertEquals(((List<?>) expected).size(), ((List<?>) actual).size(), name + " at row " + i);
+                for (int e = 0; e < ((List<?>) expected).size(); ++e) {
+                    assertEquals(String.valueOf(((List<?>) expected).get(e)), String.valueOf(((List<?>) actual).get(e)),
+                                 name + " at row " + i);
+                }
+            } else {
+                assertEquals(String.valueOf(expected), String.valueOf(actual), name + " at row " + i);
+            }
+        }
+    }
+
+    private Block newInputBlock(List<Object[]> rows, ArrowType... types) {
+        final SchemaBuilder schema = SchemaBuilder.newBuilder();
+        for (int p = 0; p < types.length; ++p) {
+            schema.addField("arg" + p, types[p]);
+        }
+        final Block input = allocator.createBlock(schema.build());
+        for (int p = 0; p < types.length; ++p) {
+            final FieldVector vector = input.getFieldVector("arg" + p);
+            for (int i = 0; i < rows.size(); ++i) {
+                BlockUtils.setValue(vector, i, rows.get(i)[p]);
+            }
+        }
+        input.setRowCount(rows.size());
+        return input;
+    }
+
+    private static Schema outputSchema(ArrowType type) {
+        return SchemaBuilder.newBuilder().addField("result", type).build();
+    }
+
+    private static Schema listOutputSchema(ArrowType type) {
+        return SchemaBuilder.newBuilder().addListField("result", type).build();
+    }
+}
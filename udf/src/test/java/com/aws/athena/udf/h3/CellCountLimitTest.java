@@ -0,0 +1,32 @@
+package com.aws.athena.udf.h3;
+
+import com.uber.h3core.H3Core;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+
+/** Checks that the hierarchy functions fail before generating more cells than the limit. */
+public class CellCountLimitTest {
+    private final CellCountLimit limit = new CellCountLimit(400);
+    private final long h3;
+
+    public CellCountLimitTest() throws IOException {
+        h3 = H3Core.newInstance().latLngToCell(43.0, -79.0, 5);
+    }
+
+    @Test
+    public void testlimit() {
+        assertEquals(343, limit.cellToChildren(h3, 8).length);
+        assertEquals(7 + 49 + 343, limit.cellToDescendants(h3, 3).length);
+        assertEquals(400, limit.cellToChildrenRange(h3, 9, 1000, 400).length);
+        assertEquals(1, limit.cellToChildrenRange(h3, 9, 2400, 1000).length);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> limit.cellToChildren(h3, 9));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> limit.cellToDescendants(h3, 4));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> limit.cellToChildrenRange(h3, 9, 0, 401));
+    }
+}
@@ -0,0 +1,37 @@
+package com.aws.athena.udf.h3;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/** Checks the cell counts against a LinkedHashMap. */
+public class CellCounterTest {
+
+    @Test
+    public void testagainst_linked_hash_map() {
+        final Random random = new Random(11);
+        final CellCounter counter = new CellCounter(1);
+        final Map<Long, Integer> expected = new LinkedHashMap<>();
+        for (int i = 0; i < 50000; ++i) {
+            final long cell = 0x08a2a1072b59ffffL + (random.nextInt(3000) << 12);
+            counter.add(cell);
+            expected.merge(cell, 1, Integer::sum);
+        }
+
+        assertEquals(expected.size(), counter.size());
+        final List<Map<String, Object>> rows = new ArrayList<>();
+        int position = 0;
+        for (final Map.Entry<Long, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getKey(), counter.cell(position));
+            assertEquals(entry.getValue(), counter.count(position++));
+            rows.add(Map.of(CellCounter.CELL, entry.getKey(), CellCounter.COUNT, entry.getValue()));
+        }
+        assertEquals(rows, counter.toRows());
+    }
+}
@@ -0,0 +1,50 @@
+package com.aws.athena.udf.h3;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/** Checks the lookup of the preloaded native library and the priming of the handler. */
+public class ColdStartTest {
+
+    @Test
+    public void testis_on_library_path() throws IOException {
+        final Path empty = Files.createTempDirectory("h3-empty");
+        final Path withLibrary = Files.createTempDirectory("h3-native");
+        Files.createFile(withLibrary.resolve(System.mapLibraryName(ColdStart.LIBRARY_NAME)));
+
+        assertFalse(ColdStart.isOnLibraryPath(null));
+        assertFalse(ColdStart.isOnLibraryPath(""));
+        assertFalse(ColdStart.isOnLibraryPath(empty.toString()));
+        assertTrue(ColdStart.isOnLibraryPath(empty + File.pathSeparator + withLibrary));
+    }
+
+    @Test
+    public void testprime() throws IOException {
+        final H3AthenaHandler handler = new H3AthenaHandler();
+        final ColdStart coldStart = handler.getColdStart();
+
+        assertTrue(coldStart.getLoadNanos() >= 0);
+        assertTrue(coldStart.getPrimeNanos() >= 0);
+        assertEquals(0, handler.getPolygonCellCache().size());
+        assertEquals(0, handler.getPolygonCellCache().getMissCount());
+    }
+
+    @Test
+    public void testpriming_disabled() throws IOException {
+        final ColdStart coldStart = new ColdStart(false, null);
+        coldStart.loadH3Core();
+        coldStart.prime(new H3AthenaHandler());
+
+        assertFalse(coldStart.isPreExtracted());
+        assertTrue(coldStart.getLoadNanos() >= 0);
+        assertEquals(-1, coldStart.getPrimeNanos());
+    }
+}
@@ -0,0 +1,80 @@
+package com.aws.athena.udf.h3;
+
+import com.uber.h3core.H3Core;
+import com.uber.h3core.util.LatLng;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/** Checks the hierarchical compacted polyfill against compacting the polyfill of the H3 library. */
+public class CompactPolyfillTest {
+    private static final List<LatLng> CONCAVE = List.of(
+        new LatLng(43.604652, 1.444209), new LatLng(47.218371, -1.553621), new LatLng(50.62925, 3.05726),
+        new LatLng(48.864716, 2.349014), new LatLng(43.6961, 7.27178));
+    private static final List<LatLng> EXTERIOR = List.of(
+        new LatLng(40.48305525857179, -112.13417747722622), new LatLng(40.24855573342874, -112.08236892255083),
+        new LatLng(40.16717680240547, -111.77968666606233), new LatLng(40.32016865585556, -111.52771940855304),
+        new LatLng(40.63497990483772, -111.75917340878016), new LatLng(40.56037241099826, -112.06964540143417));
+    private static final List<LatLng> HOLE = List.of(
+        new LatLng(40.48067243111808, -111.88876877847025), new LatLng(40.40060396307876, -111.70812573681557),
+        new LatLng(40.32474764935123, -111.89541610612225));
+    private static final List<LatLng> OVERLAP = List.of(
+        new LatLng(40.3, -111.9), new LatLng(40.3, -111.3), new LatLng(40.9, -111.3), new LatLng(40.9, -111.9));
+    private static final List<LatLng> ARCTIC = List.of(
+        new LatLng(81.0, 10.0), new LatLng(81.0, 12.0), new LatLng(82.0, 12.0), new LatLng(82.0, 10.0));
+
+    private final H3Core h3Core;
+    private final CompactPolyfill polyfill;
+
+    public CompactPolyfillTest() throws IOException {
+        h3Core = H3Core.newInstance();
+        polyfill = new CompactPolyfill(h3Core);
+    }
+
+    @Test
+    public void testmatches_compacted_polyfill() {
+        for (int res = 0; res <= 8; ++res) {
+            assertMatches(List.of(List.of(CONCAVE)), res);
+            assertMatches(List.of(List.of(EXTERIOR, HOLE)), res);
+            assertMatches(List.of(List.of(EXTERIOR, HOLE), List.of(OVERLAP)), res);
+            assertMatches(List.of(List.of(ARCTIC)), res);
+        }
+        assertMatches(List.of(List.of(EXTERIOR, HOLE)), 10);
+    }
+
+    @Test
+    public void testcompact() {
+        final List<Long> cells = h3Core.polygonToCells(EXTERIOR, List.of(HOLE), 8);
+        final long[] array = cells.stream().mapToLong(Long::longValue).toArray();
+        assertEquals(new TreeSet<>(h3Core.compactCells(cells)), toSet(CompactPolyfill.compact(array)));
+
+        final List<Long> pentagonChildren = h3Core.cellToChildren(h3Core.getPentagons(2).iterator().next(), 4);
+        assertEquals(new TreeSet<>(h3Core.compactCells(pentagonChildren)),
+                     toSet(CompactPolyfill.compact(pentagonChildren.stream().mapToLong(Long::longValue).toArray())));
+    }
+
+    private void assertMatches(List<List<List<LatLng>>> polygons, int res) {
+        final List<Long> cells = new ArrayList<>();
+        for (final List<List<LatLng>> polygon : polygons) {
+            cells.addAll(h3Core.polygonToCells(polygon.get(0), polygon.subList(1, polygon.size()), res));
+        }
+        final Set<Long> expected = new TreeSet<>(h3Core.compactCells(new ArrayList<>(new TreeSet<>(cells))));
+        assertEquals(expected, toSet(polyfill.polygonsToCompactCells(polygons, res)), "res " + res);
+    }
+
+    private static Set<Long> toSet(long[] cells) {
+        final Set<Long> set = new TreeSet<>();
+        for (final long cell : cells) {
+            set.add(cell);
+        }
+        assertEquals(cells.length, set.size());
+        return set;
+    }
+}
@@ -0,0 +1,43 @@
+package com.aws.athena.udf.h3;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Locale;
+import java.util.Random;
+
+/** Checks that the fixed coordinate formatting matches String.format("%f"). */
+public class CoordinateFormatterTest {
+    private final Random random = new Random(3);
+
+    @Test
+    public void testappend_fixed_special_values() {
+        final double[] values = { 0.0, -0.0, 1e-9, -1e-9, 0.0000005, -0.0000005, 1.0000005, 2.5e-7, 999.9999995,
+                                  -179.9999996, 180.0, 1000.0, 123456789.123456789, 1e20, -1e300, Double.MIN_VALUE,
+                                  Double.MAX_VALUE, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY };
+        for (final double value : values) {
+            assertFixed(value);
+        }
+    }
+
+    @Test
+    public void testappend_fixed_coordinates() {
+        for (int i = 0; i < 200000; ++i) {
+            assertFixed(random.nextDouble() * 360.0 - 180.0);
+        }
+        // Values on and around the rounding ties of the 6th digit.
+        for (int i = 0; i < 200000; ++i) {
+            final double tie = (random.nextInt(360_000_000) - 180_000_000 + 0.5) / 1e6;
+            assertFixed(tie);
+            assertFixed(Math.nextUp(tie));
+            assertFixed(Math.nextDown(tie));
+        }
+    }
+
+    private static void assertFixed(double value) {
+        final StringBuilder actual = new StringBuilder();
+        CoordinateFormatter.appendFixed(value, actual);
+        assertEquals(String.format(Locale.ENGLISH, "%f", value), actual.toString(), "for " + value);
+    }
+}
@@ -0,0 +1,49 @@
+package com.aws.athena.udf.h3;
+
+import com.uber.h3core.util.LatLng;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+/** Checks the GeoJSON reader on polygons, multipolygons and features. */
+public class GeoJsonReaderTest {
+    private static final List<LatLng> EXTERIOR = List.of(new LatLng(40.0, -112.0), new LatLng(40.0, -111.0),
+                                                         new LatLng(41.0, -111.0), new LatLng(40.0, -112.0));
+    private static final List<LatLng> HOLE = List.of(new LatLng(40.2, -111.8), new LatLng(40.2, -111.5),
+                                                     new LatLng(40.5, -111.5), new LatLng(40.2, -111.8));
+    private static final String EXTERIOR_JSON = "[[-112.0, 40.0], [-111.0, 40.0], [-111.0, 41.0], [-112.0, 40.0]]";
+    private static final String HOLE_JSON = "[[-111.8, 40.2, 12.5], [-111.5, 40.2, 12.5], [-111.5, 40.5, 12.5], "
+        + "[-111.8, 40.2, 12.5]]";
+
+    @Test
+    public void testpolygon_and_multipolygon() throws IOException {
+        WkbReaderTest.assertPolygons(List.of(List.of(EXTERIOR, HOLE)), GeoJsonReader.readPolygons(
+            "{\"type\": \"Polygon\", \"coordinates\": [" + EXTERIOR_JSON + ", " + HOLE_JSON + "]}"));
+        // Members in any order, and unknown members skipped.
+        WkbReaderTest.assertPolygons(List.of(List.of(EXTERIOR, HOLE), List.of(EXTERIOR)), GeoJsonReader.readPolygons(
+            "{\"coordinates\": [[" + EXTERIOR_JSON + ", " + HOLE_JSON + "], [" + EXTERIOR_JSON + "]], "
+            + "\"bbox\": [-112, 40, -111, 41], \"type\": \"MultiPolygon\"}"));
+    }
+
+    @Test
+    public void testfeature() throws IOException {
+        WkbReaderTest.assertPolygons(List.of(List.of(EXTERIOR)), GeoJsonReader.readPolygons(
+            "{\"type\": \"Feature\", \"properties\": {\"name\": \"a\", \"tags\": [1, 2]}, "
+            + "\"geometry\": {\"type\": \"Polygon\", \"coordinates\": [" + EXTERIOR_JSON + "]}}"));
+    }
+
+    @Test
+    public void testinvalid() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GeoJsonReader.readPolygons(
+            "{\"type\": \"Point\", \"coordinates\": [1.0, 2.0]}"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GeoJsonReader.readPolygons(
+            "{\"type\": \"Polygon\", \"coordinates\": " + EXTERIOR_JSON + "}"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GeoJsonReader.readPolygons(
+            "{\"type\": \"Polygon\"}"));
+        Assertions.assertThrows(IOException.class, () -> GeoJsonReader.readPolygons(
+            "{\"type\": \"Polygon\", \"coordinates\": [" + EXTERIOR_JSON));
+    }
+}
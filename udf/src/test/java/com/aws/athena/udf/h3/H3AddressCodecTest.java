@@ -0,0 +1,57 @@
+package com.aws.athena.udf.h3;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Random;
+
+/** Checks the H3 address codec against Long.toHexString and Long.parseUnsignedLong. */
+public class H3AddressCodecTest {
+    private final Random random = new Random(3);
+
+    @Test
+    public void testencode_decode() {
+        final byte[] buffer = new byte[H3AddressCodec.MAX_LENGTH];
+        for (int i = 0; i < 10000; ++i) {
+            final long h3 = random.nextLong() >>> random.nextInt(64);
+            final String address = Long.toHexString(h3);
+
+            assertEquals(address, H3AddressCodec.encode(h3));
+            assertEquals(address, new String(buffer, 0, H3AddressCodec.encode(h3, buffer)));
+            assertEquals(h3, H3AddressCodec.decode(address));
+            assertEquals(h3, H3AddressCodec.decode(address.toUpperCase()));
+            assertEquals(h3, H3AddressCodec.tryDecode(address));
+        }
+        assertEquals("0", H3AddressCodec.encode(0L));
+        assertEquals("ffffffffffffffff", H3AddressCodec.encode(-1L));
+        assertEquals(-1L, H3AddressCodec.decode("ffffffffffffffff"));
+    }
+
+    @Test
+    public void testencode_decode_all() {
+        final List<String> addresses = List.of("85283473fffffff", "8928308280fffff");
+
+        assertEquals(addresses, H3AddressCodec.encodeAll(H3AddressCodec.decodeAll(addresses)));
+    }
+
+    @Test
+    public void testdecode_invalid() {
+        Assertions.assertThrows(NumberFormatException.class, () -> H3AddressCodec.decode(""));
+        Assertions.assertThrows(NumberFormatException.class, () -> H3AddressCodec.decode("8928308280fffffg"));
+        Assertions.assertThrows(NumberFormatException.class, () -> H3AddressCodec.decode("85283473fffffff00"));
+        Assertions.assertThrows(NumberFormatException.class, () -> H3AddressCodec.decode("-85283473fffffff"));
+        Assertions.assertThrows(NumberFormatException.class, () -> H3AddressCodec.decode("8528\u00e9473fffffff"));
+    }
+
+    @Test
+    public void testtry_decode_invalid() {
+        assertEquals(H3AddressCodec.INVALID, H3AddressCodec.tryDecode(""));
+        assertEquals(H3AddressCodec.INVALID, H3AddressCodec.tryDecode("8928308280fffffg"));
+        assertEquals(H3AddressCodec.INVALID, H3AddressCodec.tryDecode("85283473fffffff00"));
+        assertEquals(H3AddressCodec.INVALID, H3AddressCodec.tryDecode("-85283473fffffff"));
+        assertEquals(H3AddressCodec.INVALID, H3AddressCodec.tryDecode("8528\u00e9473fffffff"));
+    }
+}
@@ -15,12 +15,17 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 /**
  * Unit test for simple App.
  */
@@ -98,6 +103,70 @@ public class H3AthenaHandlerTest
         }
     }
 
+    @Test
+    public void testlat_lng_to_cells_multi() {
+        assertNull(handler.lat_lng_to_cells_multi(null, 10.5, 1, 5));
+        assertNull(handler.lat_lng_to_cell_addresses_multi(10.4, 13.2, 1, null));
+
+        final List<Long> cells = handler.lat_lng_to_cells_multi(43.0, -42.0, 3, 9);
+        final List<String> addresses = handler.lat_lng_to_cell_addresses_multi(43.0, -42.0, 3, 9);
+        assertEquals(7, cells.size());
+        for (int res = 3; res <= 9; ++res) {
+            assertEquals(handler.lat_lng_to_cell(43.0, -42.0, res), cells.get(res - 3));
+            assertEquals(handler.lat_lng_to_cell_address(43.0, -42.0, res), addresses.get(res - 3));
+        }
+        assertEquals(List.of(handler.lat_lng_to_cell(43.0, -42.0, 15)), handler.lat_lng_to_cells_multi(43.0, -42.0, 15, 15));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> handler.lat_lng_to_cells_multi(43.0, -42.0, 9, 3));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> handler.lat_lng_to_cells_multi(43.0, -42.0, 0, 16));
+    }
+
+    @Test
+    public void testlat_lng_to_cell_counts() {
+        assertNull(handler.lat_lng_to_cell_counts(null, List.of(10.5), 1));
+        assertNull(handler.lat_lng_to_cell_counts(List.of(10.5), List.of(10.5), null));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                                () -> handler.lat_lng_to_cell_counts(List.of(10.5), List.of(), 5));
+
+        final Random r = new Random(3);
+        final List<Double> lats = new ArrayList<>();
+        final List<Double> lngs = new ArrayList<>();
+        final Map<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 2000; ++i) {
+            final double lat = 40.0 + r.nextDouble();
+            final double lng = -112.0 + r.nextDouble();
+            lats.add(lat);
+            lngs.add(lng);
+            expected.merge(handler.lat_lng_to_cell(lat, lng, 6), 1, Integer::sum);
+        }
+        lats.add(null);
+        lngs.add(-112.0);
+
+        final Map<Long, Integer> actual = new HashMap<>();
+        for (final Map<String, Object> row : handler.lat_lng_to_cell_counts(lats, lngs, 6)) {
+            assertNull(actual.put((Long) row.get("cell"), (Integer) row.get("count")));
+        }
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testcell_to_children_range() {
+        final long h3 = handler.lat_lng_to_cell(43.0, -79.0, 6);
+        final String h3Address = handler.h3_to_string(h3);
+        final List<Long> children = handler.cell_to_children(h3, 9);
+
+        assertEquals(Long.valueOf(children.size()), handler.cell_to_children_size(h3, 9));
+        assertEquals(Long.valueOf(children.size()), handler.cell_to_children_size(h3Address, 9));
+        assertEquals(children.subList(100, 150), handler.cell_to_children_range(h3, 9, 100L, 50));
+        assertEquals(handler.cell_to_children(h3Address, 9).subList(300, children.size()),
+                     handler.cell_to_children_range(h3Address, 9, 300L, 1000));
+        assertNull(handler.cell_to_children_range(h3, 9, null, 50));
+
+        final long res0 = handler.get_res0_cells(0).get(0);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> handler.cell_to_descendants(res0, 12));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> handler.cell_to_children(res0, 15));
+        assertEquals(10, handler.cell_to_children_range(res0, 15, 4_000_000_000_000L, 10).size());
+    }
+
     @Test
     public void testget_icosahedron_faces() {
         final double latitude = 43.0;
@@ -565,7 +634,8 @@ public class H3AthenaHandlerTest
         final List<List<LatLng>>  empty = new LinkedList<>();
 
         for (int i = 0; i <= 5 ;++i) {
-            assertEquals(h3Core.polygonToCells(latLngPoints, empty, i), handler.polygon_to_cells(polygonWKT, i));
+            assertEquals(new ArrayList<>(new TreeSet<>(h3Core.polygonToCells(latLngPoints, empty, i))),
+                         handler.polygon_to_cells(polygonWKT, i));
             assertEquals(handler.polygon_to_cells(polygonWKT, i), handler.polygon_to_cells(polygonWKTAlt, i));
         }
     }
@@ -587,7 +657,9 @@ public class H3AthenaHandlerTest
         final List<List<LatLng>> empty = new LinkedList<>();
 
         for (int i = 0; i <= 5 ;++i) {
-            assertEquals(h3Core.polygonToCellAddresses(latLngPoints, empty, i), handler.polygon_to_cell_addresses(polygonWKT, i));
+            assertEquals(new TreeSet<>(h3Core.polygonToCells(latLngPoints, empty, i)).stream()
+                             .map(h3Core::h3ToString).collect(Collectors.toList()),
+                         handler.polygon_to_cell_addresses(polygonWKT, i));
             assertEquals(handler.polygon_to_cell_addresses(polygonWKT, i), handler.polygon_to_cell_addresses(polygonWKTAlt, i));
         }
 
@@ -630,6 +702,96 @@ public class H3AthenaHandlerTest
         }
     }
 
+    @Test
+    public void testpolygon_to_cells_multipolygon_union() throws Exception {
+        final String multiPolygonWKT = "MULTIPOLYGON (((2.0 48.0, 3.0 48.0, 3.0 49.0, 2.0 49.0, 2.0 48.0)), "
+            + "((2.5 48.5, 3.5 48.5, 3.5 49.5, 2.5 49.5, 2.5 48.5)))";
+        final List<LatLng> first = List.of(new LatLng(48.0, 2.0), new LatLng(48.0, 3.0), new LatLng(49.0, 3.0),
+                                           new LatLng(49.0, 2.0));
+        final List<LatLng> second = List.of(new LatLng(48.5, 2.5), new LatLng(48.5, 3.5), new LatLng(49.5, 3.5),
+                                            new LatLng(49.5, 2.5));
+
+        for (int i = 0; i <= 6; ++i) {
+            final Set<Long> union = new TreeSet<>(h3Core.polygonToCells(first, List.of(), i));
+            union.addAll(h3Core.polygonToCells(second, List.of(), i));
+            final List<Long> cells = handler.polygon_to_cells(multiPolygonWKT, i);
+            assertEquals(List.copyOf(union), cells);
+            assertEquals(cells.stream().map(h3Core::h3ToString).collect(Collectors.toList()),
+                         handler.polygon_to_cell_addresses(multiPolygonWKT, i));
+        }
+    }
+
+    @Test
+    public void testpolygon_to_cells_wkb_and_geojson() throws Exception {
+        final String wkt = "POLYGON ((-112.0 40.0, -111.0 40.0, -111.0 41.0, -112.0 40.0), "
+            + "(-111.8 40.2, -111.5 40.2, -111.5 40.5, -111.8 40.2))";
+        final String geoJson = "{\"type\": \"Polygon\", \"coordinates\": "
+            + "[[[-112.0, 40.0], [-111.0, 40.0], [-111.0, 41.0], [-112.0, 40.0]], "
+            + "[[-111.8, 40.2], [-111.5, 40.2], [-111.5, 40.5], [-111.8, 40.2]]]}";
+        final byte[] wkb = WkbWriter.multiPolygon(List.of(List.of(
+            List.of(new LatLng(40.0, -112.0), new LatLng(40.0, -111.0), new LatLng(41.0, -111.0)),
+            List.of(new LatLng(40.2, -111.8), new LatLng(40.2, -111.5), new LatLng(40.5, -111.5)))));
+
+        for (int i = 4; i <= 7; ++i) {
+            final Set<Long> expected = new HashSet<>(handler.polygon_to_cells(wkt, i));
+            assertEquals(expected, new HashSet<>(handler.polygon_to_cells(wkb, i)));
+            assertEquals(expected, new HashSet<>(handler.polygon_to_cells_geojson(geoJson, i)));
+            assertEquals(handler.polygon_to_cell_addresses(wkt, i), handler.polygon_to_cell_addresses_geojson(geoJson, i));
+            assertEquals(new HashSet<>(handler.polygon_to_cell_addresses(wkt, i)),
+                         new HashSet<>(handler.polygon_to_cell_addresses(wkb, i)));
+        }
+        assertNull(handler.polygon_to_cells((byte[]) null, 5));
+        assertNull(handler.polygon_to_cells_geojson(geoJson, null));
+    }
+
+    @Test
+    public void testtry_functions() throws Exception {
+        final Long h3 = handler.lat_lng_to_cell(43.0, -42.0, 9);
+        final String h3Address = handler.h3_to_string(h3);
+
+        assertEquals(h3, handler.try_lat_lng_to_cell(43.0, -42.0, 9));
+        assertEquals(h3Address, handler.try_lat_lng_to_cell_address(43.0, -42.0, 9));
+        assertNull(handler.try_lat_lng_to_cell(Double.NaN, -42.0, 9));
+        assertNull(handler.try_lat_lng_to_cell(43.0, Double.NEGATIVE_INFINITY, 9));
+        assertNull(handler.try_lat_lng_to_cell(43.0, -42.0, 16));
+        assertNull(handler.try_lat_lng_to_cell_address(43.0, -42.0, -1));
+
+        assertEquals(h3, handler.try_string_to_h3(h3Address));
+        assertEquals(h3, handler.try_string_to_h3(h3Address.toUpperCase()));
+        assertNull(handler.try_string_to_h3("not an address"));
+        assertNull(handler.try_string_to_h3("0"));
+        assertNull(handler.try_string_to_h3(null));
+
+        assertEquals(handler.cell_to_parent(h3, 4), handler.try_cell_to_parent(h3, 4));
+        assertEquals(handler.cell_to_parent(h3Address, 4), handler.try_cell_to_parent(h3Address, 4));
+        assertNull(handler.try_cell_to_parent(h3, 10));
+        assertNull(handler.try_cell_to_parent(h3, -1));
+        assertNull(handler.try_cell_to_parent(-1L, 0));
+        assertNull(handler.try_cell_to_parent("zz", 0));
+
+        assertEquals(handler.cell_to_boundary_sys(h3, LAT), handler.try_cell_to_boundary_sys(h3, LAT));
+        assertNull(handler.try_cell_to_boundary_sys(h3, "unk"));
+        assertNull(handler.try_cell_to_boundary_sys(0L, LNG));
+
+        assertEquals(handler.cell_area(h3, "km2"), handler.try_cell_area(h3, "km2"));
+        assertEquals(handler.cell_area(h3Address, "m2"), handler.try_cell_area(h3Address, "m2"));
+        assertNull(handler.try_cell_area(h3, "acres"));
+        assertNull(handler.try_cell_area("8928308280fffffg", "km2"));
+
+        final String wkt = "POLYGON ((-112.0 40.0, -111.0 40.0, -111.0 41.0, -112.0 40.0))";
+        assertEquals(handler.polygon_to_cells(wkt, 5), handler.try_polygon_to_cells(wkt, 5));
+        assertEquals(handler.polygon_to_cell_addresses(wkt, 5), handler.try_polygon_to_cell_addresses(wkt, 5));
+        assertNull(handler.try_polygon_to_cells("POLYGON ((-112.0 40.0, -111.0", 5));
+        assertNull(handler.try_polygon_to_cells("POLYGON ((-112.0 40.0, -111.0 1e999, -111.0 41.0, -112.0 40.0))", 5));
+        assertNull(handler.try_polygon_to_cells("LINESTRING (-112.0 40.0, -111.0 40.0)", 5));
+        assertNull(handler.try_polygon_to_cell_addresses(wkt, 16));
+
+        // Text only the complete reader accepts, cached by polygon_to_cells, is still rejected by the try_ UDFs.
+        final String wktZ = "POLYGON Z ((-112.0 40.0 1.0, -111.0 40.0 1.0, -111.0 41.0 1.0, -112.0 40.0 1.0))";
+        assertEquals(handler.polygon_to_cells(wkt, 5), handler.polygon_to_cells(wktZ, 5));
+        assertNull(handler.try_polygon_to_cells(wktZ, 5));
+    }
+
     @Test
     public void testcells_to_multipolygon() throws IOException {
         final List<Long> h3Indexes = List.of( 613498908116516863L,
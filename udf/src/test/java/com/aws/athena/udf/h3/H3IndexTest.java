@@ -0,0 +1,183 @@
+package com.aws.athena.udf.h3;
+
+import com.uber.h3core.H3Core;
+import com.uber.h3core.exceptions.H3Exception;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/** Checks the pure Java index functions against the H3 native library. */
+public class H3IndexTest {
+    private final H3Core h3Core;
+    private final Random random = new Random(7);
+
+    public H3IndexTest() throws IOException {
+        h3Core = H3Core.newInstance();
+    }
+
+    @Test
+    public void testinspection() {
+        for (final long h3 : randomCells(2000)) {
+            assertEquals(h3Core.getResolution(h3), H3Index.getResolution(h3));
+            assertEquals(h3Core.getBaseCellNumber(h3), H3Index.getBaseCellNumber(h3));
+            assertEquals(h3Core.isResClassIII(h3), H3Index.isResClassIII(h3));
+        }
+        for (final long pentagon : h3Core.getPentagons(5)) {
+            assertEquals(h3Core.getBaseCellNumber(pentagon), H3Index.getBaseCellNumber(pentagon));
+        }
+    }
+
+    @Test
+    public void testis_valid_cell() {
+        for (final long h3 : randomCells(2000)) {
+            assertEquals(true, H3Index.isValidCell(h3));
+            for (int bit = 0; bit < Long.SIZE; ++bit) {
+                final long flipped = h3 ^ (1L << bit);
+                assertEquals(h3Core.isValidCell(flipped), H3Index.isValidCell(flipped), Long.toHexString(flipped));
+            }
+        }
+        for (final long pentagon : h3Core.getPentagons(6)) {
+            assertEquals(true, H3Index.isValidCell(pentagon));
+            for (int res = 1; res <= 6; ++res) {
+                for (int digit = 0; digit < 8; ++digit) {
+                    final long changed = pentagon & ~(7L << ((15 - res) * 3)) | ((long) digit << ((15 - res) * 3));
+                    assertEquals(h3Core.isValidCell(changed), H3Index.isValidCell(changed), Long.toHexString(changed));
+                }
+            }
+        }
+        for (int i = 0; i < 2000; ++i) {
+            final long h3 = random.nextLong();
+            assertEquals(h3Core.isValidCell(h3), H3Index.isValidCell(h3));
+        }
+        assertEquals(false, H3Index.isValidCell(0));
+    }
+
+    @Test
+    public void testcell_to_parent() {
+        for (final long h3 : randomCells(2000)) {
+            final int res = H3Index.getResolution(h3);
+            for (int parentRes = 0; parentRes <= res; ++parentRes) {
+                assertEquals(h3Core.cellToParent(h3, parentRes), H3Index.cellToParent(h3, parentRes));
+            }
+
+            final long[] parents = H3Index.cellToParents(h3);
+            assertEquals(res, parents.length);
+            for (int i = 0; i < parents.length; ++i) {
+                assertEquals(h3Core.cellToParent(h3, res - 1 - i), parents[i]);
+            }
+
+            for (int minRes = 0; minRes <= res; ++minRes) {
+                final long[] cells = H3Index.cellToResolutions(h3, minRes);
+                assertEquals(res - minRes + 1, cells.length);
+                for (int i = 0; i < cells.length; ++i) {
+                    assertEquals(h3Core.cellToParent(h3, minRes + i), cells[i]);
+                }
+            }
+            Assertions.assertThrows(IllegalArgumentException.class, () -> H3Index.cellToResolutions(h3, res + 1));
+
+            Assertions.assertThrows(IllegalArgumentException.class, () -> H3Index.cellToParent(h3, res + 1));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> H3Index.cellToParent(h3, -1));
+        }
+    }
+
+    @Test
+    public void testcell_to_center_child() {
+        for (final long h3 : randomCells(2000)) {
+            final int res = H3Index.getResolution(h3);
+            for (int childRes = res; childRes <= H3Index.MAX_RES; ++childRes) {
+                assertEquals(h3Core.cellToCenterChild(h3, childRes), H3Index.cellToCenterChild(h3, childRes));
+            }
+
+            Assertions.assertThrows(IllegalArgumentException.class, () -> H3Index.cellToCenterChild(h3, 16));
+            if (res > 0) {
+                Assertions.assertThrows(H3Exception.class, () -> H3Index.cellToCenterChild(h3, res - 1));
+            }
+        }
+    }
+
+    @Test
+    public void testcell_to_children() {
+        final List<Long> cells = randomCells(300);
+        for (final long pentagon : h3Core.getPentagons(2)) {
+            cells.add(pentagon);
+            cells.add(h3Core.cellToChildren(pentagon, 3).get(3));
+        }
+        for (final long h3 : cells) {
+            assertEquals(h3Core.isPentagon(h3), H3Index.isPentagon(h3));
+            final int res = H3Index.getResolution(h3);
+            final int maxDepth = Math.min(3, H3Index.MAX_RES - res);
+            final List<Long> descendants = new ArrayList<>();
+            for (int childRes = res; childRes <= res + maxDepth; ++childRes) {
+                final List<Long> expected = h3Core.cellToChildren(h3, childRes);
+                assertEquals(expected.size(), H3Index.cellToChildrenSize(h3, childRes));
+                assertEquals(expected, new LongArray(H3Index.cellToChildren(h3, childRes)));
+                if (childRes > res) {
+                    descendants.addAll(expected);
+                }
+            }
+            assertEquals(descendants, new LongArray(H3Index.cellToDescendants(h3, maxDepth)));
+
+            Assertions.assertThrows(IllegalArgumentException.class, () -> H3Index.cellToChildren(h3, 16));
+            if (res > 0) {
+                Assertions.assertThrows(H3Exception.class, () -> H3Index.cellToChildren(h3, res - 1));
+            }
+        }
+        Assertions.assertThrows(IllegalArgumentException.class,
+                                () -> H3Index.cellToChildrenSize(h3Core.getRes0Cells().iterator().next(), 15));
+    }
+
+    @Test
+    public void testcell_to_children_range() {
+        final List<Long> cells = randomCells(100);
+        for (final long pentagon : h3Core.getPentagons(1)) {
+            cells.add(pentagon);
+            cells.add(h3Core.cellToChildren(pentagon, 2).get(2));
+        }
+        for (final long h3 : cells) {
+            final int res = H3Index.getResolution(h3);
+            final int childRes = Math.min(H3Index.MAX_RES, res + 3);
+            final List<Long> expected = h3Core.cellToChildren(h3, childRes);
+            for (int position = 0; position < expected.size(); position += 7) {
+                assertEquals(expected.get(position), H3Index.cellToChildAt(h3, childRes, position));
+            }
+            final int offset = random.nextInt(expected.size());
+            final int limit = random.nextInt(expected.size());
+            assertEquals(expected.subList(offset, Math.min(expected.size(), offset + limit)),
+                         new LongArray(H3Index.cellToChildrenRange(h3, childRes, offset, limit)));
+            assertEquals(0, H3Index.cellToChildrenRange(h3, childRes, expected.size(), 10).length);
+
+            Assertions.assertThrows(IllegalArgumentException.class,
+                                    () -> H3Index.cellToChildAt(h3, childRes, expected.size()));
+            Assertions.assertThrows(IllegalArgumentException.class,
+                                    () -> H3Index.cellToChildrenRange(h3, childRes, -1, 10));
+        }
+
+        final long res0 = h3Core.getRes0Cells().iterator().next();
+        final long pentagon = h3Core.getPentagons(0).iterator().next();
+        assertEquals(678223072849L, H3Index.cellToChildrenCount(res0, 14));
+        assertEquals(1 + 5 * (678223072849L - 1) / 6, H3Index.cellToChildrenCount(pentagon, 14));
+        assertEquals(7 + 49 + 343, H3Index.cellToDescendantsCount(res0, 3));
+        long last = pentagon;
+        for (int res = 1; res <= 14; ++res) {
+            final List<Long> children = h3Core.cellToChildren(last, res);
+            last = children.get(children.size() - 1);
+        }
+        assertEquals(last, H3Index.cellToChildAt(pentagon, 14, H3Index.cellToChildrenCount(pentagon, 14) - 1));
+    }
+
+    private List<Long> randomCells(int count) {
+        final List<Long> cells = new ArrayList<>();
+        for (int i = 0; i < count; ++i) {
+            cells.add(h3Core.latLngToCell(random.nextDouble() * 180.0 - 90.0, random.nextDouble() * 360.0 - 180.0,
+                                          random.nextInt(16)));
+        }
+        return cells;
+    }
+}
@@ -0,0 +1,37 @@
+package com.aws.athena.udf.h3;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/** Checks the primitive long to int map against a HashMap. */
+public class LongIntHashMapTest {
+
+    @Test
+    public void testagainst_hash_map() {
+        final Random random = new Random(5);
+        final LongIntHashMap map = new LongIntHashMap(4);
+        final Map<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 100000; ++i) {
+            // Few distinct keys, with H3-like high bits, so that keys repeat and collide.
+            final long key = 0x08a2a1072b59ffffL + (random.nextInt(20000) << 12);
+            final int value = random.nextInt(Integer.MAX_VALUE);
+            if (random.nextBoolean()) {
+                final Integer previous = expected.putIfAbsent(key, value);
+                assertEquals(previous == null ? LongIntHashMap.MISSING : previous, map.putIfAbsent(key, value));
+            } else {
+                expected.put(key, value);
+                map.put(key, value);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (final Map.Entry<Long, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        assertEquals(LongIntHashMap.MISSING, map.get(0L));
+    }
+}
@@ -0,0 +1,182 @@
+package com.aws.athena.udf.h3;
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.BlockUtils;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import com.uber.h3core.H3Core;
+
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.types.Types.MinorType;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/** Checks that batches evaluated in parallel hold the same rows as batches evaluated serially. */
+public class ParallelBatchExecutorTest {
+    private final H3AthenaHandler handler;
+    private final VectorizedFunctions vectorizedFunctions;
+    private final BlockAllocator allocator;
+    private final ParallelBatchExecutor executor;
+    private final Random random = new Random(17);
+
+    public ParallelBatchExecutorTest() throws IOException {
+        handler = new H3AthenaHandler();
+        vectorizedFunctions = new VectorizedFunctions(H3Core.newInstance(), CellCountLimit.fromEnvironment());
+        allocator = new BlockAllocatorImpl();
+        executor = new ParallelBatchExecutor(4, Map.of("lat_lng_to_cell", 1, "cell_to_boundary", 1,
+                                                       "cell_to_polygon_wkt", 1));
+    }
+
+    @AfterEach
+    public void closeAllocator() {
+        allocator.close();
+    }
+
+    @Test
+    public void testfixed_width_in_place() throws Exception {
+        final List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 1000; ++i) {
+            rows.add(i % 7 == 0 ? new Object[] { null, 10.0, 3 }
+                : new Object[] { random.nextDouble() * 180.0 - 90.0, random.nextDouble() * 360.0 - 180.0,
+                                 random.nextInt(16) });
+        }
+        assertParallelMatchesSerial("lat_lng_to_cell", MinorType.BIGINT.getType(), rows,
+                                    Double.class, Double.class, Integer.class);
+    }
+
+    @Test
+    public void testchunks() throws Exception {
+        final List<Object[]> sepRows = new ArrayList<>();
+        final List<Object[]> cellRows = new ArrayList<>();
+        for (int i = 0; i < 300; ++i) {
+            final Long cell = handler.lat_lng_to_cell(random.nextDouble() * 180.0 - 90.0,
+                                                      random.nextDouble() * 360.0 - 180.0, random.nextInt(16));
+            sepRows.add(new Object[] { i % 11 == 0 ? null : cell, ";" });
+            cellRows.add(new Object[] { i % 13 == 0 ? null : cell });
+        }
+        // A vectorized UDF with a list result, then a UDF evaluated through reflection.
+        assertParallelMatchesSerial("cell_to_boundary", null, sepRows, Long.class, String.class);
+        assertParallelMatchesSerial("cell_to_polygon_wkt", MinorType.VARCHAR.getType(), cellRows, Long.class);
+    }
+
+    @Test
+    public void testconstant_polygon_filled_once() throws Exception {
+        final String polygonWKT = handler.cell_to_polygon_wkt(handler.lat_lng_to_cell(43.0, -79.0, 5));
+        final List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 64; ++i) {
+            rows.add(new Object[] { polygonWKT, 7 });
+        }
+        final Method method = H3AthenaHandler.class.getMethod("polygon_to_cells", String.class, Integer.class);
+        final Schema outputSchema = SchemaBuilder.newBuilder()
+            .addListField("result", MinorType.BIGINT.getType()).build();
+        final ParallelBatchExecutor polygonExecutor = new ParallelBatchExecutor(4, Map.of("polygon_to_cells", 16));
+        final PolygonCellCache cache = handler.getPolygonCellCache();
+        cache.clear();
+
+        try (Block output = polygonExecutor.process(allocator, method, null, newInputBlock(rows, String.class,
+                                                    Integer.class), outputSchema,
+                                                    in -> handler.processBatch(allocator, method, in, outputSchema))) {
+            assertEquals(rows.size(), output.getRowCount());
+        }
+        assertEquals(1, cache.getMissCount());
+        assertEquals(rows.size() - 1, cache.getHitCount());
+    }
+
+    @Test
+    public void testfailure() throws Exception {
+        final Method method = H3AthenaHandler.class.getMethod("lat_lng_to_cell", Double.class, Double.class,
+                                                              Integer.class);
+        final List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 500; ++i) {
+            rows.add(new Object[] { 10.0, 10.0, i == 400 ? 16 : 5 });
+        }
+        final Block input = newInputBlock(rows, Double.class, Double.class, Integer.class);
+        final Schema outputSchema = SchemaBuilder.newBuilder().addField("result", MinorType.BIGINT.getType()).build();
+        Assertions.assertThrows(IllegalArgumentException.class,
+            () -> executor.process(allocator, method, vectorizedFunctions.get(method), input, outputSchema,
+                                   in -> handler.processRows(allocator, method, in, outputSchema)));
+    }
+
+    @Test
+    public void testfailure_releases_chunks() throws Exception {
+        final Method method = H3AthenaHandler.class.getMethod("lat_lng_to_cell", Double.class, Double.class,
+                                                              Integer.class);
+        final List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 500; ++i) {
+            rows.add(new Object[] { 10.0, 10.0, i == 400 ? 16 : 5 });
+        }
+        try (BlockAllocator chunkAllocator = new BlockAllocatorImpl()) {
+            final Block input = newInputBlock(chunkAllocator, rows, Double.class, Double.class, Integer.class);
+            final long inputUsage = chunkAllocator.getUsage();
+            final Schema outputSchema = SchemaBuilder.newBuilder().addField("result", MinorType.BIGINT.getType()).build();
+            // The failing chunk throws before allocating, so that only the blocks of the executor remain to close.
+            Assertions.assertThrows(IllegalArgumentException.class,
+                () -> executor.process(chunkAllocator, method, null, input, outputSchema, in -> {
+                    if (!ConstantColumns.isConstant(in.getFieldVector("arg2"), 0, in.getRowCount())) {
+                        throw new IllegalArgumentException("invalid resolution");
+                    }
+                    return handler.processRows(chunkAllocator, method, in, outputSchema);
+                }));
+            assertEquals(inputUsage, chunkAllocator.getUsage());
+        }
+    }
+
+    /** Evaluates rows in parallel, and serially through the handler, and compares the results row by row.
+     *  A null result type stands for a list of VARCHAR.
+     */
+    private void assertParallelMatchesSerial(String name, ArrowType resultType, List<Object[]> rows,
+                                             Class<?>... parameterTypes) throws Exception {
+        final Method method = H3AthenaHandler.class.getMethod(name, parameterTypes);
+        final Schema outputSchema = resultType == null
+            ? SchemaBuilder.newBuilder().addListField("result", MinorType.VARCHAR.getType()).build()
+            : SchemaBuilder.newBuilder().addField("result", resultType).build();
+        final Block input = newInputBlock(rows, parameterTypes);
+
+        final Block serial = handler.processRows(allocator, method, input, outputSchema);
+        final Block parallel = executor.process(allocator, method, vectorizedFunctions.get(method), input,
+                                                outputSchema, in -> handler.processRows(allocator, method, in,
+                                                                                        outputSchema));
+        assertEquals(rows.size(), parallel.getRowCount());
+        final FieldVector expected = serial.getFieldVector("result");
+        final FieldVector actual = parallel.getFieldVector("result");
+        for (int i = 0; i < rows.size(); ++i) {
+            assertEquals(expected.getObject(i), actual.getObject(i), name + " at row " + i);
+        }
+    }
+
+    private Block newInputBlock(List<Object[]> rows, Class<?>... parameterTypes) {
+        return newInputBlock(allocator, rows, parameterTypes);
+    }
+
+    private static Block newInputBlock(BlockAllocator allocator, List<Object[]> rows, Class<?>... parameterTypes) {
+        final SchemaBuilder schema = SchemaBuilder.newBuilder();
+        for (int p = 0; p < parameterTypes.length; ++p) {
+            schema.addField("arg" + p, parameterTypes[p] == Long.class ? MinorType.BIGINT.getType()
+                : parameterTypes[p] == Integer.class ? MinorType.INT.getType()
+                : parameterTypes[p] == Double.class ? MinorType.FLOAT8.getType()
+                : MinorType.VARCHAR.getType());
+        }
+        final Block input = allocator.createBlock(schema.build());
+        for (int p = 0; p < parameterTypes.length; ++p) {
+            final FieldVector vector = input.getFieldVector("arg" + p);
+            for (int i = 0; i < rows.size(); ++i) {
+                BlockUtils.setValue(vector, i, rows.get(i)[p]);
+            }
+        }
+        input.setRowCount(rows.size());
+        return input;
+    }
+}
@@ -0,0 +1,88 @@
+package com.aws.athena.udf.h3;
+
+import com.uber.h3core.H3Core;
+import com.uber.h3core.util.LatLng;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+
+/** Checks that polygons filled strip by strip have exactly the cells of the serial polyfill. */
+public class ParallelPolyfillTest {
+    private static final List<LatLng> CONCAVE = List.of(
+        new LatLng(43.604652, 1.444209), new LatLng(47.218371, -1.553621), new LatLng(50.62925, 3.05726),
+        new LatLng(48.864716, 2.349014), new LatLng(43.6961, 7.27178));
+    private static final List<LatLng> EXTERIOR = List.of(
+        new LatLng(40.48305525857179, -112.13417747722622), new LatLng(40.24855573342874, -112.08236892255083),
+        new LatLng(40.16717680240547, -111.77968666606233), new LatLng(40.32016865585556, -111.52771940855304),
+        new LatLng(40.63497990483772, -111.75917340878016), new LatLng(40.56037241099826, -112.06964540143417));
+    private static final List<LatLng> HOLE = List.of(
+        new LatLng(40.48067243111808, -111.88876877847025), new LatLng(40.40060396307876, -111.70812573681557),
+        new LatLng(40.32474764935123, -111.89541610612225));
+
+    private final H3Core h3Core;
+
+    public ParallelPolyfillTest() throws IOException {
+        h3Core = H3Core.newInstance();
+    }
+
+    @Test
+    public void teststrips_match_serial_polyfill() {
+        final ParallelPolyfill parallel = new ParallelPolyfill(h3Core, 0, 4);
+        for (int res = 4; res <= 8; ++res) {
+            assertArrayEquals(serial(List.of(List.of(CONCAVE)), res),
+                              parallel.polygonsToCells(List.of(List.of(CONCAVE)), res));
+            assertArrayEquals(serial(List.of(List.of(EXTERIOR, HOLE)), res),
+                              parallel.polygonsToCells(List.of(List.of(EXTERIOR, HOLE)), res));
+            assertArrayEquals(serial(List.of(List.of(EXTERIOR, HOLE), List.of(CONCAVE)), res),
+                              parallel.polygonsToCells(List.of(List.of(EXTERIOR, HOLE), List.of(CONCAVE)), res));
+        }
+    }
+
+    @Test
+    public void testsmall_polygon_filled_in_one_piece() {
+        final ParallelPolyfill parallel = new ParallelPolyfill(h3Core, ParallelPolyfill.DEFAULT_MIN_CELLS, 4);
+        assertArrayEquals(serial(List.of(List.of(CONCAVE)), 5),
+                          parallel.polygonsToCells(List.of(List.of(CONCAVE)), 5));
+    }
+
+    @Test
+    public void testserial_in_fork_join_pool() throws Exception {
+        final ParallelPolyfill parallel = new ParallelPolyfill(h3Core, 0, 4);
+        final ForkJoinPool batchPool = new ForkJoinPool(2);
+        try {
+            assertArrayEquals(serial(List.of(List.of(CONCAVE)), 6),
+                              batchPool.submit(() -> parallel.polygonsToCells(List.of(List.of(CONCAVE)), 6)).get());
+        } finally {
+            batchPool.shutdown();
+        }
+    }
+
+    @Test
+    public void testclip() {
+        final List<LatLng> square = List.of(new LatLng(0, 0), new LatLng(0, 10), new LatLng(10, 10),
+                                            new LatLng(10, 0));
+        final List<LatLng> clipped = ParallelPolyfill.clip(square, 2, 5);
+        assertEquals(4, clipped.size());
+        for (final LatLng point : clipped) {
+            assertEquals(true, point.lng == 2 || point.lng == 5);
+        }
+        assertEquals(0, ParallelPolyfill.clip(square, 20, 30).size());
+    }
+
+    /** The serial polyfill of each polygon, sorted and deduplicated. */
+    private long[] serial(List<List<List<LatLng>>> polygons, int res) {
+        final TreeSet<Long> cells = new TreeSet<>();
+        for (final List<List<LatLng>> polygon : polygons) {
+            cells.addAll(h3Core.polygonToCells(polygon.get(0), new ArrayList<>(polygon.subList(1, polygon.size())), res));
+        }
+        return cells.stream().mapToLong(Long::longValue).toArray();
+    }
+}
@@ -0,0 +1,73 @@
+package com.aws.athena.udf.h3;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.util.List;
+
+/** Checks the bounds and the counters of the polygon cell cache. */
+public class PolygonCellCacheTest {
+    private static final String POLYGON_WKT =
+        "POLYGON ((1.444209 43.604652, -1.553621 47.218371, 3.05726 50.62925, 2.349014 48.864716, 7.27178 43.6961, 1.444209 43.604652))";
+
+    @Test
+    public void testhits_and_misses() {
+        final PolygonCellCache cache = new PolygonCellCache(1 << 20);
+        final long[] cells = { 1L, 2L, 3L };
+
+        assertNull(cache.get("a", 3));
+        cache.put("a", 3, cells);
+        assertArrayEquals(cells, cache.get("a", 3));
+        assertNull(cache.get("a", 4));
+        assertNull(cache.get("b", 3));
+
+        assertEquals(1, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testevicts_least_recently_used() {
+        final PolygonCellCache cache = new PolygonCellCache(3 * (128 + 2 + 8 * 100));
+        cache.put("a", 1, new long[100]);
+        cache.put("b", 1, new long[100]);
+        cache.put("c", 1, new long[100]);
+        cache.get("a", 1);
+        cache.put("d", 1, new long[100]);
+
+        assertNull(cache.get("b", 1));
+        assertEquals(100, cache.get("a", 1).length);
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(3 * (128 + 2 + 8 * 100), cache.getSizeInBytes());
+    }
+
+    @Test
+    public void testoversized_polygon_not_cached() {
+        final PolygonCellCache cache = new PolygonCellCache(1000);
+        cache.put("a", 1, new long[100]);
+        cache.put("b", 1, new long[200]);
+
+        assertEquals(1, cache.size());
+        assertNull(cache.get("b", 1));
+        assertEquals(0, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testpolygon_to_cells_cached() throws IOException {
+        final H3AthenaHandler handler = new H3AthenaHandler();
+        final PolygonCellCache cache = handler.getPolygonCellCache();
+
+        final List<Long> cells = handler.polygon_to_cells(POLYGON_WKT, 6);
+        final List<String> addresses = handler.polygon_to_cell_addresses(POLYGON_WKT, 6);
+        assertEquals(cells, handler.polygon_to_cells(POLYGON_WKT, 6));
+        assertEquals(addresses, H3AddressCodec.encodeAll(cells));
+
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2, cache.getHitCount());
+    }
+}
@@ -0,0 +1,57 @@
+package com.aws.athena.udf.h3;
+
+import jdk.jfr.EventType;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/** Checks that the flight recorder events are disabled by default and recorded once enabled. */
+public class UdfEventsTest {
+    private static final String POLYGON_WKT =
+        "POLYGON ((1.444209 43.604652, -1.553621 47.218371, 3.05726 50.62925, 2.349014 48.864716, 7.27178 43.6961, 1.444209 43.604652))";
+
+    @Test
+    public void testdisabled_by_default() {
+        assertFalse(EventType.getEventType(UdfEvents.Batch.class).isEnabled());
+        assertFalse(EventType.getEventType(UdfEvents.Polyfill.class).isEnabled());
+    }
+
+    @Test
+    public void testpolygon_events() throws IOException {
+        final H3AthenaHandler handler = new H3AthenaHandler();
+        final Path file = Files.createTempFile("h3-udf", ".jfr");
+        final List<Long> cells;
+        try (Recording recording = new Recording()) {
+            recording.enable(UdfEvents.PolygonRead.class);
+            recording.enable(UdfEvents.Polyfill.class);
+            recording.enable(UdfEvents.MultiPolygon.class);
+            recording.start();
+            cells = handler.polygon_to_cells(POLYGON_WKT, 4);
+            handler.polygon_to_cells(POLYGON_WKT, 4);
+            handler.cells_to_multi_polygon(cells, false);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.delete(file);
+        assertEquals(List.of("com.aws.athena.udf.h3.PolygonRead", "com.aws.athena.udf.h3.Polyfill",
+                             "com.aws.athena.udf.h3.MultiPolygon"),
+                     events.stream().map(e -> e.getEventType().getName()).collect(Collectors.toList()));
+        assertEquals(POLYGON_WKT.length(), events.get(0).getInt("size"));
+        assertEquals(4, events.get(1).getInt("res"));
+        assertEquals(cells.size(), events.get(1).getInt("cells"));
+        assertEquals(cells.size(), events.get(2).getInt("cells"));
+    }
+}
@@ -0,0 +1,82 @@
+package com.aws.athena.udf.h3;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+/** Checks the embedded metric format lines written by the UDF metrics. */
+public class UdfMetricsTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void testline_per_function() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final UdfMetrics metrics = new UdfMetrics(true, null, new PrintStream(out, true, StandardCharsets.UTF_8));
+        metrics.record("lat_lng_to_cell", 100, 2_000_000, 800);
+        metrics.record("cell_area", 10, 1_000_000, 80);
+        final String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+
+        final JsonNode cellArea = mapper.readTree(lines[1]);
+        final JsonNode directive = cellArea.get("_aws").get("CloudWatchMetrics").get(0);
+        assertEquals(UdfMetrics.NAMESPACE, directive.get("Namespace").asText());
+        assertEquals(UdfMetrics.FUNCTION, directive.get("Dimensions").get(0).get(0).asText());
+        assertEquals(4, directive.get("Metrics").size());
+        assertEquals("cell_area", cellArea.get(UdfMetrics.FUNCTION).asText());
+        assertEquals(10, cellArea.get("Rows").asLong());
+        assertEquals(80, cellArea.get("BytesReturned").asLong());
+        assertEquals(1.0, cellArea.get("BatchTime").asDouble());
+    }
+
+    @Test
+    public void testsample_per_batch() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final UdfMetrics metrics = new UdfMetrics(true, null, new PrintStream(out, true, StandardCharsets.UTF_8));
+        metrics.record("grid_disk", 5, 3_000_000, -1);
+        metrics.record("grid_disk", 7, 1_000_000, 64);
+
+        final String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        final JsonNode failed = mapper.readTree(lines[0]);
+        assertEquals(1, failed.get("Exceptions").asLong());
+        assertEquals(0, failed.get("BytesReturned").asLong());
+        final JsonNode second = mapper.readTree(lines[1]);
+        assertEquals(7, second.get("Rows").asLong());
+        assertEquals(0, second.get("Exceptions").asLong());
+        assertEquals(3.0, failed.get("BatchTime").asDouble());
+        assertEquals(1.0, second.get("BatchTime").asDouble());
+    }
+
+    @Test
+    public void testpolygon_cell_cache_line() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final PolygonCellCache cache = new PolygonCellCache(1 << 20);
+        final UdfMetrics metrics = new UdfMetrics(true, cache, new PrintStream(out, true, StandardCharsets.UTF_8));
+        cache.get("POLYGON((0 0, 1 0, 1 1, 0 0))", 5);
+        cache.put("POLYGON((0 0, 1 0, 1 1, 0 0))", 5, new long[] { 1L, 2L });
+        cache.get("POLYGON((0 0, 1 0, 1 1, 0 0))", 5);
+        metrics.record("polygon_to_cells", 2, 1_000_000, 64);
+        metrics.record("cell_area", 1, 1_000_000, 8);
+
+        final String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        final JsonNode line = mapper.readTree(lines[1]);
+        final JsonNode directive = line.get("_aws").get("CloudWatchMetrics").get(0);
+        assertEquals(UdfMetrics.CACHE, directive.get("Dimensions").get(0).get(0).asText());
+        assertEquals(UdfMetrics.POLYGON_CELL_CACHE, line.get(UdfMetrics.CACHE).asText());
+        assertEquals(1, line.get("CacheHits").asLong());
+        assertEquals(1, line.get("CacheMisses").asLong());
+        assertEquals(0, line.get("CacheEvictions").asLong());
+        assertEquals(1, line.get("CacheEntries").asLong());
+        assertEquals(cache.getSizeInBytes(), line.get("CacheBytes").asLong());
+        assertEquals("cell_area", mapper.readTree(lines[2]).get(UdfMetrics.FUNCTION).asText());
+    }
+}
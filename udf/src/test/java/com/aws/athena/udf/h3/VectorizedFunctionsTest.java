@@ -0,0 +1,479 @@
+package com.aws.athena.udf.h3;
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.BlockUtils;
+import com.amazonaws.athena.connector.lambda.data.FieldBuilder;
+import com.amazonaws.athena.connector.lambda.data.FieldResolver;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.types.Types.MinorType;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.arrow.vector.util.Text;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/** Checks that the vectorized UDFs return the same values as the row by row UDFs. */
+public class VectorizedFunctionsTest {
+    private static final Map<Class<?>, ArrowType> ARROW_TYPES = Map.of(
+        Long.class, MinorType.BIGINT.getType(),
+        Integer.class, MinorType.INT.getType(),
+        Double.class, MinorType.FLOAT8.getType(),
+        String.class, MinorType.VARCHAR.getType(),
+        Boolean.class, MinorType.BIT.getType(),
+        byte[].class, MinorType.VARBINARY.getType());
+
+    private static final String LAT = "lat";
+    private static final String LNG = "lng";
+
+    private final H3AthenaHandler handler;
+    private final BlockAllocator allocator;
+    private final Random random = new Random(42);
+
+    public VectorizedFunctionsTest() throws IOException {
+        handler = new H3AthenaHandler();
+        allocator = new BlockAllocatorImpl();
+    }
+
+    @AfterEach
+    public void closeAllocator() {
+        allocator.close();
+    }
+
+    @Test
+    public void testlat_lng_to_cell() throws Exception {
+        final List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 500; ++i) {
+            rows.add(new Object[] { Math.random() * 180.0 - 90.0, Math.random() * 360.0 - 180.0, random.nextInt(16) });
+        }
+        rows.add(new Object[] { null, 10.0, 3 });
+        rows.add(new Object[] { 10.0, null, 3 });
+        rows.add(new Object[] { 10.0, 10.0, null });
+
+        assertVectorizedMatchesRowByRow("lat_lng_to_cell", Long.class, rows, Double.class, Double.class, Integer.class);
+
+        final List<Object[]> rangeRows = new ArrayList<>();
+        for (int i = 0; i < 500; ++i) {
+            final int maxRes = random.nextInt(16);
+            rangeRows.add(new Object[] { Math.random() * 180.0 - 90.0, Math.random() * 360.0 - 180.0,
+                                         random.nextInt(maxRes + 1), maxRes });
+        }
+        rangeRows.add(new Object[] { 10.0, 10.0, null, 3 });
+        assertVectorizedMatchesRowByRow("lat_lng_to_cells_multi", List.class, rangeRows,
+                                        Double.class, Double.class, Integer.class, Integer.class);
+    }
+
+    @Test
+    public void testcell_inspection() throws Exception {
+        final List<Object[]> rows = new ArrayList<>();
+        for (final Long cell : randomCells(500)) {
+            rows.add(new Object[] { cell });
+        }
+        rows.add(new Object[] { null });
+
+        assertVectorizedMatchesRowByRow("get_resolution", Integer.class, rows, Long.class);
+        assertVectorizedMatchesRowByRow("get_base_cell_number", Integer.class, rows, Long.class);
+        assertVectorizedMatchesRowByRow("is_valid_cell", Boolean.class, rows, Long.class);
+        assertVectorizedMatchesRowByRow("is_pentagon", Boolean.class, rows, Long.class);
+        assertVectorizedMatchesRowByRow("is_res_class_iii", Boolean.class, rows, Long.class);
+    }
+
+    @Test
+    public void testcell_hierarchy() throws Exception {
+        final List<Object[]> parentRows = new ArrayList<>();
+        final List<Object[]> childRows = new ArrayList<>();
+        final List<Object[]> cellRows = new ArrayList<>();
+        for (final Long cell : randomCells(500)) {
+            final int res = handler.get_resolution(cell);
+            if (res > 0) {
+                cellRows.add(new Object[] { cell });
+            }
+            parentRows.add(new Object[] { cell, random.nextInt(res + 1) });
+            childRows.add(new Object[] { cell, res + random.nextInt(16 - res) });
+        }
+        parentRows.add(new Object[] { null, 3 });
+        parentRows.add(new Object[] { cellRows.get(0)[0], null });
+        childRows.add(new Object[] { null, 3 });
+        cellRows.add(new Object[] { null });
+
+        assertVectorizedMatchesRowByRow("cell_to_parent", Long.class, parentRows, Long.class, Integer.class);
+        assertVectorizedMatchesRowByRow("cell_to_center_child", Long.class, childRows, Long.class, Integer.class);
+        assertVectorizedMatchesRowByRow("cell_to_parent", Long.class, cellRows, Long.class);
+        assertVectorizedMatchesRowByRow("cell_direct_parent", Long.class, cellRows, Long.class);
+    }
+
+    @Test
+    public void testaddresses() throws Exception {
+        final List<Object[]> pointRows = new ArrayList<>();
+        final List<Object[]> cellRows = new ArrayList<>();
+        final List<Object[]> addressRows = new ArrayList<>();
+        final List<Object[]> parentRows = new ArrayList<>();
+        for (final Long cell : randomCells(500)) {
+            final List<Double> center = handler.cell_to_lat_lng(cell);
+            final String address = handler.h3_to_string(cell);
+            pointRows.add(new Object[] { center.get(0), center.get(1), handler.get_resolution(cell) });
+            cellRows.add(new Object[] { cell });
+            addressRows.add(new Object[] { random.nextBoolean() ? address : address.toUpperCase() });
+            parentRows.add(new Object[] { address, random.nextInt(handler.get_resolution(cell) + 1) });
+        }
+        pointRows.add(new Object[] { null, 10.0, 3 });
+        cellRows.add(new Object[] { null });
+        addressRows.add(new Object[] { null });
+        parentRows.add(new Object[] { null, 3 });
+
+        assertVectorizedMatchesRowByRow("lat_lng_to_cell_address", String.class, pointRows,
+                                        Double.class, Double.class, Integer.class);
+        assertVectorizedMatchesRowByRow("h3_to_string", String.class, cellRows, Long.class);
+        assertVectorizedMatchesRowByRow("string_to_h3", Long.class, addressRows, String.class);
+        assertVectorizedMatchesRowByRow("get_resolution", Integer.class, addressRows, String.class);
+        assertVectorizedMatchesRowByRow("cell_to_parent", String.class, parentRows, String.class, Integer.class);
+    }
+
+    @Test
+    public void testare_neighbor_cells_and_cell_area() throws Exception {
+        final List<Object[]> neighborRows = new ArrayList<>();
+        final List<Object[]> areaRows = new ArrayList<>();
+        final String[] units = { "rads2", "km2", "m2" };
+        for (final Long cell : randomCells(200)) {
+            for (final Long neighbor : handler.grid_disk(cell, 2)) {
+                neighborRows.add(new Object[] { cell, neighbor });
+            }
+            areaRows.add(new Object[] { cell, units[random.nextInt(units.length)] });
+        }
+        neighborRows.add(new Object[] { null, neighborRows.get(0)[1] });
+        areaRows.add(new Object[] { areaRows.get(0)[0], null });
+
+        assertVectorizedMatchesRowByRow("are_neighbor_cells", Boolean.class, neighborRows, Long.class, Long.class);
+        assertVectorizedMatchesRowByRow("cell_area", Double.class, areaRows, Long.class, String.class);
+    }
+
+    @Test
+    public void testconstant_arguments() throws Exception {
+        final List<Object[]> areaRows = new ArrayList<>();
+        final List<Object[]> lengthRows = new ArrayList<>();
+        final List<Object[]> resolutionRows = new ArrayList<>();
+        final List<Object[]> sysRows = new ArrayList<>();
+        final List<Object[]> sepRows = new ArrayList<>();
+        for (final Long cell : randomCells(300)) {
+            areaRows.add(new Object[] { cell, "km2" });
+            lengthRows.add(new Object[] { cell, "m" });
+            resolutionRows.add(new Object[] { handler.get_resolution(cell), "km" });
+            sysRows.add(new Object[] { cell, LAT });
+            sepRows.add(new Object[] { cell, ";" });
+        }
+        areaRows.add(new Object[] { null, "km2" });
+        sysRows.add(new Object[] { null, LAT });
+        sepRows.add(new Object[] { null, ";" });
+
+        assertVectorizedMatchesRowByRow("cell_area", Double.class, areaRows, Long.class, String.class);
+        assertVectorizedMatchesRowByRow("cell_edge_length", Double.class, lengthRows, Long.class, String.class);
+        assertVectorizedMatchesRowByRow("get_hexagon_edge_length_avg", Double.class, resolutionRows,
+                                        Integer.class, String.class);
+        assertVectorizedMatchesRowByRow("cell_to_boundary_sys", listSchema(MinorType.FLOAT8), sysRows,
+                                        Long.class, String.class);
+        assertVectorizedMatchesRowByRow("cell_to_boundary", listSchema(MinorType.VARCHAR), sepRows,
+                                        Long.class, String.class);
+
+        // Varying arguments are resolved row by row.
+        for (int i = 0; i < sysRows.size(); ++i) {
+            lengthRows.get(i % lengthRows.size())[1] = i % 2 == 0 ? "m" : "rads";
+            sysRows.get(i)[1] = i % 3 == 0 ? LAT : LNG;
+            sepRows.get(i)[1] = i % 3 == 0 ? ";" : ", ";
+        }
+        assertVectorizedMatchesRowByRow("cell_edge_length", Double.class, lengthRows, Long.class, String.class);
+        assertVectorizedMatchesRowByRow("cell_to_boundary_sys", listSchema(MinorType.FLOAT8), sysRows,
+                                        Long.class, String.class);
+        assertVectorizedMatchesRowByRow("cell_to_boundary", listSchema(MinorType.VARCHAR), sepRows,
+                                        Long.class, String.class);
+
+        // An invalid constant fails on the first row with a cell, as row by row.
+        final Method method = H3AthenaHandler.class.getMethod("cell_area", Long.class, String.class);
+        final List<Object[]> invalidRows = List.of(new Object[] { null, "acres" },
+                                                   new Object[] { areaRows.get(0)[0], "acres" });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> handler.processRows(
+            allocator, method, newInputBlock(invalidRows, Long.class, String.class), outputSchema(Double.class)));
+        final Block nullCells = newInputBlock(List.of(new Object[] { null, "acres" }, new Object[] { null, "acres" }),
+                                              Long.class, String.class);
+        assertNull(handler.processRows(allocator, method, nullCells, outputSchema(Double.class))
+                       .getFieldVector("result").getObject(1));
+    }
+
+    @Test
+    public void testcell_lists() throws Exception {
+        final List<Object[]> cellRows = new ArrayList<>();
+        final List<Object[]> depthRows = new ArrayList<>();
+        for (final Long cell : randomCells(300)) {
+            final int res = handler.get_resolution(cell);
+            cellRows.add(new Object[] { cell });
+            depthRows.add(new Object[] { cell, random.nextInt(Math.min(3, 15 - res) + 2) - 1 });
+        }
+        for (final Long pentagon : handler.get_pentagons(4)) {
+            cellRows.add(new Object[] { pentagon });
+            depthRows.add(new Object[] { pentagon, 2 });
+        }
+        cellRows.add(1, new Object[] { null });
+        depthRows.add(1, new Object[] { null, 2 });
+        depthRows.add(new Object[] { cellRows.get(0)[0], null });
+
+        final List<Object[]> childRows = new ArrayList<>();
+        for (final Object[] row : depthRows) {
+            final Integer depth = (Integer) row[1];
+            childRows.add(new Object[] { row[0], row[0] == null || depth == null ? depth
+                : Integer.valueOf(handler.get_resolution((Long) row[0]) + Math.max(0, depth)) });
+        }
+
+        assertVectorizedMatchesRowByRow("cell_to_parents", List.class, cellRows, Long.class);
+        assertVectorizedMatchesRowByRow("cell_to_children", List.class, childRows, Long.class, Integer.class);
+        assertVectorizedMatchesRowByRow("cell_to_descendants", List.class, depthRows, Long.class, Integer.class);
+        assertVectorizedMatchesRowByRow("cell_to_center_descendants", List.class, depthRows,
+                                        Long.class, Integer.class);
+    }
+
+    @Test
+    public void testpolygon_functions() throws Exception {
+        final List<Object[]> wktRows = new ArrayList<>();
+        final List<Object[]> wkbRows = new ArrayList<>();
+        final List<Object[]> geoJsonRows = new ArrayList<>();
+        for (final Long cell : randomCells(20)) {
+            final Long parent = handler.cell_to_parent(cell, Math.min(4, handler.get_resolution(cell)));
+            final int res = handler.get_resolution(parent) + random.nextInt(3);
+            wktRows.add(new Object[] { handler.cell_to_polygon_wkt(parent), res });
+            wkbRows.add(new Object[] { handler.cell_to_polygon_wkb(parent), res });
+            final List<Double> center = handler.cell_to_lat_lng(parent);
+            final double lat = center.get(0), lng = center.get(1);
+            geoJsonRows.add(new Object[] { String.format(Locale.ROOT,
+                "{\"type\":\"Polygon\",\"coordinates\":[[[%f,%f],[%f,%f],[%f,%f],[%f,%f]]]}",
+                lng - 0.5, lat - 0.5, lng + 0.5, lat - 0.5, lng, lat + 0.5, lng - 0.5, lat - 0.5), res });
+        }
+        wktRows.add(new Object[] { null, 5 });
+        wktRows.add(new Object[] { wktRows.get(0)[0], null });
+        final List<Object[]> tryRows = new ArrayList<>(wktRows);
+        tryRows.add(new Object[] { "POLYGON ((1 2, 3", 5 });
+        tryRows.add(new Object[] { wktRows.get(0)[0], 16 });
+
+        for (final String name : new String[] { "polygon_to_cells", "polygon_to_cells_compact" }) {
+            assertVectorizedMatchesRowByRow(name, List.class, wktRows, String.class, Integer.class);
+        }
+        assertVectorizedMatchesRowByRow("polygon_to_cells", List.class, wkbRows, byte[].class, Integer.class);
+        assertVectorizedMatchesRowByRow("try_polygon_to_cells", List.class, tryRows, String.class, Integer.class);
+        for (final String name : new String[] { "polygon_to_cell_addresses", "polygon_to_cell_addresses_compact" }) {
+            assertVectorizedMatchesRowByRow(name, listSchema(MinorType.VARCHAR), wktRows, String.class, Integer.class);
+        }
+        assertVectorizedMatchesRowByRow("polygon_to_cell_addresses", listSchema(MinorType.VARCHAR), wkbRows,
+                                        byte[].class, Integer.class);
+        assertVectorizedMatchesRowByRow("try_polygon_to_cell_addresses", listSchema(MinorType.VARCHAR), tryRows,
+                                        String.class, Integer.class);
+        assertVectorizedMatchesRowByRow("polygon_to_cells_geojson", List.class, geoJsonRows,
+                                        String.class, Integer.class);
+        assertVectorizedMatchesRowByRow("polygon_to_cell_addresses_geojson", listSchema(MinorType.VARCHAR),
+                                        geoJsonRows, String.class, Integer.class);
+        for (final String name : new String[] { "polygon_to_cells", "polygon_to_cell_addresses",
+                "polygon_to_cells_geojson", "polygon_to_cells_compact", "try_polygon_to_cells" }) {
+            assertNotNull(handler.getVectorizedFunctions().get(
+                H3AthenaHandler.class.getMethod(name, String.class, Integer.class)), name);
+        }
+    }
+
+    @Test
+    public void testtry_functions() throws Exception {
+        final List<Object[]> pointRows = new ArrayList<>();
+        final List<Object[]> addressRows = new ArrayList<>();
+        final List<Object[]> parentRows = new ArrayList<>();
+        final List<Object[]> parentAddressRows = new ArrayList<>();
+        for (final Long cell : randomCells(500)) {
+            final List<Double> center = handler.cell_to_lat_lng(cell);
+            final String address = handler.h3_to_string(cell);
+            final int res = handler.get_resolution(cell);
+            pointRows.add(new Object[] { center.get(0), center.get(1), random.nextInt(18) - 1 });
+            addressRows.add(new Object[] { random.nextBoolean() ? address : address + "g" });
+            parentRows.add(new Object[] { random.nextBoolean() ? cell : cell ^ (1L << random.nextInt(64)),
+                                          random.nextInt(res + 3) - 1 });
+            parentAddressRows.add(new Object[] { address, random.nextInt(res + 3) - 1 });
+        }
+        pointRows.add(new Object[] { Double.NaN, 10.0, 3 });
+        pointRows.add(new Object[] { 10.0, Double.POSITIVE_INFINITY, 3 });
+        pointRows.add(new Object[] { null, 10.0, 3 });
+        addressRows.add(new Object[] { "" });
+        addressRows.add(new Object[] { "0" });
+        addressRows.add(new Object[] { "ffffffffffffffff" });
+        addressRows.add(new Object[] { null });
+        parentRows.add(new Object[] { 0L, 0 });
+        parentRows.add(new Object[] { null, 3 });
+        parentAddressRows.add(new Object[] { "not an address", 0 });
+        parentAddressRows.add(new Object[] { null, 3 });
+
+        assertVectorizedMatchesRowByRow("try_lat_lng_to_cell", Long.class, pointRows,
+                                        Double.class, Double.class, Integer.class);
+        assertVectorizedMatchesRowByRow("try_string_to_h3", Long.class, addressRows, String.class);
+        assertVectorizedMatchesRowByRow("try_cell_to_parent", Long.class, parentRows, Long.class, Integer.class);
+        assertVectorizedMatchesRowByRow("try_cell_to_parent", String.class, parentAddressRows,
+                                        String.class, Integer.class);
+    }
+
+    @Test
+    public void testlat_lng_to_cell_counts() throws Exception {
+        final Method method = H3AthenaHandler.class.getMethod("lat_lng_to_cell_counts",
+                                                              List.class, List.class, Integer.class);
+        final List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 50; ++i) {
+            final List<Double> lats = new ArrayList<>();
+            final List<Double> lngs = new ArrayList<>();
+            for (int k = random.nextInt(200); k > 0; --k) {
+                lats.add(40.0 + random.nextDouble());
+                lngs.add(-112.0 + random.nextDouble());
+            }
+            rows.add(new Object[] { lats, lngs, random.nextInt(8) });
+        }
+        rows.add(new Object[] { null, List.of(1.0), 3 });
+        rows.add(new Object[] { List.of(1.0), List.of(1.0), null });
+
+        final Block input = allocator.createBlock(SchemaBuilder.newBuilder()
+            .addListField("arg0", MinorType.FLOAT8.getType())
+            .addListField("arg1", MinorType.FLOAT8.getType())
+            .addField("arg2", MinorType.INT.getType())
+            .build());
+        for (int i = 0; i < rows.size(); ++i) {
+            BlockUtils.setComplexValue(input.getFieldVector("arg0"), i, FieldResolver.DEFAULT, rows.get(i)[0]);
+            BlockUtils.setComplexValue(input.getFieldVector("arg1"), i, FieldResolver.DEFAULT, rows.get(i)[1]);
+            BlockUtils.setValue(input.getFieldVector("arg2"), i, rows.get(i)[2]);
+        }
+        input.setRowCount(rows.size());
+        final Schema outputSchema = new Schema(List.of(FieldBuilder.newBuilder("result", new ArrowType.List())
+            .addField(FieldBuilder.newBuilder("row", MinorType.STRUCT.getType())
+                .addBigIntField(CellCounter.CELL)
+                .addIntField(CellCounter.COUNT)
+                .build())
+            .build()));
+
+        final Block output = handler.processRows(allocator, method, input, outputSchema);
+        final FieldVector result = output.getFieldVector("result");
+        for (int i = 0; i < rows.size(); ++i) {
+            assertEquals(method.invoke(handler, rows.get(i)), result.getObject(i), "row " + i);
+        }
+    }
+
+    @Test
+    public void testlat_lng_to_cell_counts_fields_by_position() throws Exception {
+        final Method method = H3AthenaHandler.class.getMethod("lat_lng_to_cell_counts",
+                                                              List.class, List.class, Integer.class);
+        final Block input = allocator.createBlock(SchemaBuilder.newBuilder()
+            .addListField("arg0", MinorType.FLOAT8.getType())
+            .addListField("arg1", MinorType.FLOAT8.getType())
+            .addField("arg2", MinorType.INT.getType())
+            .build());
+        BlockUtils.setComplexValue(input.getFieldVector("arg0"), 0, FieldResolver.DEFAULT, List.of(40.5, 40.5));
+        BlockUtils.setComplexValue(input.getFieldVector("arg1"), 0, FieldResolver.DEFAULT, List.of(-111.5, -111.5));
+        BlockUtils.setValue(input.getFieldVector("arg2"), 0, 5);
+        input.setRowCount(1);
+
+        final Block output = handler.processRows(allocator, method, input, new Schema(List.of(
+            FieldBuilder.newBuilder("result", new ArrowType.List())
+                .addField(FieldBuilder.newBuilder("row", MinorType.STRUCT.getType())
+                    .addBigIntField("h3").addIntField("n").build())
+                .build())));
+        assertEquals(List.of(Map.of("h3", handler.lat_lng_to_cell(40.5, -111.5, 5), "n", 2)),
+                     output.getFieldVector("result").getObject(0));
+
+        final Schema bigIntCounts = new Schema(List.of(FieldBuilder.newBuilder("result", new ArrowType.List())
+            .addField(FieldBuilder.newBuilder("row", MinorType.STRUCT.getType())
+                .addBigIntField(CellCounter.CELL).addBigIntField(CellCounter.COUNT).build())
+            .build()));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                                () -> handler.processRows(allocator, method, input, bigIntCounts));
+    }
+
+    @Test
+    public void testunvectorized_function_falls_back() throws Exception {
+        final Method method = H3AthenaHandler.class.getMethod("get_num_cells", Integer.class);
+        final Block input = newInputBlock(List.of(new Object[] { 5 }, new Object[] { null }), Integer.class);
+        final Block output = handler.processRows(allocator, method, input, outputSchema(Long.class));
+
+        assertEquals(2016842L, output.getFieldVector("result").getObject(0));
+        assertNull(output.getFieldVector("result").getObject(1));
+    }
+
+    /** Evaluates a UDF over rows through processRows and compares each result to the direct method call. */
+    private void assertVectorizedMatchesRowByRow(String name, Class<?> resultType, List<Object[]> rows,
+                                                 Class<?>... parameterTypes) throws Exception {
+        assertVectorizedMatchesRowByRow(name, outputSchema(resultType), rows, parameterTypes);
+    }
+
+    private void assertVectorizedMatchesRowByRow(String name, Schema outputSchema, List<Object[]> rows,
+                                                 Class<?>... parameterTypes) throws Exception {
+        final Method method = H3AthenaHandler.class.getMethod(name, parameterTypes);
+        final Block input = newInputBlock(rows, parameterTypes);
+        final Block output = handler.processRows(allocator, method, input, outputSchema);
+        final FieldVector result = output.getFieldVector("result");
+
+        assertNotNull(result);
+        assertEquals(rows.size(), output.getRowCount());
+        for (int i = 0; i < rows.size(); ++i) {
+            final Object expected = method.invoke(handler, rows.get(i));
+            assertEquals(expected, toJava(result.getObject(i)), name + " at row " + i);
+        }
+    }
+
+    /** Converts the Text values of VARCHAR vectors, alone or in lists, to strings. */
+    private static Object toJava(Object value) {
+        if (value instanceof List) {
+            final List<Object> values = new ArrayList<>();
+            for (final Object element : (List<?>) value) {
+                values.add(toJava(element));
+            }
+            return values;
+        }
+        return value instanceof Text ? value.toString() : value;
+    }
+
+    private static Schema listSchema(MinorType elementType) {
+        return SchemaBuilder.newBuilder().addListField("result", elementType.getType()).build();
+    }
+
+    private Block newInputBlock(List<Object[]> rows, Class<?>... parameterTypes) {
+        final SchemaBuilder schema = SchemaBuilder.newBuilder();
+        for (int p = 0; p < parameterTypes.length; ++p) {
+            schema.addField("arg" + p, ARROW_TYPES.get(parameterTypes[p]));
+        }
+        final Block input = allocator.createBlock(schema.build());
+        for (int p = 0; p < parameterTypes.length; ++p) {
+            final FieldVector vector = input.getFieldVector("arg" + p);
+            for (int i = 0; i < rows.size(); ++i) {
+                BlockUtils.setValue(vector, i, rows.get(i)[p]);
+            }
+        }
+        input.setRowCount(rows.size());
+        return input;
+    }
+
+    /** A List result type stands for a list of BIGINT. */
+    private static Schema outputSchema(Class<?> resultType) {
+        return resultType == List.class
+            ? SchemaBuilder.newBuilder().addListField("result", MinorType.BIGINT.getType()).build()
+            : SchemaBuilder.newBuilder().addField("result", ARROW_TYPES.get(resultType)).build();
+    }
+
+    private List<Long> randomCells(int count) {
+        final List<Long> cells = new ArrayList<>();
+        for (int i = 0; i < count; ++i) {
+            cells.add(handler.lat_lng_to_cell(Math.random() * 180.0 - 90.0, Math.random() * 360.0 - 180.0,
+                                              random.nextInt(16)));
+        }
+        return cells;
+    }
+}
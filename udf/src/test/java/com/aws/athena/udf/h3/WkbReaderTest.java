@@ -0,0 +1,75 @@
+package com.aws.athena.udf.h3;
+
+import com.uber.h3core.util.LatLng;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+
+/** Checks the WKB reader on the output of the WKB writer and on the other encodings. */
+public class WkbReaderTest {
+    private static final List<LatLng> EXTERIOR = List.of(new LatLng(40.0, -112.0), new LatLng(40.0, -111.0),
+                                                         new LatLng(41.0, -111.0), new LatLng(40.0, -112.0));
+    private static final List<LatLng> HOLE = List.of(new LatLng(40.2, -111.8), new LatLng(40.2, -111.5),
+                                                     new LatLng(40.5, -111.5), new LatLng(40.2, -111.8));
+
+    @Test
+    public void testwriter_round_trip() {
+        final List<List<List<LatLng>>> multiPolygon = List.of(List.of(EXTERIOR, HOLE), List.of(EXTERIOR));
+        assertPolygons(multiPolygon, WkbReader.readPolygons(WkbWriter.multiPolygon(multiPolygon)));
+        assertPolygons(List.of(List.of(EXTERIOR)), WkbReader.readPolygons(WkbWriter.polygon(EXTERIOR)));
+    }
+
+    @Test
+    public void testbig_endian_and_z() {
+        // Big endian ISO polygon Z, then little endian extended polygon with a Z flag and an SRID.
+        final ByteBuffer iso = ByteBuffer.allocate(1 + 4 + 4 + 4 + EXTERIOR.size() * 24).order(ByteOrder.BIG_ENDIAN);
+        iso.put((byte) 0).putInt(1003).putInt(1).putInt(EXTERIOR.size());
+        for (final LatLng point : EXTERIOR) {
+            iso.putDouble(point.lng).putDouble(point.lat).putDouble(1500.0);
+        }
+        assertPolygons(List.of(List.of(EXTERIOR)), WkbReader.readPolygons(iso.array()));
+
+        final ByteBuffer ewkb = ByteBuffer.allocate(1 + 4 + 4 + 4 + 4 + EXTERIOR.size() * 24)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        ewkb.put((byte) 1).putInt(0xA0000003).putInt(4326).putInt(1).putInt(EXTERIOR.size());
+        for (final LatLng point : EXTERIOR) {
+            ewkb.putDouble(point.lng).putDouble(point.lat).putDouble(1500.0);
+        }
+        assertPolygons(List.of(List.of(EXTERIOR)), WkbReader.readPolygons(ewkb.array()));
+    }
+
+    @Test
+    public void testinvalid() {
+        final byte[] polygon = WkbWriter.polygon(EXTERIOR);
+        Assertions.assertThrows(IllegalArgumentException.class,
+                                () -> WkbReader.readPolygons(Arrays.copyOf(polygon, polygon.length - 3)));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                                () -> WkbReader.readPolygons(Arrays.copyOf(polygon, polygon.length + 1)));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                                () -> WkbReader.readPolygons(WkbWriter.point(new LatLng(1, 2))));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> WkbReader.readPolygons(new byte[] { 7 }));
+    }
+
+    static void assertPolygons(List<List<List<LatLng>>> expected, List<List<List<LatLng>>> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int p = 0; p < expected.size(); ++p) {
+            assertEquals(expected.get(p).size(), actual.get(p).size());
+            for (int r = 0; r < expected.get(p).size(); ++r) {
+                final List<LatLng> expectedRing = expected.get(p).get(r);
+                final List<LatLng> actualRing = actual.get(p).get(r);
+                assertEquals(expectedRing.size(), actualRing.size());
+                for (int i = 0; i < expectedRing.size(); ++i) {
+                    assertEquals(expectedRing.get(i).lat, actualRing.get(i).lat);
+                    assertEquals(expectedRing.get(i).lng, actualRing.get(i).lng);
+                }
+            }
+        }
+    }
+}
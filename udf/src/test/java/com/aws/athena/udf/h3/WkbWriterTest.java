@@ -0,0 +1,129 @@
+package com.aws.athena.udf.h3;
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.BlockUtils;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import com.uber.h3core.H3Core;
+import com.uber.h3core.util.LatLng;
+
+import org.apache.arrow.vector.types.Types.MinorType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Checks the WKB encoding of the geometry UDFs by decoding it back. */
+public class WkbWriterTest {
+    private final H3Core h3Core;
+    private final H3AthenaHandler handler;
+
+    public WkbWriterTest() throws IOException {
+        h3Core = H3Core.newInstance();
+        handler = new H3AthenaHandler();
+    }
+
+    @Test
+    public void testcell_to_lat_lng_wkb() {
+        final long h3 = 622236750694711295L;
+        final ByteBuffer wkb = wrap(handler.cell_to_lat_lng_wkb(h3));
+        final LatLng center = h3Core.cellToLatLng(h3);
+
+        assertEquals(21, wkb.capacity());
+        assertEquals(WkbWriter.POINT, readHeader(wkb));
+        assertEquals(center.lng, wkb.getDouble());
+        assertEquals(center.lat, wkb.getDouble());
+        assertArrayEquals(handler.cell_to_lat_lng_wkb(h3), handler.cell_to_lat_lng_wkb(Long.toHexString(h3)));
+        assertNull(handler.cell_to_lat_lng_wkb((Long) null));
+    }
+
+    @Test
+    public void testcell_to_polygon_wkb() {
+        final long h3 = 622236750694711295L;
+        final ByteBuffer wkb = wrap(handler.cell_to_polygon_wkb(h3));
+        final List<LatLng> boundary = h3Core.cellToBoundary(h3);
+
+        assertEquals(WkbWriter.POLYGON, readHeader(wkb));
+        assertEquals(1, wkb.getInt());
+        final List<LatLng> ring = readRing(wkb);
+        assertEquals(boundary.size() + 1, ring.size());
+        assertEquals(boundary, ring.subList(0, boundary.size()));
+        assertEquals(boundary.get(0), ring.get(boundary.size()));
+        assertEquals(0, wkb.remaining());
+        assertArrayEquals(handler.cell_to_polygon_wkb(h3), handler.cell_to_polygon_wkb(Long.toHexString(h3)));
+    }
+
+    @Test
+    public void testcells_to_multi_polygon_wkb() {
+        final List<Long> cells = h3Core.gridDisk(h3Core.latLngToCell(40.4, -111.8, 7), 3);
+        cells.removeAll(h3Core.gridDisk(h3Core.latLngToCell(40.4, -111.8, 7), 1));
+        cells.addAll(h3Core.gridDisk(h3Core.latLngToCell(40.9, -111.8, 7), 1));
+        final List<List<List<LatLng>>> expected = h3Core.cellsToMultiPolygon(cells, true);
+        final ByteBuffer wkb = wrap(handler.cells_to_multi_polygon_wkb(cells, true));
+
+        assertEquals(WkbWriter.MULTIPOLYGON, readHeader(wkb));
+        assertEquals(expected.size(), wkb.getInt());
+        for (final List<List<LatLng>> polygon : expected) {
+            assertEquals(WkbWriter.POLYGON, readHeader(wkb));
+            assertEquals(polygon.size(), wkb.getInt());
+            for (final List<LatLng> ring : polygon) {
+                assertEquals(ring, readRing(wkb));
+            }
+        }
+        assertEquals(0, wkb.remaining());
+        assertArrayEquals(handler.cells_to_multi_polygon_wkb(cells, true),
+                          handler.cell_addresses_to_multi_polygon_wkb(H3AddressCodec.encodeAll(cells), true));
+    }
+
+    @Test
+    public void testboundary_wkb_through_arrow() throws Exception {
+        final long h3 = 622236750694711295L;
+        try (BlockAllocator allocator = new BlockAllocatorImpl()) {
+            final Block input = allocator.createBlock(SchemaBuilder.newBuilder()
+                                                                   .addField("h3", MinorType.BIGINT.getType())
+                                                                   .build());
+            BlockUtils.setValue(input.getFieldVector("h3"), 0, h3);
+            input.setRowCount(1);
+            final Block output = handler.processRows(allocator,
+                                                     H3AthenaHandler.class.getMethod("cell_to_boundary_wkb", Long.class),
+                                                     input,
+                                                     SchemaBuilder.newBuilder()
+                                                                  .addListField("result", MinorType.VARBINARY.getType())
+                                                                  .build());
+            final List<?> points = (List<?>) output.getFieldVector("result").getObject(0);
+            final List<LatLng> boundary = h3Core.cellToBoundary(h3);
+
+            assertEquals(boundary.size(), points.size());
+            for (int i = 0; i < boundary.size(); ++i) {
+                assertArrayEquals(WkbWriter.point(boundary.get(i)), (byte[]) points.get(i));
+            }
+        }
+    }
+
+    private static ByteBuffer wrap(byte[] wkb) {
+        return ByteBuffer.wrap(wkb).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static int readHeader(ByteBuffer wkb) {
+        assertEquals(1, wkb.get());
+        return wkb.getInt();
+    }
+
+    private static List<LatLng> readRing(ByteBuffer wkb) {
+        final int size = wkb.getInt();
+        final List<LatLng> ring = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            final double lng = wkb.getDouble();
+            ring.add(new LatLng(wkb.getDouble(), lng));
+        }
+        return ring;
+    }
+}
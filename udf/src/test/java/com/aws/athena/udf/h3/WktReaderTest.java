@@ -0,0 +1,101 @@
+package com.aws.athena.udf.h3;
+
+import com.uber.h3core.util.LatLng;
+
+import mil.nga.sf.MultiPolygon;
+import mil.nga.sf.Point;
+import mil.nga.sf.Polygon;
+import mil.nga.sf.wkt.GeometryReader;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/** Checks the single-pass WKT reader against the Simple Features reader. */
+public class WktReaderTest {
+    private final Random random = new Random(3);
+
+    @Test
+    public void testmatches_geometry_reader() throws IOException {
+        for (int i = 0; i < 200; ++i) {
+            final StringBuilder wkt = new StringBuilder("MULTIPOLYGON (");
+            final int polygons = 1 + random.nextInt(3);
+            for (int p = 0; p < polygons; ++p) {
+                if (p > 0) { wkt.append(", "); }
+                wkt.append('(');
+                final int rings = 1 + random.nextInt(3);
+                for (int r = 0; r < rings; ++r) {
+                    if (r > 0) { wkt.append(','); }
+                    appendRing(wkt, 3 + random.nextInt(20));
+                }
+                wkt.append(')');
+            }
+            wkt.append(')');
+
+            final List<List<List<LatLng>>> read = WktReader.readPolygons(wkt.toString());
+            final MultiPolygon expected = GeometryReader.readGeometry(wkt.toString(), MultiPolygon.class);
+            assertEquals(expected.numPolygons(), read.size());
+            for (int p = 0; p < read.size(); ++p) {
+                assertRings(expected.getPolygon(p), read.get(p));
+            }
+        }
+    }
+
+    @Test
+    public void testpolygon() throws IOException {
+        final String wkt = " POLYGON((-111.9 40.5,-111.8 40.5,-111.8 40.6,-111.9 40.5), "
+            + "(-111.85 40.52, -111.82 40.52, -111.84 40.55, -111.85 40.52)) ";
+        final List<List<List<LatLng>>> read = WktReader.readPolygons(wkt);
+        assertEquals(1, read.size());
+        assertRings(GeometryReader.readGeometry(wkt.trim(), Polygon.class), read.get(0));
+    }
+
+    @Test
+    public void testunsupported_text() {
+        assertNull(WktReader.readPolygons("POLYGON Z ((1 2 3, 4 5 6, 7 8 9, 1 2 3))"));
+        assertNull(WktReader.readPolygons("POLYGON ((1 2 3, 4 5 6, 7 8 9, 1 2 3))"));
+        assertNull(WktReader.readPolygons("POLYGON EMPTY"));
+        assertNull(WktReader.readPolygons("POLYGON ((1 2, 3 4, 5 6, 1 2)"));
+        assertNull(WktReader.readPolygons("POLYGON ((1 2, 3 4, 5 6, 1 2))x"));
+        assertNull(WktReader.readPolygons("POLYGON ((1 2, 3, 5 6, 1 2))"));
+        assertNull(WktReader.readPolygons("POLYGON ((1 2, 3 4e, 5 6, 1 2))"));
+        assertNull(WktReader.readPolygons("POINT (1 2)"));
+    }
+
+    private void appendRing(StringBuilder wkt, int points) {
+        wkt.append('(');
+        for (int i = 0; i < points; ++i) {
+            if (i > 0) { wkt.append(random.nextBoolean() ? ", " : ","); }
+            wkt.append(randomCoordinate(180)).append(' ').append(randomCoordinate(90));
+        }
+        wkt.append(')');
+    }
+
+    /** Coordinates written with a random number of digits, as Double.toString or in scientific notation. */
+    private String randomCoordinate(double range) {
+        final double value = (random.nextDouble() * 2 - 1) * range * (random.nextInt(10) == 0 ? 1e-6 : 1);
+        switch (random.nextInt(4)) {
+            case 0: return Double.toString(value);
+            case 1: return String.format(Locale.ROOT, "%.3e", value);
+            default: return String.format(Locale.ROOT, "%." + random.nextInt(18) + "f", value);
+        }
+    }
+
+    private static void assertRings(Polygon expected, List<List<LatLng>> rings) {
+        assertEquals(expected.numRings(), rings.size());
+        for (int r = 0; r < rings.size(); ++r) {
+            final List<Point> points = expected.getRing(r).getPoints();
+            assertEquals(points.size(), rings.get(r).size());
+            for (int i = 0; i < points.size(); ++i) {
+                assertEquals(points.get(i).getX(), rings.get(r).get(i).lng);
+                assertEquals(points.get(i).getY(), rings.get(r).get(i).lat);
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.aws.athena.udf.h3;
+
+import com.uber.h3core.H3Core;
+import com.uber.h3core.util.LatLng;
+
+import mil.nga.sf.MultiPolygon;
+import mil.nga.sf.Point;
+import mil.nga.sf.wkt.GeometryReader;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Random;
+
+/** Checks the fixed-precision coordinate formatting and the streaming WKT writer. */
+public class WktWriterTest {
+    private final H3Core h3Core;
+    private final Random random = new Random(11);
+
+    public WktWriterTest() throws IOException {
+        h3Core = H3Core.newInstance();
+    }
+
+    @Test
+    public void testformat_trimmed() {
+        assertEquals("0", format(0.0, 10));
+        assertEquals("0", format(-0.0, 10));
+        assertEquals("0", format(-0.00000000001, 10));
+        assertEquals("1.5", format(1.5, 10));
+        assertEquals("-180", format(-179.99999999999, 10));
+        assertEquals("36.0677357723", format(36.06773577233441, 10));
+        assertEquals("-119", format(-119.02139761835724, 0));
+        assertEquals("-119.021397618357", format(-119.02139761835724, 12));
+        assertEquals("NaN", format(Double.NaN, 10));
+        assertEquals("1.0E20", format(1e20, 10));
+        assertEquals("0.13", format(0.125, 2));
+        assertEquals("-0.13", format(-0.125, 2));
+        assertEquals("37.7749295017439", format(37.77492950174389, 13));
+        assertEquals("37.77492950174389", format(37.77492950174389, 14));
+        assertEquals("37.774929501743891", format(37.77492950174389, 15));
+        assertEquals("180", format(179.99999999999997, 13));
+        assertEquals("179.99999999999997", format(179.99999999999997, 14));
+        assertEquals("-122.419415500000014", format(-122.41941550000001, 15));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> CoordinateFormatter.checkDigits(16));
+
+        for (int i = 0; i < 10000; ++i) {
+            final double value = random.nextDouble() * 360.0 - 180.0;
+            final int digits = random.nextInt(CoordinateFormatter.MAX_DIGITS - 2);
+            assertEquals(value, Double.parseDouble(format(value, digits)), 0.5 / Math.pow(10, digits) + 1e-12);
+        }
+    }
+
+    @Test
+    public void testformat_trimmed_exact() {
+        // At 13 to 15 digits the scaled value reaches 2^53, from where only the exact expansion rounds correctly.
+        for (int i = 0; i < 10000; ++i) {
+            final double value = random.nextDouble() * 360.0 - 180.0;
+            for (int digits = 13; digits <= CoordinateFormatter.MAX_DIGITS; ++digits) {
+                final BigDecimal expected = new BigDecimal(value).setScale(digits, RoundingMode.HALF_UP);
+                assertEquals(0, expected.compareTo(new BigDecimal(format(value, digits))), value + " at " + digits);
+            }
+        }
+    }
+
+    @Test
+    public void testwrite_multi_polygon() throws IOException {
+        final List<Long> cells = h3Core.gridDisk(h3Core.latLngToCell(40.4, -111.8, 7), 3);
+        cells.addAll(h3Core.gridDisk(h3Core.latLngToCell(40.9, -111.8, 7), 1));
+        final List<List<List<LatLng>>> expected = h3Core.cellsToMultiPolygon(cells, true);
+        final MultiPolygon actual =
+            GeometryReader.readGeometry(WktWriter.writeMultiPolygon(expected, WktWriter.FULL_PRECISION), MultiPolygon.class);
+
+        assertEquals(expected.size(), actual.numPolygons());
+        for (int p = 0; p < expected.size(); ++p) {
+            final List<LatLng> exterior = expected.get(p).get(0);
+            final List<Point> points = actual.getPolygon(p).getExteriorRing().getPoints();
+            assertEquals(exterior.size(), points.size());
+            for (int i = 0; i < points.size(); ++i) {
+                assertEquals(exterior.get(i).lat, points.get(i).getY());
+                assertEquals(exterior.get(i).lng, points.get(i).getX());
+            }
+        }
+        assertEquals("MULTIPOLYGON ()", WktWriter.writeMultiPolygon(List.of(), 6));
+    }
+
+    private static String format(double value, int digits) {
+        final char[] buffer = new char[CoordinateFormatter.MAX_LENGTH];
+        return new String(buffer, 0, CoordinateFormatter.formatTrimmed(value, digits, buffer, 0));
+    }
+}